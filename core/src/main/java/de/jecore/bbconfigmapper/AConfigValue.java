@@ -0,0 +1,119 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2023 BlvckBytes
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package de.jecore.bbconfigmapper;
+
+import me.blvckbytes.gpeee.IExpressionEvaluator;
+import me.blvckbytes.gpeee.interpreter.IEvaluationEnvironment;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Base of the values created by {@link ConfigValue#of}, each of which is specialized on a single shape of value
+ * and only implements the requests fitting that shape itself. All other requests are rare and thus answered by
+ * a general {@link ConfigValue} of the same value, which is created on demand.
+ */
+abstract class AConfigValue implements IEvaluable {
+
+  protected static final int TYPE_COUNT = ScalarType.values().length;
+
+  protected final @Nullable Object value;
+  protected final @Nullable IExpressionEvaluator evaluator;
+
+  // Not volatile, as a general value only consists of final fields and is thus always seen fully initialized
+  private @Nullable ConfigValue general;
+
+  protected AConfigValue(@Nullable Object value, @Nullable IExpressionEvaluator evaluator) {
+    this.value = value;
+    this.evaluator = evaluator;
+  }
+
+  /**
+   * Get the general value which answers all requests not fitting the shape of this value
+   */
+  protected ConfigValue general() {
+    ConfigValue result = general;
+
+    if (result == null) {
+      result = new ConfigValue(value, evaluator);
+      general = result;
+    }
+
+    return result;
+  }
+
+  @Override
+  public <T> T asScalar(ScalarType type, IEvaluationEnvironment env) {
+    return general().asScalar(type, env);
+  }
+
+  @Override
+  public <T, U> Map<T, U> asMap(ScalarType key, ScalarType value, IEvaluationEnvironment env) {
+    return general().asMap(key, value, env);
+  }
+
+  @Override
+  public <T> List<T> asList(ScalarType type, IEvaluationEnvironment env) {
+    return general().asList(type, env);
+  }
+
+  @Override
+  public <T> Set<T> asSet(ScalarType type, IEvaluationEnvironment env) {
+    return general().asSet(type, env);
+  }
+
+  @Override
+  public Object asRawObject(IEvaluationEnvironment env) {
+    return general().asRawObject(env);
+  }
+
+  @Override
+  public int asInt(IEvaluationEnvironment env) {
+    return general().asInt(env);
+  }
+
+  @Override
+  public long asLong(IEvaluationEnvironment env) {
+    return general().asLong(env);
+  }
+
+  @Override
+  public double asDouble(IEvaluationEnvironment env) {
+    return general().asDouble(env);
+  }
+
+  @Override
+  public boolean asBoolean(IEvaluationEnvironment env) {
+    return general().asBoolean(env);
+  }
+
+  @Override
+  public String toString() {
+    return getClass().getSimpleName() + "{" +
+      "value=" + value +
+      '}';
+  }
+}
@@ -0,0 +1,195 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2023 BlvckBytes
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package de.jecore.bbconfigmapper;
+
+import org.jetbrains.annotations.Nullable;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Registry which resolves the converter of every type only once and answers all subsequent
+ * lookups from a {@link ClassValue}. Converters are either registered on this instance or
+ * provided by a delegate registry, which is assumed to always answer equally for the same type
+ * until {@link #invalidate()} is called. If hierarchy-aware, types without a converter of their own
+ * inherit the converter of their closest superclass, and then of their interfaces in breadth-first order.
+ * Caching is opt-in: a {@link ConfigMapper} only caches lookups if it's been handed an instance of this class.
+ */
+public class CachingValueConverterRegistry implements IValueConverterRegistry {
+
+  private record Binding(Class<?> requiredType, FValueConverter converter) {}
+
+  private final @Nullable IValueConverterRegistry delegate;
+  private final boolean hierarchyAware;
+  private final Map<Class<?>, Binding> registeredBindings;
+  private volatile ClassValue<Optional<Binding>> resolvedBindings;
+
+  private volatile boolean resolvedAny;
+
+  /**
+   * Create a new caching registry without a delegate, which only knows registered converters
+   * @param hierarchyAware Whether types inherit converters of their supertypes
+   */
+  public CachingValueConverterRegistry(
+    final boolean hierarchyAware
+  ) {
+    this(null, hierarchyAware);
+  }
+
+  /**
+   * Create a new caching registry around a delegate registry
+   * @param delegate Registry to resolve converters from which haven't been registered on this instance
+   * @param hierarchyAware Whether types inherit converters of their supertypes
+   */
+  public CachingValueConverterRegistry(
+    final @Nullable IValueConverterRegistry delegate,
+    final boolean hierarchyAware
+  ) {
+    this.delegate = delegate;
+    this.hierarchyAware = hierarchyAware;
+    this.registeredBindings = new ConcurrentHashMap<>();
+    this.resolvedBindings = createResolvedBindings();
+  }
+
+  /**
+   * Register a converter, which takes precedence over the delegate's converter for the same type.
+   * Primitive types are bound independently of their wrappers, and converters implementing
+   * {@link FIntValueConverter}, {@link FLongValueConverter}, {@link FDoubleValueConverter} or
+   * {@link FBooleanValueConverter} bound to the matching primitive are written to fields without boxing.
+   * @param type Type of the fields to convert values for
+   * @param requiredType Type the config value has to be resolved as before passing it to the converter
+   * @param converter Converter to apply
+   * @return This instance, for chaining
+   * @throws IllegalStateException Converters have already been looked up and not been invalidated since
+   */
+  public CachingValueConverterRegistry register(
+    final Class<?> type,
+    final Class<?> requiredType,
+    final FValueConverter converter
+  ) {
+    if (resolvedAny)
+      throw new IllegalStateException("Converters have to be registered before the first lookup or after invalidating");
+
+    registeredBindings.put(type, new Binding(requiredType, converter));
+    return this;
+  }
+
+  /**
+   * Forget all resolved converters, so that converters registered from now on as well as changed answers of the
+   * delegate apply to subsequent lookups. A {@link ConfigMapper} resolves the converters of a section's fields once
+   * when first mapping that section's type, which is why mappers created before keep using the previous converters
+   * for fields, while items of lists, arrays and maps are looked up again.
+   */
+  public void invalidate() {
+    resolvedBindings = createResolvedBindings();
+    resolvedAny = false;
+  }
+
+  @Override
+  public @Nullable Class<?> getRequiredTypeFor(Class<?> type) {
+    Binding binding = lookup(type);
+    return binding == null ? null : binding.requiredType;
+  }
+
+  @Override
+  public @Nullable FValueConverter getConverterFor(Class<?> type) {
+    Binding binding = lookup(type);
+    return binding == null ? null : binding.converter;
+  }
+
+  private @Nullable Binding lookup(Class<?> type) {
+    if (!resolvedAny)
+      resolvedAny = true;
+
+    return resolvedBindings.get(type).orElse(null);
+  }
+
+  private ClassValue<Optional<Binding>> createResolvedBindings() {
+    return new ClassValue<>() {
+      @Override
+      protected Optional<Binding> computeValue(Class<?> type) {
+        return Optional.ofNullable(resolveBinding(type));
+      }
+    };
+  }
+
+  /**
+   * Resolve the binding of a type, walking it's supertypes if hierarchy-aware
+   * @param type Type to resolve
+   * @return Resolved binding, null if there's none
+   */
+  private @Nullable Binding resolveBinding(Class<?> type) {
+    Binding binding = resolveOwnBinding(type);
+
+    if (binding != null || !hierarchyAware || type.isPrimitive())
+      return binding;
+
+    // Superclasses are closer than interfaces, Object is not considered to be a match for everything
+    for (Class<?> superclass = type.getSuperclass(); superclass != null && superclass != Object.class; superclass = superclass.getSuperclass()) {
+      if ((binding = resolveOwnBinding(superclass)) != null)
+        return binding;
+    }
+
+    Deque<Class<?>> pendingInterfaces = new ArrayDeque<>();
+    Set<Class<?>> visitedInterfaces = new HashSet<>();
+
+    for (Class<?> c = type; c != null; c = c.getSuperclass())
+      pendingInterfaces.addAll(Arrays.asList(c.getInterfaces()));
+
+    while (!pendingInterfaces.isEmpty()) {
+      Class<?> currentInterface = pendingInterfaces.pollFirst();
+
+      if (!visitedInterfaces.add(currentInterface))
+        continue;
+
+      if ((binding = resolveOwnBinding(currentInterface)) != null)
+        return binding;
+
+      pendingInterfaces.addAll(Arrays.asList(currentInterface.getInterfaces()));
+    }
+
+    return null;
+  }
+
+  /**
+   * Resolve the binding of exactly the provided type
+   * @param type Type to resolve
+   * @return Resolved binding, null if there's neither a registered converter nor a complete one provided by the delegate
+   */
+  private @Nullable Binding resolveOwnBinding(Class<?> type) {
+    Binding binding = registeredBindings.get(type);
+
+    if (binding != null || delegate == null)
+      return binding;
+
+    Class<?> requiredType = delegate.getRequiredTypeFor(type);
+    FValueConverter converter = delegate.getConverterFor(type);
+
+    if (requiredType == null || converter == null)
+      return null;
+
+    return new Binding(requiredType, converter);
+  }
+}
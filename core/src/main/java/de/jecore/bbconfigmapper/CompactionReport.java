@@ -0,0 +1,92 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2023 BlvckBytes
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package de.jecore.bbconfigmapper;
+
+/**
+ * Report of loading a config read-only, which states how many nodes the compact tree consists of and
+ * how much heap is no longer retained by it. Comments are never parsed in that mode, so the space they
+ * would have taken up is saved in addition, but it's not part of this report.
+ */
+public final class CompactionReport {
+
+  private final int nodeCount;
+  private final int mergeKeyCount;
+  private final int releasedMarkCount;
+  private final int releasedBufferCount;
+  private final long releasedBytes;
+
+  CompactionReport(int nodeCount, int mergeKeyCount, int releasedMarkCount, int releasedBufferCount, long releasedBytes) {
+    this.nodeCount = nodeCount;
+    this.mergeKeyCount = mergeKeyCount;
+    this.releasedMarkCount = releasedMarkCount;
+    this.releasedBufferCount = releasedBufferCount;
+    this.releasedBytes = releasedBytes;
+  }
+
+  /**
+   * Get the number of distinct nodes within the compact tree
+   */
+  public int getNodeCount() {
+    return nodeCount;
+  }
+
+  /**
+   * Get the number of merge keys which have been resolved and dropped
+   */
+  public int getMergeKeyCount() {
+    return mergeKeyCount;
+  }
+
+  /**
+   * Get the number of source marks which are no longer retained
+   */
+  public int getReleasedMarkCount() {
+    return releasedMarkCount;
+  }
+
+  /**
+   * Get the number of input buffers which are no longer retained through source marks
+   */
+  public int getReleasedBufferCount() {
+    return releasedBufferCount;
+  }
+
+  /**
+   * Get the estimated number of bytes of all source marks and input buffers which are no longer retained
+   */
+  public long getReleasedBytes() {
+    return releasedBytes;
+  }
+
+  @Override
+  public String toString() {
+    return "CompactionReport{" +
+      "nodeCount=" + nodeCount +
+      ", mergeKeyCount=" + mergeKeyCount +
+      ", releasedMarkCount=" + releasedMarkCount +
+      ", releasedBufferCount=" + releasedBufferCount +
+      ", releasedBytes=" + releasedBytes +
+      '}';
+  }
+}
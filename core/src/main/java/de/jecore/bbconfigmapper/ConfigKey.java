@@ -0,0 +1,117 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2023 BlvckBytes
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package de.jecore.bbconfigmapper;
+
+import me.blvckbytes.gpeee.GPEEE;
+import me.blvckbytes.gpeee.IExpressionEvaluator;
+import me.blvckbytes.gpeee.interpreter.IEvaluationEnvironment;
+import me.blvckbytes.gpeee.parser.expression.AExpression;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * Handle of a frequently read value within a {@link YamlConfig}, obtained through {@link YamlConfig#key}.
+ * The value is located and converted to the handle's scalar type on the first read and then returned as is,
+ * until the configuration's revision changes by a modification or a reload. Values which are marked for
+ * expressions are only located once per revision, but evaluated on every read if their result depends on
+ * the environment.
+ */
+public final class ConfigKey<T> {
+
+  private record Resolution(long revision, @Nullable IEvaluable expression, @Nullable Object value) {}
+
+  private final YamlConfig config;
+  private final ConfigPath path;
+  private final ScalarType type;
+  private final @Nullable IExpressionEvaluator evaluator;
+
+  // Not volatile, as a resolution only consists of final fields and is thus always seen fully initialized
+  private @Nullable Resolution resolution;
+
+  ConfigKey(YamlConfig config, ConfigPath path, ScalarType type, @Nullable IExpressionEvaluator evaluator) {
+    this.config = config;
+    this.path = path;
+    this.type = type;
+    this.evaluator = evaluator;
+  }
+
+  /**
+   * Get the value of this key, evaluating expressions within an empty environment
+   * @return Converted value, null if the key is absent or holds null
+   */
+  public @Nullable T get() {
+    return get(GPEEE.EMPTY_ENVIRONMENT);
+  }
+
+  /**
+   * Get the value of this key
+   * @param env Environment to evaluate expressions within
+   * @return Converted value, null if the key is absent or holds null
+   */
+  @SuppressWarnings("unchecked")
+  public @Nullable T get(IEvaluationEnvironment env) {
+    Resolution current = resolution;
+
+    if (current == null || current.revision != config.getRevision())
+      current = resolve();
+
+    if (current.expression != null)
+      return current.expression.asScalar(type, env);
+
+    return (T) current.value;
+  }
+
+  private Resolution resolve() {
+    // Read before resolving, so that a modification racing with this call causes another resolution on the next read
+    long revision = config.getRevision();
+    Object raw = config.get(path);
+    IEvaluable expression = null;
+    Object value = null;
+
+    // Kept for all reads of this revision, as it memoizes the results of expressions which turn out to be constant
+    if (raw instanceof AExpression)
+      expression = ConfigValue.of(raw, evaluator);
+
+    else if (raw != null)
+      value = ConfigValue.of(raw, evaluator).asScalar(type, GPEEE.EMPTY_ENVIRONMENT);
+
+    Resolution result = new Resolution(revision, expression, value);
+    this.resolution = result;
+    return result;
+  }
+
+  /**
+   * Get the path this key points at
+   */
+  public ConfigPath getPath() {
+    return path;
+  }
+
+  /**
+   * Get the scalar type values of this key are converted to
+   */
+  public ScalarType getType() {
+    return type;
+  }
+}
@@ -0,0 +1,911 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2023 BlvckBytes
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package de.jecore.bbconfigmapper;
+
+import de.jecore.bbconfigmapper.logging.DebugLogSource;
+import de.jecore.bbconfigmapper.logging.ITraceSink;
+import de.jecore.bbconfigmapper.logging.LoggerTraceSink;
+import de.jecore.bbconfigmapper.logging.TraceEvent;
+import de.jecore.bbconfigmapper.sections.IConfigSection;
+import me.blvckbytes.gpeee.GPEEE;
+import me.blvckbytes.gpeee.IExpressionEvaluator;
+import org.jetbrains.annotations.Nullable;
+
+import java.lang.reflect.Array;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+public class ConfigMapper implements IConfigMapper {
+
+  /**
+   * Default minimum size of a collection of sections to be mapped in parallel
+   */
+  public static final int DEFAULT_PARALLEL_THRESHOLD = 256;
+
+  /**
+   * Number of chunks a parallel collection is split into per available processor, so that
+   * chunks of differing cost are still balanced out between workers
+   */
+  private static final int CHUNKS_PER_PROCESSOR = 4;
+
+  private final IConfig config;
+
+  private final ITraceSink traceSink;
+  private final boolean tracing;
+  private final IExpressionEvaluator evaluator;
+  private final @Nullable IValueConverterRegistry converterRegistry;
+  private final ClassValue<SectionPlan<?>> sectionPlans;
+  private final GeneratedMappers generatedMappers;
+
+  private final Map<RemapKey, FieldRecord> remapRecords;
+
+  private volatile @Nullable Executor parallelExecutor;
+  private volatile int parallelThreshold;
+
+  /**
+   * Create a new config reader on a {@link IConfig}, which accesses sections through method handles
+   * @param config Configuration to read from
+   * @param logger Logger to trace mapping at {@link Level#FINEST} to, if loggable at that level upon construction
+   * @param evaluator Expression evaluator instance to use when parsing expressions
+   * @param converterRegistry Optional registry of custom value converters, see {@link CachingValueConverterRegistry}
+   *                          for one which resolves every type only once
+   */
+  public ConfigMapper(
+    final IConfig config,
+    final Logger logger,
+    final IExpressionEvaluator evaluator,
+    final @Nullable IValueConverterRegistry converterRegistry
+  ) {
+    this(config, new LoggerTraceSink(logger), evaluator, converterRegistry, AccessStrategy.METHOD_HANDLES);
+  }
+
+  /**
+   * Create a new config reader on a {@link IConfig}
+   * @param config Configuration to read from
+   * @param logger Logger to trace mapping at {@link Level#FINEST} to, if loggable at that level upon construction
+   * @param evaluator Expression evaluator instance to use when parsing expressions
+   * @param converterRegistry Optional registry of custom value converters, see {@link CachingValueConverterRegistry}
+   *                          for one which resolves every type only once
+   * @param accessStrategy Strategy used to instantiate sections and to write their fields
+   */
+  public ConfigMapper(
+    final IConfig config,
+    final Logger logger,
+    final IExpressionEvaluator evaluator,
+    final @Nullable IValueConverterRegistry converterRegistry,
+    final AccessStrategy accessStrategy
+  ) {
+    this(config, new LoggerTraceSink(logger), evaluator, converterRegistry, accessStrategy);
+  }
+
+  /**
+   * Create a new config reader on a {@link IConfig}
+   * @param config Configuration to read from
+   * @param traceSink Sink to emit trace events to, which is asked whether {@link DebugLogSource#MAPPER} is enabled once
+   * @param evaluator Expression evaluator instance to use when parsing expressions
+   * @param converterRegistry Optional registry of custom value converters, see {@link CachingValueConverterRegistry}
+   *                          for one which resolves every type only once
+   * @param accessStrategy Strategy used to instantiate sections and to write their fields
+   */
+  public ConfigMapper(
+    final IConfig config,
+    final ITraceSink traceSink,
+    final IExpressionEvaluator evaluator,
+    final @Nullable IValueConverterRegistry converterRegistry,
+    final AccessStrategy accessStrategy
+  ) {
+    this.config = config;
+    this.traceSink = traceSink;
+    this.tracing = traceSink.isEnabled(DebugLogSource.MAPPER);
+    this.evaluator = evaluator;
+
+    this.converterRegistry = converterRegistry;
+
+    this.remapRecords = new ConcurrentHashMap<>();
+    this.generatedMappers = new GeneratedMappers();
+    this.sectionPlans = new ClassValue<>() {
+      @Override
+      protected SectionPlan<?> computeValue(Class<?> type) {
+        return createPlan(type.asSubclass(IConfigSection.class), accessStrategy);
+      }
+    };
+  }
+
+  @Override
+  public IConfig getConfig() {
+    return this.config;
+  }
+
+  @Override
+  public <T extends IConfigSection> T mapSection(
+		final @Nullable String root,
+		final Class<T> type
+	) throws Exception {
+    if (tracing)
+      traceSink.trace(TraceEvent.MAP_ENTRY, root, type);
+    return mapSectionSub(config.cursor(root), type, true);
+  }
+
+  /**
+   * Maps a section just like {@link #mapSection} does, while reusing the results of the previous remapping
+   * call for the same root and type wherever they would turn out equal, which is meant to be called again
+   * after reloading or modifying the config. All reads a field performs on the config are recorded, and
+   * sections whose fields all still read equal values, including values merged in by merge keys, are
+   * returned by reference, including the root section itself if nothing changed at all; their hooks are
+   * not called again and changes made to them after mapping persist. Changed sections are mapped anew,
+   * taking over the values of their unchanged fields, unless the field is decided differently at runtime.
+   * Hooks are expected to only depend on the section's values, and fields holding lazy sections are always
+   * resolved anew, as their holders read later on. Sections are matched by their location.
+   * @param root Root node of this section (null means config root)
+   * @param type Type of the class to map
+   * @return Mapped instance of specified type
+   */
+  public <T extends IConfigSection> T remapSection(
+		final @Nullable String root,
+		final Class<T> type
+	) throws Exception {
+    if (tracing)
+      traceSink.trace(TraceEvent.REMAP_ENTRY, root, type);
+
+    RemapKey key = new RemapKey(root, type);
+    FieldRecord previous = remapRecords.get(key);
+
+    // The root section is recorded just like a section held by a field
+    FieldRecord record = new FieldRecord(type);
+    RecordingCursor cursor = new RecordingCursor(config.cursor(root), record, previous == null ? null : previous.reads, new RemapCall());
+    T result = mapSectionSub(cursor, type, true);
+    record.complete(result);
+
+    // Only replaced on success, so that a failed call doesn't discard reusable sections
+    remapRecords.put(key, record);
+    return result;
+  }
+
+  /**
+   * Forgets about all sections mapped by previous calls to {@link #remapSection}, which releases
+   * the config trees they've been mapped from
+   */
+  public void clearRemapRecords() {
+    remapRecords.clear();
+  }
+
+  private record RemapKey(@Nullable String root, Class<?> type) {}
+
+  /**
+   * Enables parallel mapping, which splits lists, arrays and maps of sections that hold at least
+   * {@code threshold} items into chunks, and which maps the sibling sub-sections of the mapped root
+   * section concurrently. Values are still assigned in field order, fields of type Object are still
+   * decided after all of their siblings have been assigned, and errors are still reported for the first
+   * failing field or index. Sections mapped on worker threads call their hooks on these threads, and
+   * both the expression evaluator as well as the converter registry need to support concurrent use.
+   * Tasks which have not yet been picked up by the executor are run by the awaiting thread, which is
+   * why bounded executors cannot starve on nested parallel collections.
+   * @param executor Executor to run mapping tasks on, for example a {@link ForkJoinPool} or a
+   *                 virtual-thread-per-task executor
+   * @param threshold Minimum number of items of a collection of sections to be mapped in parallel
+   */
+  public void enableParallelMapping(
+		final Executor executor,
+		final int threshold
+	) {
+    if (threshold < 2)
+      throw new IllegalArgumentException("The parallel threshold has to be at least two");
+
+    this.parallelThreshold = threshold;
+    this.parallelExecutor = executor;
+  }
+
+  /**
+   * Enables parallel mapping on the common {@link ForkJoinPool} with the {@link #DEFAULT_PARALLEL_THRESHOLD}
+   * @see #enableParallelMapping(Executor, int)
+   */
+  public void enableParallelMapping() {
+    enableParallelMapping(ForkJoinPool.commonPool(), DEFAULT_PARALLEL_THRESHOLD);
+  }
+
+  /**
+   * Disables parallel mapping, so that all values are mapped on the calling thread again
+   */
+  public void disableParallelMapping() {
+    this.parallelExecutor = null;
+  }
+
+  /**
+   * Recursive, parameterized subroutine for creating an empty config section and then assigning values
+   * to it's mapped fields automatically, based on their names and types by making use of
+   * {@link #resolveFieldValue}. Fields of type object will be decided at
+   * runtime, null values may get a default value assigned and incompatible values are tried to be
+   * converted before invoking the field setter. If a value still is null after all calls, the field
+   * remains unchanged. Records and sections with a constructor annotated by
+   * {@link de.jecore.bbconfigmapper.sections.CSConstructor} receive all values at once through their
+   * constructor instead, which is why they can neither decide types at runtime nor provide defaults.
+   * @param cursor Cursor pointing at the node of this section
+   * @param type Class of the config section to instantiate
+   * @param parallelSiblings Whether sub-section fields may be mapped in parallel
+   * @return Instantiated class with mapped fields
+   */
+  private <T extends IConfigSection> T mapSectionSub(
+		final IConfigCursor cursor,
+		final Class<T> type,
+		final boolean parallelSiblings
+	) throws Exception {
+      if (tracing)
+        traceSink.trace(TraceEvent.MAP_SECTION, cursor.getPath(), type);
+
+      SectionPlan<T> plan = getPlan(type);
+      MappingRecord sectionRecord = null;
+
+      // Sections are recorded when remapping, where sections whose reads still yield equal results are reused as is
+      if (cursor instanceof RecordingCursor recording) {
+        IConfigCursor sectionCursor = recording.unwrap();
+        MappingRecord previous = recording.findPreviousSection(type);
+
+        if (previous != null && recording.call.isUnchanged(previous, sectionCursor)) {
+          if (tracing)
+            traceSink.trace(TraceEvent.REUSE_SECTION, cursor.getPath());
+
+          recording.attachSection(previous);
+          return type.cast(previous.getInstance());
+        }
+
+        sectionRecord = new MappingRecord(type, plan.orderedFields.size(), previous, sectionCursor, recording.call);
+        recording.attachSection(sectionRecord);
+      }
+
+      // Constructed sections collect their values as arguments, all others are populated in place
+      T instance = plan.factory == null ? null : plan.factory.get();
+      Object[] arguments = plan.argumentDefaults == null ? null : plan.argumentDefaults.clone();
+      Object target = instance != null ? instance : arguments;
+
+      List<FieldPlan> fieldPlans = plan.orderedFields;
+      Object[] aheadValues = new Object[fieldPlans.size()];
+      MappingTask[] aheadTasks = parallelSiblings ? mapSubSectionsAhead(cursor, fieldPlans, aheadValues, sectionRecord) : null;
+
+      for (int fieldIndex = 0; fieldIndex < fieldPlans.size(); fieldIndex++) {
+        FieldPlan fieldPlan = fieldPlans.get(fieldIndex);
+        String fName = fieldPlan.name;
+
+        try {
+          Class<?> fieldType = fieldPlan.resolveType;
+          FValueConverter converter = fieldPlan.converter;
+
+          if (tracing)
+            traceSink.trace(TraceEvent.PROCESS_FIELD, fName, fieldPlan.declaredType);
+
+          // Object fields trigger a call to runtime decide their type based on previous fields
+          if (fieldPlan.runtimeDecided && instance != null) {
+            Class<?> decidedType = instance.runtimeDecide(fName);
+
+            if (decidedType == null)
+              throw new MappingError("Requesting plain objects is disallowed");
+
+            if (tracing)
+              traceSink.trace(TraceEvent.RUNTIME_DECIDE, fName, decidedType);
+
+            fieldType = decidedType;
+
+            if (this.converterRegistry != null) {
+              Class<?> requiredType = this.converterRegistry.getRequiredTypeFor(fieldType);
+              converter = this.converterRegistry.getConverterFor(fieldType);
+
+              if (requiredType != null && converter != null) {
+                if (tracing)
+                  traceSink.trace(TraceEvent.CUSTOM_CONVERTER, decidedType);
+
+                fieldType = requiredType;
+              }
+            }
+          }
+
+          MappingTask aheadTask = aheadTasks == null ? null : aheadTasks[fieldIndex];
+          Object value;
+
+          // Has been mapped ahead of time in parallel, only take over the result
+          if (aheadTask != null) {
+            aheadTask.rethrow();
+            value = aheadValues[fieldIndex];
+          }
+          else
+            value = resolveRecordedFieldValue(cursor, fieldPlan, fieldIndex, fieldType, sectionRecord);
+
+          // Primitive-specialized converters assign their result without boxing it
+          if (value != null && fieldPlan.convertingWriter != null) {
+            fieldPlan.convertingWriter.write(target, value);
+            continue;
+          }
+
+          if (converter != null)
+            value = converter.apply(value, evaluator);
+
+          // Couldn't resolve a non-null value, try to ask for a default value
+          if (value == null && instance != null && plan.receivesFields)
+            value = instance.defaultFor(fieldPlan.getField());
+
+          // Only set if the value isn't null, as the default constructor
+          // might have already assigned some default value earlier
+          if (value == null)
+            continue;
+
+          fieldPlan.writer.write(target, value);
+        } catch (MappingError error) {
+          IllegalStateException exception = new IllegalStateException(error.getMessage() + " (at path '" + ConfigPaths.join(cursor.getPath(), fName) + "')");
+          exception.addSuppressed(error);
+          throw exception;
+        }
+      }
+
+      if (plan.constructor != null)
+        instance = plan.constructor.construct(arguments);
+
+      // This instance won't have any more changes applied to it, call with the list of affected fields,
+      // copied as the plan's list is shared by all instances and overrides may modify their list
+      if (plan.receivesFields)
+        instance.afterParsing(new ArrayList<>(plan.getFields()));
+
+      if (sectionRecord != null)
+        sectionRecord.complete(instance);
+
+      return instance;
+  }
+
+  /**
+   * Maps all sub-section fields of a section in parallel, if parallel mapping is enabled and there
+   * are at least two of them. Fields of type Object are never mapped ahead, as their type depends
+   * on the values of their siblings.
+   * @param cursor Cursor pointing at the node of the section
+   * @param fieldPlans Ordered plans of the section's fields
+   * @param values Array to store mapped values in, aligned with the field plans
+   * @param sectionRecord Record of the section when remapping, null if not remapping
+   * @return Array of completed tasks aligned with the field plans, holding null for fields which
+   *         haven't been mapped ahead; null if no field has been mapped ahead
+   */
+  private @Nullable MappingTask[] mapSubSectionsAhead(
+		final IConfigCursor cursor,
+		final List<FieldPlan> fieldPlans,
+		final Object[] values,
+		final @Nullable MappingRecord sectionRecord
+	) throws InterruptedException {
+    Executor executor = this.parallelExecutor;
+
+    if (executor == null)
+      return null;
+
+    MappingTask[] fieldTasks = new MappingTask[fieldPlans.size()];
+    List<MappingTask> tasks = new ArrayList<>();
+
+    for (int i = 0; i < fieldPlans.size(); i++) {
+      FieldPlan fieldPlan = fieldPlans.get(i);
+
+      if (fieldPlan.runtimeDecided || !IConfigSection.class.isAssignableFrom(fieldPlan.resolveType))
+        continue;
+
+      int fieldIndex = i;
+      MappingTask task = new MappingTask(() -> values[fieldIndex] = resolveRecordedFieldValue(cursor, fieldPlan, fieldIndex, fieldPlan.resolveType, sectionRecord));
+
+      fieldTasks[i] = task;
+      tasks.add(task);
+    }
+
+    if (tasks.size() < 2)
+      return null;
+
+    if (tracing)
+      traceSink.trace(TraceEvent.PARALLEL_SECTIONS, tasks.size());
+
+    MappingTask.runAll(tasks, executor);
+    return fieldTasks;
+  }
+
+  /**
+   * Calls the mapper for every index of a collection, which happens in parallel chunks if parallel
+   * mapping is enabled, the items are sections and the collection is large enough. The error of the
+   * lowest failing index is rethrown after all chunks completed, just as sequential mapping would have.
+   * @param size Size of the collection
+   * @param itemType Type of the collection's items
+   * @param mapper Mapper to call for each index
+   */
+  private void mapIndices(
+		final int size,
+		final Class<?> itemType,
+		final FIndexedMapper mapper
+	) throws Exception {
+    Executor executor = this.parallelExecutor;
+
+    if (executor == null || size < this.parallelThreshold || !IConfigSection.class.isAssignableFrom(itemType)) {
+      for (int i = 0; i < size; i++)
+        mapper.map(i);
+      return;
+    }
+
+    int chunkCount = Math.min(size, Runtime.getRuntime().availableProcessors() * CHUNKS_PER_PROCESSOR);
+    int chunkSize = (size + chunkCount - 1) / chunkCount;
+    List<MappingTask> tasks = new ArrayList<>(chunkCount);
+
+    for (int chunkStart = 0; chunkStart < size; chunkStart += chunkSize) {
+      int from = chunkStart;
+      int to = Math.min(size, chunkStart + chunkSize);
+
+      tasks.add(new MappingTask(() -> {
+        for (int i = from; i < to; i++)
+          mapper.map(i);
+      }));
+    }
+
+    if (tracing)
+      traceSink.trace(TraceEvent.PARALLEL_CHUNKS, size, tasks.size());
+
+    MappingTask.runAll(tasks, executor);
+
+    for (MappingTask task : tasks)
+      task.rethrow();
+  }
+
+  @FunctionalInterface
+  private interface FIndexedMapper {
+    void map(int index) throws Exception;
+  }
+
+  /**
+   * Pre-builds the mapping plans of the provided section types as well as of all section types
+   * which are reachable through their fields, so that no reflective work is left to be done once
+   * the first mapping call occurs. Calling this method is optional, as plans are built on demand.
+   * @param types Section types to prepare
+   */
+  @SafeVarargs
+  public final void preparePlans(
+		final Class<? extends IConfigSection>... types
+	) {
+    Set<Class<?>> visited = new HashSet<>();
+
+    for (Class<? extends IConfigSection> type : types)
+      preparePlan(type, visited);
+  }
+
+  /**
+   * Recursive subroutine of {@link #preparePlans(Class[])}
+   * @param type Section type to prepare
+   * @param visited Set of already visited types, in order to break cycles
+   */
+  private void preparePlan(
+		final Class<? extends IConfigSection> type,
+		final Set<Class<?>> visited
+	) {
+    if (!visited.add(type))
+      return;
+
+    for (FieldPlan fieldPlan : getPlan(type).orderedFields) {
+      preparePlanIfSection(fieldPlan.resolveType, visited);
+
+      if (fieldPlan.resolveType.isArray())
+        preparePlanIfSection(fieldPlan.resolveType.getComponentType(), visited);
+
+      if (fieldPlan.lazySectionType != null)
+        preparePlanIfSection(fieldPlan.lazySectionType, visited);
+
+      if (fieldPlan.genericTypes != null) {
+        for (Class<?> genericType : fieldPlan.genericTypes)
+          preparePlanIfSection(genericType, visited);
+      }
+    }
+  }
+
+  private void preparePlanIfSection(
+		final Class<?> type,
+		final Set<Class<?>> visited
+	) {
+    if (IConfigSection.class.isAssignableFrom(type))
+      preparePlan(type.asSubclass(IConfigSection.class), visited);
+  }
+
+  /**
+   * Build the mapping plan of a section type, based on it's generated mapper if there is one
+   * @param type Section type
+   * @param accessStrategy Strategy used to instantiate the section and to write it's fields
+   * @return Built plan
+   */
+  private <T extends IConfigSection> SectionPlan<T> createPlan(
+		final Class<T> type,
+		final AccessStrategy accessStrategy
+	) {
+    return SectionPlan.create(type, generatedMappers.find(type), converterRegistry, evaluator, accessStrategy);
+  }
+
+  /**
+   * Get the cached mapping plan of a section type, which is built on the first request
+   * @param type Section type
+   * @return Mapping plan of the provided type
+   */
+  @SuppressWarnings("unchecked")
+  private <T extends IConfigSection> SectionPlan<T> getPlan(
+		final Class<T> type
+	) {
+    return (SectionPlan<T>) this.sectionPlans.get(type);
+  }
+
+  /**
+   * Tries to convert the value a cursor points at to the specified type, by either stringifying,
+   * wrapping the value as an {@link IEvaluable} or by parsing a {@link IConfigSection}
+   * if the input is of type map and returning null otherwise. Unsupported types throw.
+   * @param input Cursor pointing at the value to convert
+   * @param type Type to convert to
+   */
+  private @Nullable Object convertType(
+		final IConfigCursor input,
+		Class<?> type
+	) throws Exception {
+
+    if (tracing)
+      traceSink.trace(TraceEvent.CONVERT_VALUE, type);
+
+    if (!input.isPresent()) {
+      if (tracing)
+        traceSink.trace(TraceEvent.CONVERT_ABSENT);
+      return null;
+    }
+
+    FValueConverter converter = null;
+    if (this.converterRegistry != null) {
+      Class<?> requiredType = this.converterRegistry.getRequiredTypeFor(type);
+      converter = this.converterRegistry.getConverterFor(type);
+
+      if (requiredType != null && converter != null) {
+        if (tracing)
+          traceSink.trace(TraceEvent.CUSTOM_CONVERTER, type);
+
+        type = requiredType;
+      }
+    }
+
+    // Requested plain object
+    if (type == Object.class) {
+      Object value = input.value();
+
+      if (converter != null)
+        value = converter.apply(value, this.evaluator);
+
+      return value;
+    }
+
+    if (IConfigSection.class.isAssignableFrom(type)) {
+      if (tracing)
+        traceSink.trace(TraceEvent.CONVERT_SECTION);
+
+      // Values which are not a map yield no children and thus result in an empty section
+      Object value = mapSectionSub(input, type.asSubclass(IConfigSection.class), false);
+
+      if (converter != null)
+        value = converter.apply(value, evaluator);
+
+      return value;
+    }
+
+    if (tracing)
+      traceSink.trace(TraceEvent.WRAP_EVALUABLE);
+
+    IEvaluable evaluable = ConfigValue.of(input.value(), this.evaluator);
+
+    if (type == IEvaluable.class) {
+      if (tracing)
+        traceSink.trace(TraceEvent.RETURN_EVALUABLE);
+      return evaluable;
+    }
+
+    if (type == String.class)
+      return evaluable.<String>asScalar(ScalarType.STRING, GPEEE.EMPTY_ENVIRONMENT);
+
+    if (type == int.class || type == Integer.class)
+      return evaluable.asInt(GPEEE.EMPTY_ENVIRONMENT);
+
+    if (type == long.class || type == Long.class)
+      return evaluable.asLong(GPEEE.EMPTY_ENVIRONMENT);
+
+    if (type == double.class || type == Double.class)
+      return evaluable.asDouble(GPEEE.EMPTY_ENVIRONMENT);
+
+    if (type == float.class || type == Float.class)
+      return (float) evaluable.asDouble(GPEEE.EMPTY_ENVIRONMENT);
+
+    if (type == boolean.class || type == Boolean.class)
+      return evaluable.asBoolean(GPEEE.EMPTY_ENVIRONMENT);
+
+    throw new MappingError("Unsupported type specified: " + type);
+  }
+
+  /**
+   * Converts a list element or a map value of a field, which are wrapped into a lazy section if the field
+   * holds lazy sections and are converted by {@link #convertType} otherwise
+   * @param f Plan of the field which contains the item
+   * @param input Cursor pointing at the item
+   * @param type Type of the item
+   * @return Converted item
+   */
+  private @Nullable Object convertItem(
+		final FieldPlan f,
+		final IConfigCursor input,
+		final Class<?> type
+	) throws Exception {
+    if (type == LazySection.class && f.lazySectionType != null)
+      return createLazySection(input, f.lazySectionType);
+
+    return convertType(input, type);
+  }
+
+  /**
+   * Creates a holder which maps the section a cursor points at on first access. Values which
+   * are not a map yield no children and thus result in an empty section, just as eagerly mapped ones.
+   * @param cursor Cursor pointing at the node of the section
+   * @param type Type of the section
+   * @return Unmapped holder of the section
+   */
+  private <T extends IConfigSection> LazySection<T> createLazySection(
+		final IConfigCursor cursor,
+		final Class<T> type
+	) {
+    // Materializing reads later on, which no record can account for, so the holder is never reused
+    if (cursor instanceof RecordingCursor recording) {
+      recording.preventReuse();
+      return createLazySection(recording.unwrap(), type);
+    }
+
+    return new LazySection<>(type, () -> {
+      if (tracing)
+        traceSink.trace(TraceEvent.MATERIALIZE_LAZY, cursor.getPath());
+      return mapSectionSub(cursor, type, false);
+    });
+  }
+
+  /**
+   * Handles resolving a field of type map based on a cursor pointing at it's value
+   * @param f Plan of the map field which has to be assigned to
+   * @param value Cursor pointing at the value
+   * @return Value to assign to the field
+   */
+  private Object handleResolveMapField(
+		final FieldPlan f,
+		final IConfigCursor value
+	) throws Exception {
+    if (tracing)
+      traceSink.trace(TraceEvent.RESOLVE_MAP);
+
+    List<Class<?>> genericTypes = f.genericTypes;
+  //assert genericTypes != null && genericTypes.size() == 2;
+
+    Map<Object, Object> result = new HashMap<>();
+    Map<Object, IConfigCursor> entries = value.entries();
+
+    if (entries == null) {
+      if (tracing)
+        traceSink.trace(TraceEvent.RESOLVE_MAP_ABSENT);
+      return result;
+    }
+
+    if (tracing)
+      traceSink.trace(TraceEvent.RESOLVE_MAP_VALUES);
+
+    List<Map.Entry<Object, IConfigCursor>> entryList = new ArrayList<>(entries.entrySet());
+    Object[] resultKeys = new Object[entryList.size()];
+    Object[] resultValues = new Object[entryList.size()];
+
+    mapIndices(entryList.size(), genericTypes.get(1), index -> {
+      Map.Entry<Object, IConfigCursor> entry = entryList.get(index);
+      final Object resultKey;
+
+      try {
+        resultKey = this.convertType(new ValueConfigCursor(entry.getKey(), null), genericTypes.get(0));
+      } catch (final MappingError error) {
+        throw new MappingError(error.getMessage() + " (at the key of a map)");
+      }
+
+      try {
+        resultValues[index] = this.convertItem(f, entry.getValue(), genericTypes.get(1));
+      } catch (MappingError error) {
+
+        throw new MappingError(error.getMessage() + " (at value for key=" + resultKey + " of a map)");
+      }
+
+      resultKeys[index] = resultKey;
+    });
+
+    for (int i = 0; i < resultKeys.length; i++)
+      result.put(resultKeys[i], resultValues[i]);
+
+    return result;
+  }
+
+  /**
+   * Handles resolving a field of type list based on a cursor pointing at it's value
+   * @param f Plan of the list field which has to be assigned to
+   * @param value Cursor pointing at the value
+   * @return Value to assign to the field
+   */
+  private Object handleResolveListField(
+		final FieldPlan f,
+		final IConfigCursor value
+	) throws Exception {
+    if (tracing)
+      traceSink.trace(TraceEvent.RESOLVE_LIST);
+
+    List<Class<?>> genericTypes = f.genericTypes;
+  //assert genericTypes != null && genericTypes.size() == 1;
+
+    List<IConfigCursor> list = value.elements();
+
+    if (list == null) {
+      if (tracing)
+        traceSink.trace(TraceEvent.RESOLVE_LIST_ABSENT);
+      return new ArrayList<>();
+    }
+
+    // Pre-sized, so that (parallel) chunks only ever replace their own elements
+    List<Object> result = new ArrayList<>(Collections.nCopies(list.size(), null));
+
+    mapIndices(list.size(), genericTypes.get(0), index -> {
+      try {
+        result.set(index, convertItem(f, list.get(index), genericTypes.get(0)));
+      } catch (final MappingError error) {
+        throw new MappingError(error.getMessage() + " (at index " + index + " of a list)");
+      }
+    });
+
+    return result;
+  }
+
+  /**
+   * Handles resolving a field of type array based on a cursor pointing at it's value
+   * @param f Plan of the array field which has to be assigned to
+   * @param value Cursor pointing at the value
+   * @return Value to assign to the field
+   */
+  private Object handleResolveArrayField(
+		final FieldPlan f,
+		final IConfigCursor value
+	) throws Exception {
+    if (tracing)
+      traceSink.trace(TraceEvent.RESOLVE_ARRAY);
+
+    Class<?> arrayType = f.declaredType.getComponentType();
+    List<IConfigCursor> list = value.elements();
+
+    if (list == null) {
+      if (tracing)
+        traceSink.trace(TraceEvent.RESOLVE_ARRAY_ABSENT);
+      return Array.newInstance(arrayType, 0);
+    }
+
+		Object array = Array.newInstance(arrayType, list.size());
+
+    mapIndices(list.size(), arrayType, index -> {
+      Object itemValue;
+      try {
+        itemValue = convertType(list.get(index), arrayType);
+      } catch (MappingError error) {
+        throw new MappingError(error.getMessage() + " (at index " + index + " of an array)");
+      }
+
+      // Reference arrays are filled directly, only primitive arrays require unboxing
+      if (array instanceof Object[] objectArray)
+        objectArray[index] = itemValue;
+      else
+        Array.set(array, index, itemValue);
+    });
+
+    return array;
+  }
+
+  /**
+   * Resolves a field's value just like {@link #resolveFieldValue} does, while recording the field's reads
+   * when remapping and taking over the previous call's value if all of it's reads yield equal results
+   * @param cursor Cursor pointing at the node of the section
+   * @param f Plan of the field which has to be assigned to
+   * @param fieldIndex Index of the field within the ordered field plans
+   * @param type Type to resolve the value as
+   * @param sectionRecord Record of the section when remapping, null if not remapping
+   * @return Value to be assigned to the field
+   */
+  private @Nullable Object resolveRecordedFieldValue(
+		final IConfigCursor cursor,
+		final FieldPlan f,
+		final int fieldIndex,
+		final Class<?> type,
+		final @Nullable MappingRecord sectionRecord
+	) throws Exception {
+    if (sectionRecord == null)
+      return resolveFieldValue(cursor, f, type);
+
+    FieldRecord reused = sectionRecord.reuseField(fieldIndex, type);
+
+    if (reused != null) {
+      if (tracing)
+        traceSink.trace(TraceEvent.REUSE_FIELD, f.name);
+      return reused.getValue();
+    }
+
+    FieldRecord fieldRecord = new FieldRecord(type);
+    Object value = resolveFieldValue(sectionRecord.recordField(fieldIndex, fieldRecord), f, type);
+    fieldRecord.complete(value);
+    return value;
+  }
+
+  /**
+   * Tries to resolve a field's value based on it's type, it's annotations, it's name and
+   * the cursor of the section it's contained in.
+   * @param cursor Cursor pointing at the node of the section
+   * @param f Plan of the field which has to be assigned to
+   * @param type Type to resolve the value as
+   * @return Value to be assigned to the field
+   */
+  private @Nullable Object resolveFieldValue(
+		final IConfigCursor cursor,
+		final FieldPlan f,
+		final Class<?> type
+	) throws Exception {
+    // Only descend once per section level, instead of resolving from the root again
+    final IConfigCursor value = f.inlined ? cursor : cursor.child(f.name);
+
+    if (tracing)
+      traceSink.trace(TraceEvent.RESOLVE_FIELD, f.name, value.getPath());
+
+    // It's not marked as always and the current path doesn't exist: return null
+    if (!f.always && !value.isPresent()) {
+      if (tracing)
+        traceSink.trace(TraceEvent.RESOLVE_FIELD_ABSENT);
+      return null;
+    }
+
+    if (IConfigSection.class.isAssignableFrom(type)) {
+      if (tracing)
+        traceSink.trace(TraceEvent.RESOLVE_FIELD_SECTION);
+      return mapSectionSub(value, type.asSubclass(IConfigSection.class), false);
+    }
+
+    if (type == LazySection.class && f.lazySectionType != null) {
+      if (tracing)
+        traceSink.trace(TraceEvent.RESOLVE_FIELD_LAZY);
+      return createLazySection(value, f.lazySectionType);
+    }
+
+    if (tracing)
+      traceSink.trace(TraceEvent.RESOLVE_FIELD_PLAIN);
+
+    // Requested plain object
+    if (type == Object.class)
+      return value.value();
+
+    if (Map.class.isAssignableFrom(type))
+      return handleResolveMapField(f, value);
+
+    if (List.class.isAssignableFrom(type))
+      return handleResolveListField(f, value);
+
+    if (type.isArray())
+      return handleResolveArrayField(f, value);
+
+    return convertType(value, type);
+  }
+}
@@ -0,0 +1,226 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2023 BlvckBytes
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package de.jecore.bbconfigmapper;
+
+import org.jetbrains.annotations.Nullable;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Path of a key within a configuration, which has been parsed into its dot-separated segments once,
+ * so that it can be looked up repeatedly without splitting it up again, together with their case-folded
+ * forms. Paths are immutable and can be shared freely between threads.
+ */
+public final class ConfigPath {
+
+  /**
+   * Maximum number of paths which {@link #of(String)} keeps cached by their text
+   */
+  public static final int MAX_CACHED_PATHS = 1024;
+
+  // Number of paths the cache is trimmed down to once it exceeded it's maximum, so that trimming is amortized
+  private static final int TRIMMED_CACHED_PATHS = MAX_CACHED_PATHS * 3 / 4;
+
+  private static final Map<String, CachedPath> PATH_CACHE = new ConcurrentHashMap<>();
+
+  // Clock of the path cache, which only advances on misses, so that hits never contend on it
+  private static final AtomicLong PATH_CACHE_MISSES = new AtomicLong();
+
+  /**
+   * Entry of the path cache, which remembers the time of it's last request without locking
+   */
+  private static final class CachedPath {
+
+    final ConfigPath path;
+    volatile long lastRequested;
+
+    CachedPath(ConfigPath path, long lastRequested) {
+      this.path = path;
+      this.lastRequested = lastRequested;
+    }
+  }
+
+  private final String text;
+  private final String[] segments;
+  private final String[] foldedSegments;
+  private final int hash;
+
+  private ConfigPath(String text, String[] segments) {
+    this.text = text;
+    this.segments = segments;
+    this.foldedSegments = new String[segments.length];
+
+    for (int i = 0; i < segments.length; i++)
+      this.foldedSegments[i] = MappingKeyIndex.fold(segments[i]);
+
+    this.hash = text.hashCode();
+  }
+
+  /**
+   * Get the parsed path of a textual path, which is only parsed on the first request as long as it
+   * remains within the cache of recently requested paths
+   * @param path Dot-separated path, surrounding whitespace is ignored
+   * @return Parsed path
+   * @throws IllegalArgumentException The path is blank
+   */
+  public static ConfigPath of(String path) {
+    CachedPath cached = PATH_CACHE.get(path);
+
+    if (cached != null) {
+      long now = PATH_CACHE_MISSES.get();
+
+      // Only written if the clock advanced, so that hot paths don't keep invalidating the entry's cache line
+      if (cached.lastRequested != now)
+        cached.lastRequested = now;
+
+      return cached.path;
+    }
+
+    ConfigPath result = parse(path);
+
+    if (PATH_CACHE.putIfAbsent(path, new CachedPath(result, PATH_CACHE_MISSES.incrementAndGet())) == null && PATH_CACHE.size() > MAX_CACHED_PATHS)
+      trimCache();
+
+    return result;
+  }
+
+  /**
+   * Evicts the least recently requested paths, until the cache holds {@link #TRIMMED_CACHED_PATHS} paths
+   */
+  private static synchronized void trimCache() {
+    int excess = PATH_CACHE.size() - TRIMMED_CACHED_PATHS;
+
+    if (excess <= 0)
+      return;
+
+    // Times are captured up front, as concurrent hits would otherwise reorder entries while being sorted
+    List<EvictionCandidate> candidates = new ArrayList<>(PATH_CACHE.size());
+
+    for (Map.Entry<String, CachedPath> entry : PATH_CACHE.entrySet())
+      candidates.add(new EvictionCandidate(entry.getKey(), entry.getValue(), entry.getValue().lastRequested));
+
+    candidates.sort(Comparator.comparingLong(EvictionCandidate::lastRequested));
+
+    for (int i = 0; i < excess && i < candidates.size(); i++)
+      PATH_CACHE.remove(candidates.get(i).text, candidates.get(i).cached);
+  }
+
+  private record EvictionCandidate(String text, CachedPath cached, long lastRequested) {}
+
+  /**
+   * Parse a textual path without consulting or populating the cache of recently requested paths
+   * @param path Dot-separated path, surrounding whitespace is ignored
+   * @return Parsed path
+   * @throws IllegalArgumentException The path is blank
+   */
+  static ConfigPath parse(String path) {
+    // Keys should never contain any whitespace
+    String text = path.trim();
+
+    if (text.isBlank())
+      throw new IllegalArgumentException("Invalid path specified: " + text);
+
+    int segmentCount = 1;
+
+    for (int i = 0; i < text.length(); i++) {
+      if (text.charAt(i) == '.')
+        ++segmentCount;
+    }
+
+    String[] segments = new String[segmentCount];
+    int beginIndex = 0;
+
+    for (int i = 0; i < segmentCount; i++) {
+      int endIndex = text.indexOf('.', beginIndex);
+
+      // No next dot available, go until the end of the path string
+      if (endIndex < 0)
+        endIndex = text.length();
+
+      segments[i] = text.substring(beginIndex, endIndex);
+      beginIndex = endIndex + 1;
+    }
+
+    return new ConfigPath(text, segments);
+  }
+
+  /**
+   * Get the path of a child key relative to this path
+   * @param key Key of the child, which may itself be a dot-separated path
+   * @return Path of the child
+   */
+  public ConfigPath child(String key) {
+    ConfigPath relative = of(key);
+    String[] childSegments = Arrays.copyOf(segments, segments.length + relative.segments.length);
+    System.arraycopy(relative.segments, 0, childSegments, segments.length, relative.segments.length);
+    return new ConfigPath(text + "." + relative.text, childSegments);
+  }
+
+  /**
+   * Get the number of segments of this path
+   */
+  public int getSegmentCount() {
+    return segments.length;
+  }
+
+  /**
+   * Get a segment of this path by it's index
+   * @param index Index of the segment, starting at the root
+   */
+  public String getSegment(int index) {
+    return segments[index];
+  }
+
+  /**
+   * Get the case-folded form of a segment, as used for case-insensitive key lookups
+   * @param index Index of the segment, starting at the root
+   */
+  String getFoldedSegment(int index) {
+    return foldedSegments[index];
+  }
+
+  @Override
+  public boolean equals(@Nullable Object other) {
+    if (this == other)
+      return true;
+
+    if (!(other instanceof ConfigPath otherPath))
+      return false;
+
+    return hash == otherPath.hash && text.equals(otherPath.text);
+  }
+
+  @Override
+  public int hashCode() {
+    return hash;
+  }
+
+  @Override
+  public String toString() {
+    return text;
+  }
+}
@@ -0,0 +1,54 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2023 BlvckBytes
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package de.jecore.bbconfigmapper;
+
+import org.jetbrains.annotations.Nullable;
+
+final class ConfigPaths {
+
+  private ConfigPaths() {}
+
+  /**
+   * Join two config paths and account for all possible cases
+   * @param a Path A (or null/empty)
+   * @param b Path B (or null/empty)
+   * @return Path A joined with path B
+   */
+  static @Nullable String join(@Nullable String a, @Nullable String b) {
+    if (a == null || a.isBlank())
+      return b;
+
+    if (b == null || b.isBlank())
+      return a;
+
+    if (a.endsWith(".") && b.startsWith("."))
+      return a + b.substring(1);
+
+    if (a.endsWith(".") || b.startsWith("."))
+      return a + b;
+
+    return a + "." + b;
+  }
+}
@@ -0,0 +1,388 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2023 BlvckBytes
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package de.jecore.bbconfigmapper;
+
+import me.blvckbytes.gpeee.IExpressionEvaluator;
+import me.blvckbytes.gpeee.interpreter.IEvaluationEnvironment;
+import me.blvckbytes.gpeee.parser.expression.AExpression;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.*;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Value of a configuration, which is interpreted as the type requested by the caller. Results which do not depend
+ * on the environment, as the value either holds no expressions or as evaluating them didn't access any functions or
+ * variables, are memoized per requested type, which is why the lists, sets and maps of such results are unmodifiable.
+ */
+public class ConfigValue implements IEvaluable {
+
+  // Marks a result which depends on the environment and is thus interpreted anew on every request
+  private static final Object VARIABLE = new Object();
+
+  private static final int TYPE_COUNT = ScalarType.values().length;
+  private static final int RAW_SLOT = 0;
+  private static final int SCALAR_SLOTS = RAW_SLOT + 1;
+  private static final int LIST_SLOTS = SCALAR_SLOTS + TYPE_COUNT;
+  private static final int SET_SLOTS = LIST_SLOTS + TYPE_COUNT;
+  private static final int MAP_SLOTS = SET_SLOTS + TYPE_COUNT;
+  private static final int SLOT_COUNT = MAP_SLOTS + TYPE_COUNT * TYPE_COUNT;
+
+  protected final @Nullable Object value;
+  private final @Nullable IExpressionEvaluator evaluator;
+  private final boolean containsExpressions;
+
+  // Not volatile, as the array of results is final within it's holder and thus always seen fully initialized
+  private @Nullable AtomicReferenceArray<Object> results;
+
+  public ConfigValue(
+		final @Nullable Object value,
+		final @Nullable IExpressionEvaluator evaluator
+	) {
+    this.value = value;
+    this.evaluator = evaluator;
+    this.containsExpressions = evaluator != null && containsExpressions(value);
+  }
+
+  /**
+   * Create a value which is specialized on the shape of the provided value, being either a plain scalar,
+   * an expression, a collection or a map, which answers requests fitting that shape more directly than
+   * a general value does
+   * @param value Value to wrap
+   * @param evaluator Evaluator used to evaluate expressions, if any
+   * @return Specialized value
+   */
+  public static IEvaluable of(
+		final @Nullable Object value,
+		final @Nullable IExpressionEvaluator evaluator
+	) {
+    if (value instanceof AExpression expression && evaluator != null)
+      return new ExpressionScalarValue(expression, evaluator);
+
+    if (value instanceof Collection<?> collection)
+      return new ListValue(collection, evaluator);
+
+    if (value instanceof Map<?, ?> map)
+      return new MapValue(map, evaluator);
+
+    return new ConstantScalarValue(value, evaluator);
+  }
+
+  @Override
+  @SuppressWarnings("unchecked")
+  public <T> T asScalar(
+		final ScalarType type,
+		final IEvaluationEnvironment env
+	) {
+    return (T) this.interpretMemoized(SCALAR_SLOTS + type.ordinal(), type.getType(), null, null, env);
+  }
+
+  @Override
+  @SuppressWarnings("unchecked")
+  public <T> List<T> asList(
+		final ScalarType type,
+		final IEvaluationEnvironment env
+	) {
+    return (List<T>) this.interpretMemoized(LIST_SLOTS + type.ordinal(), List.class, type, null, env);
+  }
+
+  @Override
+  @SuppressWarnings("unchecked")
+  public <T> Set<T> asSet(
+		final ScalarType type,
+		final IEvaluationEnvironment env
+	) {
+    return (Set<T>) this.interpretMemoized(SET_SLOTS + type.ordinal(), Set.class, type, null, env);
+  }
+
+  @Override
+  public Object asRawObject(
+		final IEvaluationEnvironment env
+	) {
+    if (!containsExpressions)
+      return value;
+
+    return this.interpretMemoized(RAW_SLOT, null, null, null, env);
+  }
+
+  @Override
+  public int asInt(
+		final IEvaluationEnvironment env
+	) {
+    return ScalarType.interpretInt(asRawObject(env), env);
+  }
+
+  @Override
+  public long asLong(
+		final IEvaluationEnvironment env
+	) {
+    return ScalarType.interpretLong(asRawObject(env), env);
+  }
+
+  @Override
+  public double asDouble(
+		final IEvaluationEnvironment env
+	) {
+    return ScalarType.interpretDouble(asRawObject(env), env);
+  }
+
+  @Override
+  public boolean asBoolean(
+		final IEvaluationEnvironment env
+	) {
+    return ScalarType.interpretBoolean(asRawObject(env), env);
+  }
+
+  @Override
+  @SuppressWarnings("unchecked")
+  public <T, U> Map<T, U> asMap(
+		final ScalarType key,
+		final ScalarType value,
+		final IEvaluationEnvironment env
+	) {
+    return (Map<T, U>) this.interpretMemoized(MAP_SLOTS + key.ordinal() * TYPE_COUNT + value.ordinal(), Map.class, key, value, env);
+  }
+
+  /**
+   * Interpret the value as a given type, where the result is memoized if it doesn't depend on the environment
+   * @param slot Slot of the result, which is unique per type and generic types
+   * @param type Required result type, null for the raw value with all expressions evaluated
+   * @param first First generic type, if any
+   * @param second Second generic type, if any
+   * @param env Environment used for interpretation and evaluation
+   * @return Result of the interpretation
+   */
+  private @Nullable Object interpretMemoized(
+		final int slot,
+		final @Nullable Class<?> type,
+		final @Nullable ScalarType first,
+		final @Nullable ScalarType second,
+		final IEvaluationEnvironment env
+	) {
+    AtomicReferenceArray<Object> results = this.results;
+    Object result = results == null ? null : results.get(slot);
+
+    if (result == VARIABLE)
+      return this.interpretUncached(type, first, second, env);
+
+    if (result != null)
+      return result;
+
+    // Find out whether the result depends on the environment by recording all accesses while evaluating
+    RecordingEnvironment recording = containsExpressions ? RecordingEnvironment.of(env) : null;
+    result = this.interpretUncached(type, first, second, recording == null ? env : recording);
+
+    // Null results cannot be told apart from absent results and are thus not memoized
+    if (result == null)
+      return null;
+
+    if (results == null) {
+      results = new AtomicReferenceArray<>(SLOT_COUNT);
+      this.results = results;
+    }
+
+    if (recording != null && recording.hasAccessedEnvironment()) {
+      results.set(slot, VARIABLE);
+      return result;
+    }
+
+    result = freeze(result);
+    results.set(slot, result);
+    return result;
+  }
+
+  private @Nullable Object interpretUncached(
+		final @Nullable Class<?> type,
+		final @Nullable ScalarType first,
+		final @Nullable ScalarType second,
+		final IEvaluationEnvironment env
+	) {
+    if (type == null) {
+      if (value instanceof AExpression aExpressionValue && this.evaluator != null)
+        return this.evaluator.evaluateExpression(aExpressionValue, env);
+      return value;
+    }
+
+    ScalarType[] genericTypes = null;
+
+    if (second != null)
+      genericTypes = new ScalarType[] { first, second };
+    else if (first != null)
+      genericTypes = new ScalarType[] { first };
+
+    return this.interpret(value, type, genericTypes, env);
+  }
+
+  /**
+   * Make a memoized result or raw value unmodifiable, as it's handed out to every caller
+   * @param result Result to make unmodifiable
+   * @return Unmodifiable view of collections, the result itself otherwise
+   */
+  static Object freeze(Object result) {
+    if (result instanceof List<?> list)
+      return Collections.unmodifiableList(list);
+
+    if (result instanceof Set<?> set)
+      return Collections.unmodifiableSet(set);
+
+    if (result instanceof Map<?, ?> map)
+      return Collections.unmodifiableMap(map);
+
+    return result;
+  }
+
+  /**
+   * Check whether a value is an expression or contains expressions within it's items, keys or values
+   * @param value Value to check
+   * @return True if there are expressions to evaluate
+   */
+  static boolean containsExpressions(@Nullable Object value) {
+    if (value instanceof AExpression)
+      return true;
+
+    if (value instanceof Collection<?> collection) {
+      for (Object item : collection) {
+        if (containsExpressions(item))
+          return true;
+      }
+    }
+
+    else if (value instanceof Map<?, ?> map) {
+      for (Map.Entry<?, ?> entry : map.entrySet()) {
+        if (containsExpressions(entry.getKey()) || containsExpressions(entry.getValue()))
+          return true;
+      }
+    }
+
+    return false;
+  }
+
+  /**
+   * Interpret a nullable input value as a scalar configuration value by
+   * evaluating applicable expressions first and then using the value
+   * interpreter to interpret the result as the required data type
+   * @param input Nullable value input
+   * @param type Required scalar type
+   * @param env Environment used to interpret and evaluate with
+   * @return Guaranteed non-Null value of the requested type
+   */
+  @SuppressWarnings("unchecked")
+  protected <T> T interpretScalar(
+		@Nullable Object input,
+		final ScalarType type,
+		final IEvaluationEnvironment env
+	) {
+    Class<?> typeClass = type.getType();
+
+    if (typeClass.isInstance(input))
+      return (T) input;
+
+    // The input is an expression which needs to be evaluated first
+    if (input instanceof AExpression aExpressionInput && this.evaluator != null)
+      input = this.evaluator.evaluateExpression(aExpressionInput, env);
+
+    return (T) type.getInterpreter().apply(input, env);
+  }
+
+    /**
+     * Interpret a nullable input value based on the specified type and generic types.
+     * Handles conversion to lists, sets, and maps as required.
+     * @param input Nullable value input
+     * @param type Required result type
+     * @param genericTypes Scalar types of a list/map (null for scalar requests)
+     * @param env Environment used for interpretation and evaluation
+     * @return Result of the interpretation based on the specified type
+     */
+    private <T> T interpret(
+            @Nullable Object input,
+            final Class<T> type,
+            final @Nullable ScalarType[] genericTypes,
+            final IEvaluationEnvironment env) {
+
+        // Evaluate expression if input is an AExpression and evaluator is available
+        if (input instanceof AExpression aExpressionInput && this.evaluator != null) {
+            input = this.evaluator.evaluateExpression(aExpressionInput, env);
+        }
+
+        if (List.class.isAssignableFrom(type) || Set.class.isAssignableFrom(type)) {
+            if (genericTypes == null || genericTypes.length < 1 || genericTypes[0] == null) {
+                throw new IllegalArgumentException("A List/Set requires specifying a generic type");
+            }
+
+            Collection<?> items = (input instanceof Collection<?> collection) ? collection : List.of(interpretScalar(input, genericTypes[0], env));
+
+            Collection<Object> results = (type == List.class) ? new ArrayList<>() : new HashSet<>();
+
+            for (Object item : items) {
+                Object result = (item instanceof AExpression aExpressionItem && this.evaluator != null) ?
+                        this.evaluator.evaluateExpression(aExpressionItem, env) : item;
+
+                if (result instanceof Collection<?> collectionResult) {
+                    collectionResult.forEach(subItem -> results.add(genericTypes[0].getInterpreter().apply(subItem, env)));
+                } else {
+                    results.add(genericTypes[0].getInterpreter().apply(result, env));
+                }
+            }
+
+            return (T) results;
+        }
+
+        if (Map.class.isAssignableFrom(type)) {
+            if (genericTypes == null || genericTypes.length < 2 || genericTypes[0] == null || genericTypes[1] == null) {
+                throw new IllegalArgumentException("A Map requires specifying two generic types");
+            }
+
+            if (input == null) {
+                return (T) Collections.emptyMap();
+            }
+
+            if (!(input instanceof Map<?, ?> mapInput)) {
+                throw new IllegalArgumentException("Cannot transform type " + input.getClass().getName() + " into a map");
+            }
+
+            Map<Object, Object> results = new HashMap<>();
+
+            for (Map.Entry<?, ?> entry : mapInput.entrySet()) {
+                results.put(interpretScalar(entry.getKey(), genericTypes[0], env), interpretScalar(entry.getValue(), genericTypes[1], env));
+            }
+
+            return (T) results;
+        }
+
+        ScalarType scalarType = ScalarType.fromClass(type);
+        if (scalarType == null) {
+            throw new IllegalArgumentException("Unknown scalar type provided: " + type);
+        }
+
+        return this.interpretScalar(input, scalarType, env);
+    }
+
+  @Override
+  public String toString() {
+    return "ConfigValue{" +
+      "value=" + value +
+      '}';
+  }
+}
\ No newline at end of file
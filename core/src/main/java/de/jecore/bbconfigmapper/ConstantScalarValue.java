@@ -0,0 +1,80 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2023 BlvckBytes
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package de.jecore.bbconfigmapper;
+
+import me.blvckbytes.gpeee.IExpressionEvaluator;
+import me.blvckbytes.gpeee.interpreter.IEvaluationEnvironment;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * Value which is neither a collection nor an expression, and which is thus interpreted only once per scalar type
+ */
+final class ConstantScalarValue extends AConfigValue {
+
+  // Interpreted values by scalar type, which are immutable and may thus be shared without synchronization
+  private final Object[] scalars;
+
+  ConstantScalarValue(@Nullable Object value, @Nullable IExpressionEvaluator evaluator) {
+    super(value, evaluator);
+    this.scalars = new Object[TYPE_COUNT];
+  }
+
+  @Override
+  @SuppressWarnings("unchecked")
+  public <T> T asScalar(ScalarType type, IEvaluationEnvironment env) {
+    Object result = scalars[type.ordinal()];
+
+    if (result == null) {
+      result = type.getType().isInstance(value) ? value : type.getInterpreter().apply(value, env);
+      scalars[type.ordinal()] = result;
+    }
+
+    return (T) result;
+  }
+
+  @Override
+  public Object asRawObject(IEvaluationEnvironment env) {
+    return value;
+  }
+
+  @Override
+  public int asInt(IEvaluationEnvironment env) {
+    return ScalarType.interpretInt(value, env);
+  }
+
+  @Override
+  public long asLong(IEvaluationEnvironment env) {
+    return ScalarType.interpretLong(value, env);
+  }
+
+  @Override
+  public double asDouble(IEvaluationEnvironment env) {
+    return ScalarType.interpretDouble(value, env);
+  }
+
+  @Override
+  public boolean asBoolean(IEvaluationEnvironment env) {
+    return ScalarType.interpretBoolean(value, env);
+  }
+}
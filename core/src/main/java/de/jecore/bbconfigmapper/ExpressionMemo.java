@@ -0,0 +1,326 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2023 BlvckBytes
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package de.jecore.bbconfigmapper;
+
+import me.blvckbytes.gpeee.interpreter.IEvaluationEnvironment;
+import org.jetbrains.annotations.Nullable;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * Bounded memo of the results of a single expression, which evicts the least recently used results. Results are
+ * either keyed by the version of a versioned environment, or by the values of all variables the expression has
+ * read so far, which are learned from the evaluations themselves. As long as the expression only reads variables,
+ * equal values for all of them lead it down the same path and thus to the same result. Expressions which don't
+ * access the environment at all have a single result. Looking up results neither locks nor allocates.
+ */
+final class ExpressionMemo {
+
+  private static final class Result {
+    // NULL_RESULT if the expression evaluated to null
+    final Object value;
+
+    // Version of the environment the value is valid for, if keyed by version
+    final long version;
+
+    // Value of the miss clock at the last time the value has been requested
+    volatile long lastUsed;
+
+    Result(Object value, long version, long lastUsed) {
+      this.value = value;
+      this.version = version;
+      this.lastUsed = lastUsed;
+    }
+  }
+
+  /**
+   * Values of more than one variable, compared element-wise. Lookups fill an instance of the
+   * current thread, which is copied only when memoizing a result by it, unless that instance
+   * is already being filled by an enclosing lookup.
+   */
+  private static final class ValuesKey {
+    private Object[] values;
+    private int hash;
+
+    // Whether values are currently being read into this instance
+    private boolean filling;
+
+    private ValuesKey(Object[] values, int hash) {
+      this.values = values;
+      this.hash = hash;
+    }
+
+    private ValuesKey copy() {
+      return new ValuesKey(values.clone(), hash);
+    }
+
+    @Override
+    public boolean equals(Object other) {
+      return other instanceof ValuesKey key && key.hash == hash && Arrays.equals(key.values, values);
+    }
+
+    @Override
+    public int hashCode() {
+      return hash;
+    }
+  }
+
+  private static final Object NULL_RESULT = new Object();
+  private static final Object NULL_VALUE_KEY = new Object();
+  private static final Object NO_VARIABLES_KEY = new Object();
+  private static final String[] NO_VARIABLES = new String[0];
+  private static final ThreadLocal<ValuesKey> PROBES = ThreadLocal.withInitial(() -> new ValuesKey(new Object[0], 0));
+
+  private final Map<Object, Result> results;
+  private final Map<IVersionedEvaluationEnvironment, Result> versionedResults;
+  private final int maxSize;
+
+  // Advanced on every miss only, so that hits on the same result in between don't have to write
+  private final AtomicLong misses;
+
+  // Union of all variables read so far, replaced as a whole when growing
+  private volatile String[] variables;
+
+  // Whether the expression accessed more than just variables, so that only versions can be keyed by
+  private volatile boolean versionOnly;
+
+  // Result of an expression which doesn't access the environment, null if not known to be such an expression
+  private volatile @Nullable Object constant;
+
+  // Value of the clock of the owning evaluator at the last time this memo has been requested
+  volatile long lastUsed;
+
+  ExpressionMemo(int maxSize, long lastUsed) {
+    this.maxSize = maxSize;
+    this.lastUsed = lastUsed;
+    this.variables = NO_VARIABLES;
+    this.results = new ConcurrentHashMap<>();
+    this.versionedResults = new ConcurrentHashMap<>();
+    this.misses = new AtomicLong();
+  }
+
+  /**
+   * Get the result of an expression which is known not to access the environment
+   * @return Result, null if the expression is not known to be constant
+   */
+  @Nullable Object getConstant() {
+    return constant;
+  }
+
+  /**
+   * Create the key which results are memoized by within the provided environment, which is not versioned.
+   * Keys of multiple variables are reused by the current thread and are thus to be retained by {@link #retainKey}.
+   * @param env Environment to be evaluated within
+   * @return Key of the result, null if the result cannot be memoized
+   */
+  @Nullable Object createKey(IEvaluationEnvironment env) {
+    if (versionOnly)
+      return null;
+
+    String[] variables = this.variables;
+
+    if (variables.length == 0)
+      return NO_VARIABLES_KEY;
+
+    Map<String, Supplier<?>> liveVariables = env.getLiveVariables();
+    Map<String, ?> staticVariables = env.getStaticVariables();
+
+    if (variables.length == 1) {
+      Object value = valueOf(variables[0], liveVariables, staticVariables);
+
+      // Values which may change without being replaced could render a memoized result stale
+      if (!isImmutable(value))
+        return null;
+
+      return value == null ? NULL_VALUE_KEY : value;
+    }
+
+    ValuesKey probe = PROBES.get();
+
+    // Suppliers of live variables may evaluate other expressions on this thread while the probe is being filled
+    if (probe.filling)
+      probe = new ValuesKey(new Object[variables.length], 0);
+
+    else if (probe.values.length != variables.length)
+      probe.values = new Object[variables.length];
+
+    int hash = 1;
+    probe.filling = true;
+
+    try {
+      for (int i = 0; i < variables.length; i++) {
+        Object value = valueOf(variables[i], liveVariables, staticVariables);
+
+        if (!isImmutable(value))
+          return null;
+
+        probe.values[i] = value;
+        hash = hash * 31 + Objects.hashCode(value);
+      }
+    } finally {
+      probe.filling = false;
+    }
+
+    probe.hash = hash;
+    return probe;
+  }
+
+  /**
+   * Retain a key created by {@link #createKey} beyond the next call of it on the current thread
+   * @param key Key to retain
+   * @return Retained key
+   */
+  static Object retainKey(Object key) {
+    return key instanceof ValuesKey probe ? probe.copy() : key;
+  }
+
+  private static @Nullable Object valueOf(String variable, Map<String, Supplier<?>> liveVariables, Map<String, ?> staticVariables) {
+    Supplier<?> supplier = liveVariables.get(variable);
+    return supplier != null ? supplier.get() : staticVariables.get(variable);
+  }
+
+  /**
+   * Get a memoized result
+   * @param key Key created by {@link #createKey}
+   * @return Result, null if it's not memoized
+   */
+  @Nullable Object get(Object key) {
+    return touch(results.get(key));
+  }
+
+  /**
+   * Get a result memoized for the version of a versioned environment
+   * @param env Environment to be evaluated within
+   * @param version Current version of that environment
+   * @return Result, null if it's not memoized for this version
+   */
+  @Nullable Object getVersioned(IVersionedEvaluationEnvironment env, long version) {
+    Result result = versionedResults.get(env);
+    return result == null || result.version != version ? null : touch(result);
+  }
+
+  private @Nullable Object touch(@Nullable Result result) {
+    if (result == null)
+      return null;
+
+    long now = misses.get();
+
+    // Only written if it differs, which spares contended writes while there are no misses
+    if (result.lastUsed != now)
+      result.lastUsed = now;
+
+    return result.value;
+  }
+
+  /**
+   * Unwrap a result which has been returned by {@link #get}, {@link #getVersioned} or {@link #getConstant}
+   */
+  static @Nullable Object unwrap(Object result) {
+    return result == NULL_RESULT ? null : result;
+  }
+
+  /**
+   * Memoize the result of an evaluation, learning about the variables it has read
+   * @param key Key retained by {@link #retainKey} before evaluating
+   * @param recording Environment the evaluation was recorded with
+   * @param result Result of the evaluation
+   */
+  synchronized void put(Object key, RecordingEnvironment recording, @Nullable Object result) {
+    if (learnConstant(recording, result))
+      return;
+
+    if (recording.hasAccessedBeyondVariables()) {
+      versionOnly = true;
+      results.clear();
+      return;
+    }
+
+    Set<String> names = recording.getVariableNames();
+
+    if (names != null && !Set.of(variables).containsAll(names)) {
+      Set<String> union = new LinkedHashSet<>(Arrays.asList(variables));
+      union.addAll(names);
+      variables = union.toArray(String[]::new);
+
+      // Keys over fewer variables can never be equal to keys created from now on
+      results.clear();
+      return;
+    }
+
+    results.put(key, new Result(wrap(result), 0, misses.incrementAndGet()));
+
+    if (results.size() > maxSize)
+      RecencyEviction.evict(results, maxSize, memoized -> memoized.lastUsed);
+  }
+
+  /**
+   * Memoize the result of an evaluation within a versioned environment, replacing the result of an earlier version
+   * @param env Environment the evaluation took place within
+   * @param version Version of the environment before evaluating
+   * @param recording Environment the evaluation was recorded with
+   * @param result Result of the evaluation
+   */
+  synchronized void putVersioned(IVersionedEvaluationEnvironment env, long version, RecordingEnvironment recording, @Nullable Object result) {
+    if (learnConstant(recording, result))
+      return;
+
+    versionedResults.put(env, new Result(wrap(result), version, misses.incrementAndGet()));
+
+    if (versionedResults.size() > maxSize)
+      RecencyEviction.evict(versionedResults, maxSize, memoized -> memoized.lastUsed);
+  }
+
+  /**
+   * Remember the result of an evaluation which didn't access the environment, which then holds for all evaluations
+   * @return True if the result has been remembered as being constant
+   */
+  private boolean learnConstant(RecordingEnvironment recording, @Nullable Object result) {
+    if (recording.hasAccessedEnvironment())
+      return false;
+
+    constant = wrap(result);
+    results.clear();
+    versionedResults.clear();
+    return true;
+  }
+
+  private static Object wrap(@Nullable Object result) {
+    return result == null ? NULL_RESULT : result;
+  }
+
+  private static boolean isImmutable(@Nullable Object value) {
+    return (
+      value == null || value instanceof String || value instanceof Boolean || value instanceof Character ||
+      value instanceof Long || value instanceof Integer || value instanceof Double || value instanceof Float ||
+      value instanceof Short || value instanceof Byte || value instanceof BigInteger || value instanceof BigDecimal ||
+      value instanceof Enum<?>
+    );
+  }
+}
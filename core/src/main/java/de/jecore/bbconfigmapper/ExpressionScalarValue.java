@@ -0,0 +1,196 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2023 BlvckBytes
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package de.jecore.bbconfigmapper;
+
+import me.blvckbytes.gpeee.IExpressionEvaluator;
+import me.blvckbytes.gpeee.interpreter.IEvaluationEnvironment;
+import me.blvckbytes.gpeee.parser.expression.AExpression;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.*;
+
+/**
+ * Value which is an expression, whose result is interpreted directly. If the first evaluation didn't access
+ * the environment, the result is kept and answers all further requests, without evaluating again.
+ */
+final class ExpressionScalarValue extends AConfigValue {
+
+  private final AExpression expression;
+  private final IExpressionEvaluator expressionEvaluator;
+
+  // Value of the result if it doesn't depend on the environment, which only consists of final fields
+  private @Nullable IEvaluable constant;
+
+  // Whether the result depends on the environment and is thus evaluated on every request
+  private boolean variable;
+
+  ExpressionScalarValue(AExpression expression, IExpressionEvaluator evaluator) {
+    super(expression, evaluator);
+    this.expression = expression;
+    this.expressionEvaluator = evaluator;
+  }
+
+  /**
+   * Evaluate the expression, where the first evaluation finds out whether it depends on the environment
+   * @param env Environment to evaluate within
+   * @return Result of the expression
+   */
+  private @Nullable Object evaluate(IEvaluationEnvironment env) {
+    if (variable)
+      return expressionEvaluator.evaluateExpression(expression, env);
+
+    RecordingEnvironment recording = RecordingEnvironment.of(env);
+    Object result = expressionEvaluator.evaluateExpression(expression, recording);
+
+    if (recording.hasAccessedEnvironment()) {
+      variable = true;
+      return result;
+    }
+
+    // Handed out to every caller from now on, which is why even the first one only receives an unmodifiable view
+    IEvaluable constant = ConfigValue.of(result, null);
+    this.constant = constant;
+    return constant.asRawObject(env);
+  }
+
+  @Override
+  @SuppressWarnings("unchecked")
+  public <T> T asScalar(ScalarType type, IEvaluationEnvironment env) {
+    IEvaluable constant = this.constant;
+
+    if (constant != null)
+      return constant.asScalar(type, env);
+
+    Object result = evaluate(env);
+    return (T) (type.getType().isInstance(result) ? result : type.getInterpreter().apply(result, env));
+  }
+
+  @Override
+  @SuppressWarnings("unchecked")
+  public <T, U> Map<T, U> asMap(ScalarType key, ScalarType value, IEvaluationEnvironment env) {
+    IEvaluable constant = this.constant;
+
+    if (constant != null)
+      return constant.asMap(key, value, env);
+
+    Object result = evaluate(env);
+
+    if (result == null)
+      return Collections.emptyMap();
+
+    if (!(result instanceof Map<?, ?> map))
+      throw new IllegalArgumentException("Cannot transform type " + result.getClass().getName() + " into a map");
+
+    Map<Object, Object> results = new HashMap<>();
+
+    for (Map.Entry<?, ?> entry : map.entrySet())
+      results.put(interpretScalar(entry.getKey(), key, env), interpretScalar(entry.getValue(), value, env));
+
+    return (Map<T, U>) results;
+  }
+
+  @Override
+  @SuppressWarnings("unchecked")
+  public <T> List<T> asList(ScalarType type, IEvaluationEnvironment env) {
+    IEvaluable constant = this.constant;
+
+    if (constant != null)
+      return constant.asList(type, env);
+
+    return (List<T>) interpretItems(evaluate(env), type, new ArrayList<>(), env);
+  }
+
+  @Override
+  @SuppressWarnings("unchecked")
+  public <T> Set<T> asSet(ScalarType type, IEvaluationEnvironment env) {
+    IEvaluable constant = this.constant;
+
+    if (constant != null)
+      return constant.asSet(type, env);
+
+    return (Set<T>) interpretItems(evaluate(env), type, new HashSet<>(), env);
+  }
+
+  @Override
+  public Object asRawObject(IEvaluationEnvironment env) {
+    IEvaluable constant = this.constant;
+    return constant != null ? constant.asRawObject(env) : evaluate(env);
+  }
+
+  @Override
+  public int asInt(IEvaluationEnvironment env) {
+    IEvaluable constant = this.constant;
+    return constant != null ? constant.asInt(env) : ScalarType.interpretInt(evaluate(env), env);
+  }
+
+  @Override
+  public long asLong(IEvaluationEnvironment env) {
+    IEvaluable constant = this.constant;
+    return constant != null ? constant.asLong(env) : ScalarType.interpretLong(evaluate(env), env);
+  }
+
+  @Override
+  public double asDouble(IEvaluationEnvironment env) {
+    IEvaluable constant = this.constant;
+    return constant != null ? constant.asDouble(env) : ScalarType.interpretDouble(evaluate(env), env);
+  }
+
+  @Override
+  public boolean asBoolean(IEvaluationEnvironment env) {
+    IEvaluable constant = this.constant;
+    return constant != null ? constant.asBoolean(env) : ScalarType.interpretBoolean(evaluate(env), env);
+  }
+
+  /**
+   * Interpret the items of a result the way a general value does, where items which are collections themselves
+   * are flattened, and a result which isn't a collection makes up the only item
+   * @param result Result of the expression
+   * @param type Type of the items
+   * @param items Collection to add the interpreted items to
+   * @param env Environment providing the value interpreter
+   * @return Collection of interpreted items
+   */
+  private static Collection<Object> interpretItems(@Nullable Object result, ScalarType type, Collection<Object> items, IEvaluationEnvironment env) {
+    if (!(result instanceof Collection<?> collection)) {
+      items.add(type.getInterpreter().apply(result, env));
+      return items;
+    }
+
+    for (Object item : collection) {
+      if (item instanceof Collection<?> subItems) {
+        for (Object subItem : subItems)
+          items.add(type.getInterpreter().apply(subItem, env));
+        continue;
+      }
+
+      items.add(type.getInterpreter().apply(item, env));
+    }
+
+    return items;
+  }
+
+  private static Object interpretScalar(@Nullable Object input, ScalarType type, IEvaluationEnvironment env) {
+    return type.getType().isInstance(input) ? input : type.getInterpreter().apply(input, env);
+  }
+}
@@ -0,0 +1,70 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2023 BlvckBytes
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package de.jecore.bbconfigmapper;
+
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Report of extending a config by the keys it's missing, which lists the paths of all extended keys
+ * in the order they have been extended in. Keys below an extended key are carried over with it and
+ * are thus not listed separately.
+ */
+public final class ExtensionReport {
+
+  private final List<String> addedPaths;
+
+  ExtensionReport(List<String> addedPaths) {
+    this.addedPaths = Collections.unmodifiableList(addedPaths);
+  }
+
+  /**
+   * Get the paths of all extended keys
+   * @return Unmodifiable list of paths
+   */
+  public List<String> getAddedPaths() {
+    return addedPaths;
+  }
+
+  /**
+   * Get the number of extended keys
+   */
+  public int getAddedCount() {
+    return addedPaths.size();
+  }
+
+  /**
+   * Check whether no key had to be extended
+   */
+  public boolean isEmpty() {
+    return addedPaths.isEmpty();
+  }
+
+  @Override
+  public String toString() {
+    return "ExtensionReport{" +
+      "addedPaths=" + addedPaths +
+      '}';
+  }
+}
@@ -24,18 +24,14 @@
 
 package de.jecore.bbconfigmapper;
 
-import org.yaml.snakeyaml.nodes.NodeTuple;
+import org.jetbrains.annotations.Nullable;
 
 @FunctionalInterface
-interface FExtensionCandidateHandler {
+interface FFieldWriter {
 
-  /**
-   * Returns true if the tuple was missing and could be extended
-   */
-  boolean apply(
-		final NodeTuple tuple,
-		final String pathOfTuple,
-		final int indexOfTuple
-	);
+  void write(
+		final Object instance,
+		final @Nullable Object value
+	) throws Exception;
 
-}
\ No newline at end of file
+}
@@ -21,22 +21,20 @@
  * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
  * SOFTWARE.
  */
-
 package de.jecore.bbconfigmapper;
 
-import org.yaml.snakeyaml.nodes.NodeTuple;
-
-import java.util.function.Supplier;
+import org.jetbrains.annotations.Nullable;
+import org.yaml.snakeyaml.nodes.Node;
 
-public class MergedNodeTuple {
+@FunctionalInterface
+interface FLocatedNodeHandler<T> {
 
-  public final NodeTuple handle;
-  public final Runnable addRoutine;
-  public final Supplier<Boolean> removeRoutine;
+  /**
+   * Handles the result of locating a node, without having to wrap it into a tuple first
+   */
+  T apply(
+		final @Nullable Node node,
+		final boolean markedForExpressions
+	);
 
-  public MergedNodeTuple(NodeTuple handle, Runnable addRoutine, Supplier<Boolean> removeRoutine) {
-    this.handle = handle;
-    this.addRoutine = addRoutine;
-    this.removeRoutine = removeRoutine;
-  }
-}
\ No newline at end of file
+}
@@ -0,0 +1,316 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2023 BlvckBytes
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package de.jecore.bbconfigmapper;
+
+import de.jecore.bbconfigmapper.sections.CSAlways;
+import de.jecore.bbconfigmapper.sections.CSInlined;
+import de.jecore.bbconfigmapper.sections.IConfigSection;
+import me.blvckbytes.gpeee.IExpressionEvaluator;
+import org.jetbrains.annotations.Nullable;
+
+import java.lang.reflect.Field;
+import java.lang.reflect.ParameterizedType;
+import java.lang.reflect.Type;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Immutable, pre-resolved description of a single mapped field of a config section,
+ * created once per section type and reused by every mapping call
+ */
+final class FieldPlan {
+
+  final Class<?> declaringClass;
+  final String name;
+  final Class<?> declaredType;
+
+  /**
+   * Whether the type of this field has to be decided at runtime by calling
+   * {@link de.jecore.bbconfigmapper.sections.IConfigSection#runtimeDecide}
+   */
+  final boolean runtimeDecided;
+
+  final boolean inlined;
+  final boolean always;
+
+  /**
+   * Raw classes of the generic type arguments of this field, null if not generic
+   */
+  final @Nullable List<Class<?>> genericTypes;
+
+  /**
+   * Section type held by the {@link LazySection} this field either is or contains as
+   * it's list element or map value, null if it holds no lazy sections
+   */
+  final @Nullable Class<? extends IConfigSection> lazySectionType;
+
+  /**
+   * Custom converter bound to the declared type, null if there's none
+   */
+  final @Nullable FValueConverter converter;
+
+  /**
+   * Type to resolve the config value as, which is the converter's required type
+   * if there's a converter bound and the declared type otherwise
+   */
+  final Class<?> resolveType;
+
+  /**
+   * Writer used to assign mapped values to this field
+   */
+  final FFieldWriter writer;
+
+  /**
+   * Writer which applies a primitive-specialized converter to unconverted values and assigns the
+   * result without boxing it, null if the field's converter isn't primitive-specialized
+   */
+  final @Nullable FFieldWriter convertingWriter;
+
+  // Reflected field, resolved on first request if the plan has been created from a generated description
+  private volatile @Nullable Field field;
+
+  private FieldPlan(
+    final @Nullable Field field,
+    final Class<?> declaringClass,
+    final String name,
+    final Class<?> declaredType,
+    final boolean inlined,
+    final boolean always,
+    final @Nullable List<Class<?>> genericTypes,
+    final @Nullable Class<? extends IConfigSection> lazySectionType,
+    final @Nullable FValueConverter converter,
+    final Class<?> resolveType,
+    final FFieldWriter writer,
+    final @Nullable FFieldWriter convertingWriter
+  ) {
+    this.field = field;
+    this.declaringClass = declaringClass;
+    this.name = name;
+    this.declaredType = declaredType;
+    this.runtimeDecided = this.declaredType == Object.class;
+    this.inlined = inlined;
+    this.always = always;
+    this.genericTypes = genericTypes;
+    this.lazySectionType = lazySectionType;
+    this.converter = converter;
+    this.resolveType = resolveType;
+    this.writer = writer;
+    this.convertingWriter = convertingWriter;
+  }
+
+  /**
+   * Get the reflected field of this plan, which is looked up on the first request
+   * if the plan has been created from a generated description
+   * @return Accessible field
+   */
+  Field getField() {
+    Field result = field;
+
+    if (result == null) {
+      result = resolveField(declaringClass, name);
+      field = result;
+    }
+
+    return result;
+  }
+
+  /**
+   * Create the plan of a field by resolving it's generic types as well as it's custom converter
+   * @param field Target field, which has to be accessible already
+   * @param converterRegistry Optional registry of custom value converters
+   * @param writer Writer used to assign mapped values to the field
+   * @param evaluator Evaluator passed to primitive-specialized converters
+   * @param strategy Strategy used to write primitive-specialized conversion results, null if
+   *                 values are not written to the field directly
+   * @return Created field plan
+   */
+  static FieldPlan create(
+    final Field field,
+    final @Nullable IValueConverterRegistry converterRegistry,
+    final FFieldWriter writer,
+    final IExpressionEvaluator evaluator,
+    final @Nullable AccessStrategy strategy
+  ) {
+    return create(
+      field, field.getDeclaringClass(), field.getName(), field.getType(),
+      field.isAnnotationPresent(CSInlined.class),
+      field.isAnnotationPresent(CSAlways.class) || field.getDeclaringClass().isAnnotationPresent(CSAlways.class),
+      getGenericTypes(field), getLazySectionType(field),
+      converterRegistry, writer, evaluator, strategy
+    );
+  }
+
+  /**
+   * Create the plan of a field from it's description by a generated mapper, without reflecting on it
+   * unless a primitive-specialized converter has to write to it directly
+   * @param field Generated description of the target field
+   * @param converterRegistry Optional registry of custom value converters
+   * @param writer Writer used to assign mapped values to the field
+   * @param evaluator Evaluator passed to primitive-specialized converters
+   * @param strategy Strategy used to write primitive-specialized conversion results
+   * @return Created field plan
+   */
+  static FieldPlan create(
+    final GeneratedField field,
+    final @Nullable IValueConverterRegistry converterRegistry,
+    final FFieldWriter writer,
+    final IExpressionEvaluator evaluator,
+    final AccessStrategy strategy
+  ) {
+    return create(
+      null, field.declaringClass(), field.name(), field.type(), field.inlined(), field.always(),
+      field.genericTypes(), field.lazySectionType(), converterRegistry, writer, evaluator, strategy
+    );
+  }
+
+  private static FieldPlan create(
+    final @Nullable Field field,
+    final Class<?> declaringClass,
+    final String name,
+    final Class<?> declaredType,
+    final boolean inlined,
+    final boolean always,
+    final @Nullable List<Class<?>> genericTypes,
+    final @Nullable Class<? extends IConfigSection> lazySectionType,
+    final @Nullable IValueConverterRegistry converterRegistry,
+    final FFieldWriter writer,
+    final IExpressionEvaluator evaluator,
+    final @Nullable AccessStrategy strategy
+  ) {
+    Class<?> resolveType = declaredType;
+    FValueConverter converter = null;
+
+    // Object fields are decided at runtime, so their converter can only be looked up while mapping
+    if (converterRegistry != null && resolveType != Object.class) {
+      Class<?> requiredType = converterRegistry.getRequiredTypeFor(resolveType);
+      FValueConverter registeredConverter = converterRegistry.getConverterFor(resolveType);
+
+      if (requiredType != null && registeredConverter != null) {
+        resolveType = requiredType;
+        converter = registeredConverter;
+      }
+    }
+
+    Field reflectedField = field;
+    FFieldWriter convertingWriter = null;
+
+    // Only primitive fields can be written to without boxing
+    if (converter != null && strategy != null && declaredType.isPrimitive()) {
+      if (reflectedField == null)
+        reflectedField = resolveField(declaringClass, name);
+
+      convertingWriter = MemberAccessors.createConvertingWriter(reflectedField, converter, evaluator, strategy);
+    }
+
+    return new FieldPlan(
+      reflectedField, declaringClass, name, declaredType, inlined, always, genericTypes,
+      lazySectionType, converter, resolveType, writer, convertingWriter
+    );
+  }
+
+  /**
+   * Look up a declared field and make it accessible
+   * @param declaringClass Class which declares the field
+   * @param name Name of the field
+   * @return Accessible field
+   */
+  static Field resolveField(Class<?> declaringClass, String name) {
+    try {
+      Field field = declaringClass.getDeclaredField(name);
+      field.setAccessible(true);
+      return field;
+    } catch (NoSuchFieldException e) {
+      throw new IllegalStateException("Could not find the field " + name + " of " + declaringClass, e);
+    }
+  }
+
+  /**
+   * Get a list of generic types a field's type declares
+   * @param f Target field
+   * @return List of generic fields, null if the field's type is not generic
+   */
+  private static @Nullable List<Class<?>> getGenericTypes(Field f) {
+    Type genericType = f.getGenericType();
+
+    if (!(genericType instanceof ParameterizedType parameterizedType))
+      return null;
+
+    Type[] types = parameterizedType.getActualTypeArguments();
+    List<Class<?>> result = new ArrayList<>(types.length);
+
+    for (Type type : types)
+      result.add(unwrapType(type));
+
+    return Collections.unmodifiableList(result);
+  }
+
+  /**
+   * Get the section type of the {@link LazySection} a field's type either is or contains as it's last
+   * generic type argument, which corresponds to list elements and map values
+   * @param f Target field
+   * @return Held section type, null if the field holds no lazy sections
+   */
+  private static @Nullable Class<? extends IConfigSection> getLazySectionType(Field f) {
+    Type genericType = f.getGenericType();
+
+    if (!(genericType instanceof ParameterizedType parameterizedType))
+      return null;
+
+    if (parameterizedType.getRawType() != LazySection.class) {
+      Type[] types = parameterizedType.getActualTypeArguments();
+
+      if (!(types[types.length - 1] instanceof ParameterizedType lastParameterizedType))
+        return null;
+
+      if (lastParameterizedType.getRawType() != LazySection.class)
+        return null;
+
+      parameterizedType = lastParameterizedType;
+    }
+
+    Class<?> sectionType = unwrapType(parameterizedType.getActualTypeArguments()[0]);
+
+    if (!IConfigSection.class.isAssignableFrom(sectionType))
+      throw new MappingError("Lazy sections require a section type argument (" + f.getDeclaringClass() + ", " + f.getName() + ")");
+
+    return sectionType.asSubclass(IConfigSection.class);
+  }
+
+  /**
+   * Attempts to unwrap a given type to it's raw type class
+   * @param type Type to unwrap
+   * @return Unwrapped type
+   */
+  private static Class<?> unwrapType(Type type) {
+    if (type instanceof Class<?> clazzType)
+      return clazzType;
+
+    if (type instanceof ParameterizedType parameterizedType)
+      return unwrapType(parameterizedType.getRawType());
+
+    throw new MappingError("Cannot unwrap type of class=" + type.getClass());
+  }
+}
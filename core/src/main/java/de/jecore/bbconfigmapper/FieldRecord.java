@@ -0,0 +1,76 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2023 BlvckBytes
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package de.jecore.bbconfigmapper;
+
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * Record of a single field of a section mapped by a remapping call, holding all reads the field has performed
+ * on the config as well as the value they've been resolved to. As long as replaying these reads yields equal
+ * results, the field resolves to an equal value again and it's previous value is taken over.
+ */
+final class FieldRecord {
+
+  final Class<?> type;
+  final ReadRecord reads;
+
+  private volatile boolean reusable;
+  private volatile @Nullable Object value;
+
+  /**
+   * @param type Type the field's value is resolved as, which differs from the declared type for runtime decided fields
+   */
+  FieldRecord(Class<?> type) {
+    this.type = type;
+    this.reads = new ReadRecord();
+    this.reusable = true;
+  }
+
+  /**
+   * Complete this record after the field's value has been resolved
+   * @param value Resolved value
+   */
+  void complete(@Nullable Object value) {
+    this.value = value;
+  }
+
+  void preventReuse() {
+    this.reusable = false;
+  }
+
+  @Nullable Object getValue() {
+    return value;
+  }
+
+  /**
+   * Replay all reads of this field on the cursor of it's section
+   * @param cursor Cursor of the section the field is contained in
+   * @param call Remapping call which compares the records of sections read by the field
+   * @return True if the field's value can be reused
+   */
+  boolean matches(IConfigCursor cursor, RemapCall call) {
+    return reusable && reads.matches(cursor, call);
+  }
+}
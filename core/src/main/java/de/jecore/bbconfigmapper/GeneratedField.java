@@ -0,0 +1,53 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2023 BlvckBytes
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package de.jecore.bbconfigmapper;
+
+import de.jecore.bbconfigmapper.sections.IConfigSection;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.List;
+
+/**
+ * Compile-time description of a mapped field, supplied by generated section mappers
+ * so that the {@link ConfigMapper} doesn't have to reflect on the section's fields
+ * @param declaringClass Class which declares the field
+ * @param name Name of the field
+ * @param type Declared type of the field
+ * @param genericTypes Raw classes of the generic type arguments of the field's type, null if not generic
+ * @param lazySectionType Section type held by the {@link LazySection} the field either is or contains as
+ *                        it's list element or map value, null if it holds no lazy sections
+ * @param inlined Whether the field is annotated by {@link de.jecore.bbconfigmapper.sections.CSInlined}
+ * @param always Whether the field or it's declaring class is annotated by {@link de.jecore.bbconfigmapper.sections.CSAlways}
+ * @param writeIndex Index passed to {@link IGeneratedSectionMapper#write}, -1 if generated code cannot write the field
+ */
+public record GeneratedField(
+  Class<?> declaringClass,
+  String name,
+  Class<?> type,
+  @Nullable List<Class<?>> genericTypes,
+  @Nullable Class<? extends IConfigSection> lazySectionType,
+  boolean inlined,
+  boolean always,
+  int writeIndex
+) {}
@@ -0,0 +1,78 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2023 BlvckBytes
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package de.jecore.bbconfigmapper;
+
+import de.jecore.bbconfigmapper.sections.IConfigSection;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.*;
+
+/**
+ * Index of the generated section mappers registered as services within each class loader, keyed by their
+ * binary name, so that looking up the mapper of a section doesn't have to probe the class loader for it
+ */
+final class GeneratedMappers {
+
+  private final Map<ClassLoader, Map<String, IGeneratedSectionMapper<?>>> mappersByLoader;
+
+  GeneratedMappers() {
+    this.mappersByLoader = new HashMap<>();
+  }
+
+  /**
+   * Find the mapper which has been generated at compile time for a given section type
+   * @param type Type of the section
+   * @return Generated mapper, null if there's none
+   */
+  @SuppressWarnings("unchecked")
+  synchronized <T extends IConfigSection> @Nullable IGeneratedSectionMapper<T> find(Class<T> type) {
+    ClassLoader loader = type.getClassLoader();
+
+    if (loader == null)
+      return null;
+
+    Map<String, IGeneratedSectionMapper<?>> mappers = mappersByLoader.computeIfAbsent(loader, GeneratedMappers::loadMappers);
+    return (IGeneratedSectionMapper<T>) mappers.get(type.getName() + IGeneratedSectionMapper.CLASS_NAME_SUFFIX);
+  }
+
+  @SuppressWarnings("rawtypes")
+  private static Map<String, IGeneratedSectionMapper<?>> loadMappers(ClassLoader loader) {
+    Map<String, IGeneratedSectionMapper<?>> mappers = new HashMap<>();
+    Iterator<IGeneratedSectionMapper> iterator = ServiceLoader.load(IGeneratedSectionMapper.class, loader).iterator();
+
+    while (true) {
+      try {
+        if (!iterator.hasNext())
+          break;
+
+        IGeneratedSectionMapper<?> mapper = iterator.next();
+        mappers.put(mapper.getClass().getName(), mapper);
+      } catch (ServiceConfigurationError ignored) {
+        // Stale registrations of mappers which no longer exist are skipped, their sections are mapped reflectively
+      }
+    }
+
+    return mappers;
+  }
+}
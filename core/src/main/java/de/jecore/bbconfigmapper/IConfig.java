@@ -0,0 +1,239 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2023 BlvckBytes
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package de.jecore.bbconfigmapper;
+
+import me.blvckbytes.gpeee.interpreter.IEvaluationEnvironment;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.List;
+
+public interface IConfig {
+
+  /**
+   * Get a value by it's path
+   * @param path Path to identify the value
+   */
+  @Nullable Object get(
+		final @Nullable String path
+	);
+
+  /**
+   * Get a value by it's pre-parsed path
+   * @param path Path to identify the value, null means root
+   */
+  default @Nullable Object get(
+		final @Nullable ConfigPath path
+	) {
+    return get(path == null ? null : path.toString());
+  }
+
+  /**
+   * Get a value by it's path, interpreted as an int without boxing it
+   * @param path Path to identify the value
+   * @param env Environment to evaluate and interpret the value with
+   */
+  default int getInt(
+		final @Nullable String path,
+		final IEvaluationEnvironment env
+	) {
+    return getInt(path == null ? null : ConfigPath.of(path), env);
+  }
+
+  /**
+   * Get a value by it's pre-parsed path, interpreted as an int without boxing it
+   * @param path Path to identify the value, null means root
+   * @param env Environment to evaluate and interpret the value with
+   */
+  default int getInt(
+		final @Nullable ConfigPath path,
+		final IEvaluationEnvironment env
+	) {
+    return ScalarType.interpretInt(get(path), env);
+  }
+
+  /**
+   * Get a value by it's path, interpreted as a long without boxing it
+   * @param path Path to identify the value
+   * @param env Environment to evaluate and interpret the value with
+   */
+  default long getLong(
+		final @Nullable String path,
+		final IEvaluationEnvironment env
+	) {
+    return getLong(path == null ? null : ConfigPath.of(path), env);
+  }
+
+  /**
+   * Get a value by it's pre-parsed path, interpreted as a long without boxing it
+   * @param path Path to identify the value, null means root
+   * @param env Environment to evaluate and interpret the value with
+   */
+  default long getLong(
+		final @Nullable ConfigPath path,
+		final IEvaluationEnvironment env
+	) {
+    return ScalarType.interpretLong(get(path), env);
+  }
+
+  /**
+   * Get a value by it's path, interpreted as a double without boxing it
+   * @param path Path to identify the value
+   * @param env Environment to evaluate and interpret the value with
+   */
+  default double getDouble(
+		final @Nullable String path,
+		final IEvaluationEnvironment env
+	) {
+    return getDouble(path == null ? null : ConfigPath.of(path), env);
+  }
+
+  /**
+   * Get a value by it's pre-parsed path, interpreted as a double without boxing it
+   * @param path Path to identify the value, null means root
+   * @param env Environment to evaluate and interpret the value with
+   */
+  default double getDouble(
+		final @Nullable ConfigPath path,
+		final IEvaluationEnvironment env
+	) {
+    return ScalarType.interpretDouble(get(path), env);
+  }
+
+  /**
+   * Get a value by it's path, interpreted as a boolean without boxing it
+   * @param path Path to identify the value
+   * @param env Environment to evaluate and interpret the value with
+   */
+  default boolean getBoolean(
+		final @Nullable String path,
+		final IEvaluationEnvironment env
+	) {
+    return getBoolean(path == null ? null : ConfigPath.of(path), env);
+  }
+
+  /**
+   * Get a value by it's pre-parsed path, interpreted as a boolean without boxing it
+   * @param path Path to identify the value, null means root
+   * @param env Environment to evaluate and interpret the value with
+   */
+  default boolean getBoolean(
+		final @Nullable ConfigPath path,
+		final IEvaluationEnvironment env
+	) {
+    return ScalarType.interpretBoolean(get(path), env);
+  }
+
+  /**
+   * Create a cursor pointing at the node of a given path, which allows to navigate relative to that node
+   * @param path Path to identify the node, null means root
+   * @return Cursor of the node, which is not present if the path doesn't exist
+   */
+  default IConfigCursor cursor(
+		final @Nullable String path
+	) {
+    return new PathConfigCursor(this, path);
+  }
+
+  /**
+   * Set a value by it's path
+   * @param path Path to identify the value
+   */
+  void set(
+		final @Nullable String path,
+		final @Nullable Object value
+	);
+
+  /**
+   * Set a value by it's pre-parsed path
+   * @param path Path to identify the value, null means root
+   */
+  default void set(
+		final @Nullable ConfigPath path,
+		final @Nullable Object value
+	) {
+    set(path == null ? null : path.toString(), value);
+  }
+
+  /**
+   * Remove a key and all of it's children by it's path
+   * @param path Path to identify the key
+   */
+  void remove(
+		final @Nullable String path
+	);
+
+  /**
+   * Remove a key and all of it's children by it's pre-parsed path
+   * @param path Path to identify the key, null means root
+   */
+  default void remove(
+		final @Nullable ConfigPath path
+	) {
+    remove(path == null ? null : path.toString());
+  }
+
+  /**
+   * Check whether a given path exists within the configuration file
+   * @param path Path to identify the value
+   */
+  boolean exists(
+		final @Nullable String path
+	);
+
+  /**
+   * Check whether a given pre-parsed path exists within the configuration file
+   * @param path Path to identify the value, null means root
+   */
+  default boolean exists(
+		final @Nullable ConfigPath path
+	) {
+    return exists(path == null ? null : path.toString());
+  }
+
+  /**
+   * Attach a comment to a specific path
+   * @param path Path to attach to
+   * @param lines Lines of text in the comment
+   * @param self Whether to attach to the key itself or to it's value
+   */
+  void attachComment(
+		final @Nullable String path,
+		final List<String> lines,
+		final boolean self
+	);
+
+  /**
+   * Read a specific path's attached comment, if available
+   * @param path Path to read from
+   * @param self Whether to read from the key itself or from it's value
+   * @return A list of the comment's lines, null if the path doesn't exist
+   *         or there's no comment attached to it yet
+   */
+  @Nullable List<String> readComment(
+		final @Nullable String path,
+		final boolean self
+	);
+
+}
\ No newline at end of file
@@ -27,64 +27,47 @@ package de.jecore.bbconfigmapper;
 import org.jetbrains.annotations.Nullable;
 
 import java.util.List;
+import java.util.Map;
 
-public interface IConfig {
+/**
+ * Points at a node within a configuration and allows to descend into it's children relative
+ * to that node, without having to resolve absolute paths from the configuration's root again
+ */
+public interface IConfigCursor {
 
   /**
-   * Get a value by it's path
-   * @param path Path to identify the value
+   * Get the path of the node this cursor points at, null means root
    */
-  @Nullable Object get(
-		final @Nullable String path
-	);
+  @Nullable String getPath();
 
   /**
-   * Set a value by it's path
-   * @param path Path to identify the value
+   * Whether this cursor points at an existing, non-null value
    */
-  void set(
-		final @Nullable String path,
-		final @Nullable Object value
-	);
+  boolean isPresent();
 
   /**
-   * Remove a key and all of it's children by it's path
-   * @param path Path to identify the key
+   * Navigate to a direct child of the node this cursor points at
+   * @param key Key of the child
+   * @return Cursor of the child, which is not present if the key doesn't exist
    */
-  void remove(
-		final @Nullable String path
-	);
+  IConfigCursor child(String key);
 
   /**
-   * Check whether a given path exists within the configuration file
-   * @param path Path to identify the value
+   * Get cursors of all items of the list this cursor points at
+   * @return List of item cursors, null if this cursor doesn't point at a list
    */
-  boolean exists(
-		final @Nullable String path
-	);
+  @Nullable List<IConfigCursor> elements();
 
   /**
-   * Attach a comment to a specific path
-   * @param path Path to attach to
-   * @param lines Lines of text in the comment
-   * @param self Whether to attach to the key itself or to it's value
+   * Get cursors of all values of the map this cursor points at
+   * @return Map of unwrapped keys to value cursors, null if this cursor doesn't point at a map
    */
-  void attachComment(
-		final @Nullable String path,
-		final List<String> lines,
-		final boolean self
-	);
+  @Nullable Map<Object, IConfigCursor> entries();
 
   /**
-   * Read a specific path's attached comment, if available
-   * @param path Path to read from
-   * @param self Whether to read from the key itself or from it's value
-   * @return A list of the comment's lines, null if the path doesn't exist
-   *         or there's no comment attached to it yet
+   * Unwrap the node this cursor points at, just like {@link IConfig#get(String)} would
+   * @return Unwrapped value, null if not present
    */
-  @Nullable List<String> readComment(
-		final @Nullable String path,
-		final boolean self
-	);
+  @Nullable Object value();
 
-}
\ No newline at end of file
+}
@@ -42,4 +42,32 @@ public interface IEvaluable {
 
   Object asRawObject(IEvaluationEnvironment env);
 
+  /**
+   * Interpret the value as an int, without boxing it
+   */
+  default int asInt(IEvaluationEnvironment env) {
+    return asScalar(ScalarType.INT, env);
+  }
+
+  /**
+   * Interpret the value as a long, without boxing it
+   */
+  default long asLong(IEvaluationEnvironment env) {
+    return asScalar(ScalarType.LONG, env);
+  }
+
+  /**
+   * Interpret the value as a double, without boxing it
+   */
+  default double asDouble(IEvaluationEnvironment env) {
+    return asScalar(ScalarType.DOUBLE, env);
+  }
+
+  /**
+   * Interpret the value as a boolean, without boxing it
+   */
+  default boolean asBoolean(IEvaluationEnvironment env) {
+    return asScalar(ScalarType.BOOLEAN, env);
+  }
+
 }
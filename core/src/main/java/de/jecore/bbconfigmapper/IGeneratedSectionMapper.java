@@ -0,0 +1,153 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2023 BlvckBytes
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package de.jecore.bbconfigmapper;
+
+import de.jecore.bbconfigmapper.sections.IConfigSection;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.List;
+
+/**
+ * Reflection-free mapper of a config section type, generated at compile time by the
+ * BBConfigMapper annotation processor. Generated mappers are named after the binary name of
+ * their section with the {@link #CLASS_NAME_SUFFIX} appended, are registered as services of
+ * this interface and are picked up automatically by the {@link ConfigMapper}, which falls back
+ * to reflection for all members they don't cover.
+ */
+public interface IGeneratedSectionMapper<T extends IConfigSection> {
+
+  String CLASS_NAME_SUFFIX = "_SectionMapper";
+
+  /**
+   * Whether the section's default constructor is accessible to the generated code
+   */
+  boolean canInstantiate();
+
+  /**
+   * Create a new, empty instance of the section by invoking it's default constructor
+   * @return Created instance, null if {@link #canInstantiate()} yields false
+   */
+  @Nullable T newInstance();
+
+  /**
+   * Get all fields the section is mapped by, in the order they're declared in, walking up the hierarchy
+   */
+  List<GeneratedField> getFields();
+
+  /**
+   * Whether the section overrides {@link IConfigSection#defaultFor} or {@link IConfigSection#afterParsing},
+   * which receive reflected fields, as neither is called otherwise
+   */
+  boolean receivesReflectedFields();
+
+  /**
+   * Assign a value to a field of a given instance
+   * @param instance Target section instance
+   * @param fieldIndex Index of the target field, as by {@link GeneratedField#writeIndex()}
+   * @param value Value to assign
+   */
+  void write(T instance, int fieldIndex, @Nullable Object value);
+
+  // Unboxing conversions of generated writes to primitive fields, which only widen, just as reflective writes do
+
+  static byte unboxByte(@Nullable Object value) {
+    if (value instanceof Byte v)
+      return v;
+
+    throw createUnboxingError(value, byte.class);
+  }
+
+  static short unboxShort(@Nullable Object value) {
+    return switch (value) {
+      case Short v -> v;
+      case Byte v -> v;
+      case null, default -> throw createUnboxingError(value, short.class);
+    };
+  }
+
+  static char unboxChar(@Nullable Object value) {
+    if (value instanceof Character v)
+      return v;
+
+    throw createUnboxingError(value, char.class);
+  }
+
+  static int unboxInt(@Nullable Object value) {
+    return switch (value) {
+      case Integer v -> v;
+      case Short v -> v;
+      case Byte v -> v;
+      case Character v -> v;
+      case null, default -> throw createUnboxingError(value, int.class);
+    };
+  }
+
+  static long unboxLong(@Nullable Object value) {
+    return switch (value) {
+      case Long v -> v;
+      case Integer v -> v;
+      case Short v -> v;
+      case Byte v -> v;
+      case Character v -> v;
+      case null, default -> throw createUnboxingError(value, long.class);
+    };
+  }
+
+  static float unboxFloat(@Nullable Object value) {
+    return switch (value) {
+      case Float v -> v;
+      case Long v -> v;
+      case Integer v -> v;
+      case Short v -> v;
+      case Byte v -> v;
+      case Character v -> v;
+      case null, default -> throw createUnboxingError(value, float.class);
+    };
+  }
+
+  static double unboxDouble(@Nullable Object value) {
+    return switch (value) {
+      case Double v -> v;
+      case Float v -> v;
+      case Long v -> v;
+      case Integer v -> v;
+      case Short v -> v;
+      case Byte v -> v;
+      case Character v -> v;
+      case null, default -> throw createUnboxingError(value, double.class);
+    };
+  }
+
+  static boolean unboxBoolean(@Nullable Object value) {
+    if (value instanceof Boolean v)
+      return v;
+
+    throw createUnboxingError(value, boolean.class);
+  }
+
+  private static IllegalArgumentException createUnboxingError(@Nullable Object value, Class<?> type) {
+    return new IllegalArgumentException("Cannot assign " + (value == null ? "null" : value.getClass().getName()) + " to a field of type " + type);
+  }
+
+}
@@ -0,0 +1,112 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2023 BlvckBytes
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package de.jecore.bbconfigmapper;
+
+import de.jecore.bbconfigmapper.sections.IConfigSection;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * Memoizing holder of a config section which is only mapped on the first call to {@link #get()}.
+ * Declare fields as {@code LazySection<T>}, {@code List<LazySection<T>>} or {@code Map<K, LazySection<T>>}
+ * in order to defer mapping subtrees which are possibly never read. The parent's
+ * {@link IConfigSection#afterParsing} is called with the holder already assigned, while the
+ * held section's own hooks are only called when it's being materialized. Materialization
+ * reflects the state of the config at that point in time and happens at most once, even when
+ * being accessed by multiple threads concurrently.
+ */
+public final class LazySection<T extends IConfigSection> {
+
+  @FunctionalInterface
+  interface FSectionLoader<T> {
+    T load() throws Exception;
+  }
+
+  private final Class<T> type;
+  private volatile @Nullable FSectionLoader<T> loader;
+  private volatile @Nullable T value;
+
+  LazySection(Class<T> type, FSectionLoader<T> loader) {
+    this.type = type;
+    this.loader = loader;
+  }
+
+  /**
+   * Get the held section, mapping it if it has not yet been mapped
+   * @return Mapped section
+   * @throws IllegalStateException Mapping the section failed, which will be retried on the next call
+   */
+  public T get() {
+    T result = value;
+
+    if (result != null)
+      return result;
+
+    synchronized (this) {
+      result = value;
+
+      if (result != null)
+        return result;
+
+      FSectionLoader<T> currentLoader = loader;
+
+      // Cannot be null while there's no value, as it's only released after storing the value
+      assert currentLoader != null;
+
+      try {
+        result = currentLoader.load();
+      } catch (RuntimeException e) {
+        throw e;
+      } catch (Exception e) {
+        throw new IllegalStateException("Could not lazily map section of type " + type, e);
+      }
+
+      value = result;
+
+      // Release the loader and thereby the config nodes it captured
+      loader = null;
+      return result;
+    }
+  }
+
+  /**
+   * Get whether the held section has already been mapped
+   */
+  public boolean isMapped() {
+    return value != null;
+  }
+
+  /**
+   * Get the type of the held section
+   */
+  public Class<T> getType() {
+    return type;
+  }
+
+  @Override
+  public String toString() {
+    T result = value;
+    return "LazySection{type=" + type.getName() + ", " + (result == null ? "unmapped" : "value=" + result) + "}";
+  }
+}
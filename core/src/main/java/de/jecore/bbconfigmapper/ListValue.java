@@ -0,0 +1,93 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2023 BlvckBytes
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package de.jecore.bbconfigmapper;
+
+import me.blvckbytes.gpeee.IExpressionEvaluator;
+import me.blvckbytes.gpeee.interpreter.IEvaluationEnvironment;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Value which is a collection, whose lists and sets are interpreted only once per item type if none of
+ * it's items are expressions. Collections holding expressions are handled by a general value.
+ */
+final class ListValue extends AConfigValue {
+
+  private final boolean containsExpressions;
+
+  // Interpreted lists and sets by item type, which are unmodifiable and may thus be shared without synchronization
+  private final Object[] lists;
+  private final Object[] sets;
+
+  // Unmodifiable view of the value, as the raw value is handed out to every caller
+  private final Object frozen;
+
+  ListValue(Collection<?> value, @Nullable IExpressionEvaluator evaluator) {
+    super(value, evaluator);
+    this.containsExpressions = evaluator != null && ConfigValue.containsExpressions(value);
+    this.lists = new Object[TYPE_COUNT];
+    this.sets = new Object[TYPE_COUNT];
+    this.frozen = ConfigValue.freeze(value);
+  }
+
+  @Override
+  @SuppressWarnings("unchecked")
+  public <T> List<T> asList(ScalarType type, IEvaluationEnvironment env) {
+    if (containsExpressions)
+      return general().asList(type, env);
+
+    Object result = lists[type.ordinal()];
+
+    if (result == null) {
+      result = general().asList(type, env);
+      lists[type.ordinal()] = result;
+    }
+
+    return (List<T>) result;
+  }
+
+  @Override
+  @SuppressWarnings("unchecked")
+  public <T> Set<T> asSet(ScalarType type, IEvaluationEnvironment env) {
+    if (containsExpressions)
+      return general().asSet(type, env);
+
+    Object result = sets[type.ordinal()];
+
+    if (result == null) {
+      result = general().asSet(type, env);
+      sets[type.ordinal()] = result;
+    }
+
+    return (Set<T>) result;
+  }
+
+  @Override
+  public Object asRawObject(IEvaluationEnvironment env) {
+    return containsExpressions ? general().asRawObject(env) : frozen;
+  }
+}
@@ -0,0 +1,74 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2023 BlvckBytes
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package de.jecore.bbconfigmapper;
+
+import me.blvckbytes.gpeee.IExpressionEvaluator;
+import me.blvckbytes.gpeee.interpreter.IEvaluationEnvironment;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.Map;
+
+/**
+ * Value which is a map, whose maps are interpreted only once per pair of key and value types if none of it's
+ * keys or values are expressions. Maps holding expressions are handled by a general value.
+ */
+final class MapValue extends AConfigValue {
+
+  private final boolean containsExpressions;
+
+  // Interpreted maps by pair of key and value types, which are unmodifiable and may thus be shared without synchronization
+  private final Object[] maps;
+
+  // Unmodifiable view of the map, which answers all raw requests
+  private final Object frozen;
+
+  MapValue(Map<?, ?> value, @Nullable IExpressionEvaluator evaluator) {
+    super(value, evaluator);
+    this.containsExpressions = evaluator != null && ConfigValue.containsExpressions(value);
+    this.maps = new Object[TYPE_COUNT * TYPE_COUNT];
+    this.frozen = ConfigValue.freeze(value);
+  }
+
+  @Override
+  @SuppressWarnings("unchecked")
+  public <T, U> Map<T, U> asMap(ScalarType key, ScalarType value, IEvaluationEnvironment env) {
+    if (containsExpressions)
+      return general().asMap(key, value, env);
+
+    int slot = key.ordinal() * TYPE_COUNT + value.ordinal();
+    Object result = maps[slot];
+
+    if (result == null) {
+      result = general().asMap(key, value, env);
+      maps[slot] = result;
+    }
+
+    return (Map<T, U>) result;
+  }
+
+  @Override
+  public Object asRawObject(IEvaluationEnvironment env) {
+    return containsExpressions ? general().asRawObject(env) : frozen;
+  }
+}
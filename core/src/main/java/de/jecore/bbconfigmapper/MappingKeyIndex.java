@@ -0,0 +1,167 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2023 BlvckBytes
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package de.jecore.bbconfigmapper;
+
+import org.jetbrains.annotations.Nullable;
+import org.yaml.snakeyaml.nodes.NodeTuple;
+import org.yaml.snakeyaml.nodes.ScalarNode;
+import org.yaml.snakeyaml.nodes.Tag;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Case-insensitive index of the scalar keys of a mapping node, built in a single pass. Keys with and
+ * without the expression marker suffix share an entry, and as the index is complete, lookups of absent
+ * keys are answered without remembering them.
+ */
+final class MappingKeyIndex {
+
+  private static final class Entry {
+    private @Nullable NodeTuple plain;
+    private @Nullable NodeTuple marked;
+  }
+
+  private final @Nullable String foldedSuffix;
+  private final Map<String, Entry> entries;
+
+  // Marked tuples by their folded keys including the suffix, so that looking them up doesn't require stripping it
+  private final Map<String, NodeTuple> markedEntries;
+
+  private MappingKeyIndex(@Nullable String foldedSuffix, Map<String, Entry> entries, Map<String, NodeTuple> markedEntries) {
+    this.foldedSuffix = foldedSuffix;
+    this.entries = entries;
+    this.markedEntries = markedEntries;
+  }
+
+  /**
+   * Build the index of a mapping node's current tuples, where the first tuple of every key wins
+   * @param tuples Effective tuples of the node to index
+   * @param expressionMarkerSuffix Suffix which marks keys for expressions, null if unused
+   * @return Built index
+   */
+  static MappingKeyIndex build(List<NodeTuple> tuples, @Nullable String expressionMarkerSuffix) {
+    String foldedSuffix = expressionMarkerSuffix == null || expressionMarkerSuffix.isEmpty() ? null : fold(expressionMarkerSuffix);
+    Map<String, Entry> entries = new HashMap<>(tuples.size() * 2);
+    Map<String, NodeTuple> markedEntries = Collections.emptyMap();
+
+    for (NodeTuple tuple : tuples) {
+      // Non-scalar keys cannot be looked up, merge keys should never be retrievable and thus be "hidden"
+      if (!(tuple.getKeyNode() instanceof ScalarNode keyNode) || keyNode.getTag() == Tag.MERGE)
+        continue;
+
+      String key = fold(keyNode.getValue());
+      boolean marked = foldedSuffix != null && key.endsWith(foldedSuffix);
+      Entry entry = entries.computeIfAbsent(marked ? stripSuffix(key, foldedSuffix) : key, k -> new Entry());
+
+      if (marked) {
+        if (entry.marked == null) {
+          entry.marked = tuple;
+
+          if (markedEntries.isEmpty())
+            markedEntries = new HashMap<>();
+
+          markedEntries.put(key, tuple);
+        }
+      }
+
+      else if (entry.plain == null)
+        entry.plain = tuple;
+    }
+
+    return new MappingKeyIndex(foldedSuffix, entries, markedEntries);
+  }
+
+  /**
+   * Find the first tuple whose key equals the provided key, ignoring case
+   * @param key Key to look up, which only matches marked keys if it carries the marker suffix itself
+   * @return Located tuple, null if there's none
+   */
+  @Nullable NodeTuple find(String key) {
+    return findFolded(fold(key));
+  }
+
+  /**
+   * Find the first tuple whose key equals the provided, already case-folded key
+   * @param folded Folded key to look up, which only matches marked keys if it carries the marker suffix itself
+   * @return Located tuple, null if there's none
+   */
+  @Nullable NodeTuple findFolded(String folded) {
+    if (foldedSuffix != null && folded.endsWith(foldedSuffix))
+      return markedEntries.get(folded);
+
+    Entry entry = entries.get(folded);
+    return entry == null ? null : entry.plain;
+  }
+
+  /**
+   * Find the first tuple whose key equals the provided, already case-folded key with the marker suffix
+   * appended, without having to concatenate them
+   * @param folded Folded key to look up, not carrying the marker suffix
+   * @return Located tuple, null if there's none
+   */
+  @Nullable NodeTuple findMarkedFolded(String folded) {
+    Entry entry = entries.get(folded);
+    return entry == null ? null : entry.marked;
+  }
+
+  private static String stripSuffix(String key, String suffix) {
+    return key.substring(0, key.length() - suffix.length());
+  }
+
+  /**
+   * Fold a key's characters the same way {@link String#equalsIgnoreCase} compares them, so that
+   * keys which are equal ignoring case fold to equal strings
+   * @param key Key to fold
+   * @return Folded key, the very same instance if it's already folded
+   */
+  static String fold(String key) {
+    int length = key.length();
+    int index = 0;
+
+    while (index < length && isFolded(key.charAt(index)))
+      ++index;
+
+    if (index == length)
+      return key;
+
+    char[] result = key.toCharArray();
+
+    for (; index < length; index++)
+      result[index] = foldChar(result[index]);
+
+    return new String(result);
+  }
+
+  private static boolean isFolded(char c) {
+    return foldChar(c) == c;
+  }
+
+  private static char foldChar(char c) {
+    return Character.toLowerCase(Character.toUpperCase(c));
+  }
+}
@@ -0,0 +1,132 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2023 BlvckBytes
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package de.jecore.bbconfigmapper;
+
+import de.jecore.bbconfigmapper.sections.IConfigSection;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * Record of a section mapped by a remapping call, holding the records of all of it's fields, aligned with
+ * the ordered field plans of it's type. The section is reused as a whole if all fields still read equal
+ * results, while a changed section is mapped anew by taking over the values of all fields which still do.
+ */
+final class MappingRecord {
+
+  final Class<?> type;
+
+  private final FieldRecord[] fields;
+  private volatile @Nullable IConfigSection instance;
+
+  // Only held while the section is being mapped, so that records never retain the records of earlier calls
+  private @Nullable MappingRecord previous;
+  private @Nullable IConfigCursor cursor;
+  private @Nullable RemapCall call;
+
+  /**
+   * Begin the record of a section which is about to be mapped
+   * @param type Type the section is mapped as
+   * @param fieldCount Number of fields the type's plan holds
+   * @param previous Record of the section mapped at the same location by the previous call, if any
+   * @param cursor Cursor pointing at the section, which doesn't record
+   * @param call Remapping call the section is mapped within
+   */
+  MappingRecord(
+    final Class<?> type,
+    final int fieldCount,
+    final @Nullable MappingRecord previous,
+    final IConfigCursor cursor,
+    final RemapCall call
+  ) {
+    this.type = type;
+    this.fields = new FieldRecord[fieldCount];
+    this.previous = previous;
+    this.cursor = cursor;
+    this.call = call;
+  }
+
+  /**
+   * Take over the record of a field from the previous call, if it's reads still yield equal results
+   * @param index Index of the field within the ordered field plans
+   * @param type Type the field's value is about to be resolved as
+   * @return Taken over record, holding the value to reuse; null if the field has to be resolved anew
+   */
+  @Nullable FieldRecord reuseField(int index, Class<?> type) {
+    FieldRecord candidate = previous == null ? null : previous.fields[index];
+
+    // Runtime decided fields may be decided differently, as the hook isn't part of the recorded reads
+    if (candidate == null || candidate.type != type || !call.isUnchanged(candidate, cursor))
+      return null;
+
+    fields[index] = candidate;
+    return candidate;
+  }
+
+  /**
+   * Begin the record of a field which is about to be resolved anew
+   * @param index Index of the field within the ordered field plans
+   * @param field Record of the field
+   * @return Cursor of the section which records the field's reads
+   */
+  IConfigCursor recordField(int index, FieldRecord field) {
+    fields[index] = field;
+
+    FieldRecord previousField = previous == null ? null : previous.fields[index];
+    return new RecordingCursor(cursor, field, previousField == null ? null : previousField.reads, call);
+  }
+
+  /**
+   * Complete this record after it's section has been fully mapped
+   * @param instance Mapped section
+   */
+  void complete(IConfigSection instance) {
+    this.instance = instance;
+    this.previous = null;
+    this.cursor = null;
+    this.call = null;
+  }
+
+  @Nullable IConfigSection getInstance() {
+    return instance;
+  }
+
+  /**
+   * Replay the reads of all fields on the cursor of the section
+   * @param cursor Cursor pointing at the location the section has been mapped from
+   * @param call Remapping call which compares the records of the fields
+   * @return True if the section can be reused as a whole
+   */
+  boolean matches(IConfigCursor cursor, RemapCall call) {
+    // Incomplete records stem from failed calls and hold no section to reuse
+    if (instance == null)
+      return false;
+
+    for (FieldRecord field : fields) {
+      if (field == null || !call.isUnchanged(field, cursor))
+        return false;
+    }
+
+    return true;
+  }
+}
@@ -0,0 +1,122 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2023 BlvckBytes
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package de.jecore.bbconfigmapper;
+
+import org.jetbrains.annotations.Nullable;
+
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * A unit of mapping work which is offered to an executor but may just as well be run by the thread
+ * which awaits it. As waiting threads run all tasks which have not yet been claimed by the executor
+ * themselves, they only ever wait on tasks which are actively running, which rules out starvation
+ * deadlocks when tasks spawn further tasks on bounded executors.
+ */
+final class MappingTask implements Runnable {
+
+  @FunctionalInterface
+  interface FMappingBody {
+    void run() throws Exception;
+  }
+
+  private final FMappingBody body;
+  private final AtomicBoolean claimed;
+  private final CountDownLatch done;
+
+  private volatile @Nullable Throwable error;
+
+  MappingTask(FMappingBody body) {
+    this.body = body;
+    this.claimed = new AtomicBoolean();
+    this.done = new CountDownLatch(1);
+  }
+
+  @Override
+  public void run() {
+    // Has already been claimed by either the executor or the awaiting thread
+    if (!claimed.compareAndSet(false, true))
+      return;
+
+    try {
+      body.run();
+    } catch (Throwable e) {
+      error = e;
+    } finally {
+      done.countDown();
+    }
+  }
+
+  /**
+   * Get the error the body threw, only to be called after {@link #runAll} returned
+   * @return Thrown error, null if the body completed normally
+   */
+  @Nullable Throwable getError() {
+    return error;
+  }
+
+  /**
+   * Throw the error of this task, if the body threw
+   */
+  void rethrow() throws Exception {
+    Throwable e = error;
+
+    if (e == null)
+      return;
+
+    if (e instanceof Exception exception)
+      throw exception;
+
+    if (e instanceof Error err)
+      throw err;
+
+    throw new IllegalStateException(e);
+  }
+
+  /**
+   * Offers all but the first task to the executor, then runs all tasks which have not yet
+   * been claimed on the calling thread and finally waits for all tasks to complete
+   * @param tasks Tasks to run
+   * @param executor Executor to offer tasks to
+   */
+  static void runAll(List<MappingTask> tasks, Executor executor) throws InterruptedException {
+    for (int i = 1; i < tasks.size(); i++) {
+      try {
+        executor.execute(tasks.get(i));
+      } catch (RejectedExecutionException ignored) {
+        // Will be run by the calling thread
+      }
+    }
+
+    for (MappingTask task : tasks)
+      task.run();
+
+    for (MappingTask task : tasks)
+      task.done.await();
+  }
+}
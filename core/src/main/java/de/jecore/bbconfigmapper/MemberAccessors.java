@@ -0,0 +1,237 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2023 BlvckBytes
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package de.jecore.bbconfigmapper;
+
+import me.blvckbytes.gpeee.IExpressionEvaluator;
+import org.jetbrains.annotations.Nullable;
+
+import java.lang.invoke.*;
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Field;
+import java.lang.reflect.InvocationTargetException;
+import java.util.function.Supplier;
+
+/**
+ * Creates instantiation and field write accessors according to an {@link AccessStrategy}
+ */
+final class MemberAccessors {
+
+  private static final MethodType WRITER_TYPE = MethodType.methodType(void.class, Object.class, Object.class);
+
+  @FunctionalInterface
+  private interface FHandleWriter {
+    void write(Object instance, Object value) throws Throwable;
+  }
+
+  private MemberAccessors() {}
+
+  /**
+   * Create a writer for a given field, which already has to be accessible
+   * @param field Target field
+   * @param strategy Strategy to create the writer with
+   * @return Writer which assigns values to the field on a given instance
+   */
+  static FFieldWriter createWriter(Field field, AccessStrategy strategy) {
+    if (strategy == AccessStrategy.METHOD_HANDLES) {
+      try {
+        MethodHandles.Lookup lookup = MethodHandles.privateLookupIn(field.getDeclaringClass(), MethodHandles.lookup());
+
+        // Setters of final fields are only granted as the field's accessible flag has been set
+        MethodHandle setter = lookup.unreflectSetter(field).asType(WRITER_TYPE);
+
+        return (instance, value) -> {
+          try {
+            setter.invokeExact(instance, value);
+          } catch (RuntimeException | Error e) {
+            throw e;
+          } catch (Throwable e) {
+            throw new IllegalStateException("Could not write field " + field.getName(), e);
+          }
+        };
+      } catch (IllegalAccessException | SecurityException ignored) {
+        // Access has been denied, fall back on reflection
+      }
+    }
+
+    return field::set;
+  }
+
+  /**
+   * Create a writer for a given primitive field which applies a primitive-specialized converter
+   * to the value it receives and writes the result without boxing it
+   * @param field Target field, which already has to be accessible
+   * @param converter Converter bound to the field's type
+   * @param evaluator Evaluator to pass to the converter
+   * @param strategy Strategy to create the writer with
+   * @return Writer which receives unconverted values, null if the converter doesn't match the field's primitive type
+   */
+  static @Nullable FFieldWriter createConvertingWriter(Field field, FValueConverter converter, IExpressionEvaluator evaluator, AccessStrategy strategy) {
+    Class<?> type = field.getType();
+
+    boolean matches = (
+      (type == int.class && converter instanceof FIntValueConverter) ||
+      (type == long.class && converter instanceof FLongValueConverter) ||
+      (type == double.class && converter instanceof FDoubleValueConverter) ||
+      (type == boolean.class && converter instanceof FBooleanValueConverter)
+    );
+
+    if (!matches)
+      return null;
+
+    if (strategy == AccessStrategy.METHOD_HANDLES) {
+      try {
+        MethodHandles.Lookup lookup = MethodHandles.privateLookupIn(field.getDeclaringClass(), MethodHandles.lookup());
+        MethodHandle setter = lookup.unreflectSetter(field).asType(MethodType.methodType(void.class, Object.class, type));
+
+        // Block bodies, so that the signature-polymorphic invocations are typed to return void
+        FHandleWriter writer = switch (converter) {
+          case FIntValueConverter c -> (instance, value) -> { setter.invokeExact(instance, c.applyAsInt(value, evaluator)); };
+          case FLongValueConverter c -> (instance, value) -> { setter.invokeExact(instance, c.applyAsLong(value, evaluator)); };
+          case FDoubleValueConverter c -> (instance, value) -> { setter.invokeExact(instance, c.applyAsDouble(value, evaluator)); };
+          default -> (instance, value) -> { setter.invokeExact(instance, ((FBooleanValueConverter) converter).applyAsBoolean(value, evaluator)); };
+        };
+
+        return (instance, value) -> {
+          try {
+            writer.write(instance, value);
+          } catch (RuntimeException | Error e) {
+            throw e;
+          } catch (Throwable e) {
+            throw new IllegalStateException("Could not write field " + field.getName(), e);
+          }
+        };
+      } catch (IllegalAccessException | SecurityException ignored) {
+        // Access has been denied, fall back on reflection
+      }
+    }
+
+    return switch (converter) {
+      case FIntValueConverter c -> (instance, value) -> field.setInt(instance, c.applyAsInt(value, evaluator));
+      case FLongValueConverter c -> (instance, value) -> field.setLong(instance, c.applyAsLong(value, evaluator));
+      case FDoubleValueConverter c -> (instance, value) -> field.setDouble(instance, c.applyAsDouble(value, evaluator));
+      default -> (instance, value) -> field.setBoolean(instance, ((FBooleanValueConverter) converter).applyAsBoolean(value, evaluator));
+    };
+  }
+
+  /**
+   * Create a factory for a given default constructor, which already has to be accessible
+   * @param constructor Target constructor
+   * @param strategy Strategy to create the factory with
+   * @return Factory which creates new instances by invoking the constructor
+   */
+  @SuppressWarnings("unchecked")
+  static <T> Supplier<T> createFactory(Constructor<T> constructor, AccessStrategy strategy) {
+    if (strategy == AccessStrategy.METHOD_HANDLES) {
+      Class<T> type = constructor.getDeclaringClass();
+
+      try {
+        MethodHandles.Lookup lookup = MethodHandles.privateLookupIn(type, MethodHandles.lookup());
+        MethodHandle handle = lookup.unreflectConstructor(constructor);
+
+        try {
+          CallSite site = LambdaMetafactory.metafactory(
+            lookup, "get",
+            MethodType.methodType(Supplier.class),
+            MethodType.methodType(Object.class),
+            handle,
+            MethodType.methodType(type)
+          );
+
+          return (Supplier<T>) site.getTarget().invoke();
+        } catch (Throwable ignored) {
+          // The metafactory requires full privilege access, which isn't granted across modules
+        }
+
+        MethodHandle genericHandle = handle.asType(MethodType.methodType(Object.class));
+
+        return () -> {
+          try {
+            return (T) genericHandle.invokeExact();
+          } catch (RuntimeException | Error e) {
+            throw e;
+          } catch (Throwable e) {
+            throw new IllegalStateException("Could not instantiate " + type, e);
+          }
+        };
+      } catch (IllegalAccessException | SecurityException ignored) {
+        // Access has been denied, fall back on reflection
+      }
+    }
+
+    return () -> {
+      try {
+        return constructor.newInstance();
+      } catch (ReflectiveOperationException e) {
+        throw new IllegalStateException("Could not instantiate " + constructor.getDeclaringClass(), e);
+      }
+    };
+  }
+
+  /**
+   * Create an invoker for a given constructor which accepts all of it's arguments at once, which
+   * already has to be accessible
+   * @param constructor Target constructor
+   * @param strategy Strategy to create the invoker with
+   * @return Invoker which creates new instances by invoking the constructor with an argument array
+   */
+  @SuppressWarnings("unchecked")
+  static <T> FSectionConstructor<T> createConstructor(Constructor<T> constructor, AccessStrategy strategy) {
+    Class<T> type = constructor.getDeclaringClass();
+
+    if (strategy == AccessStrategy.METHOD_HANDLES) {
+      try {
+        MethodHandles.Lookup lookup = MethodHandles.privateLookupIn(type, MethodHandles.lookup());
+
+        // Spread the argument array across all parameters, primitives are unboxed on invocation
+        MethodHandle handle = lookup.unreflectConstructor(constructor)
+          .asSpreader(Object[].class, constructor.getParameterCount())
+          .asType(MethodType.methodType(Object.class, Object[].class));
+
+        return arguments -> {
+          try {
+            return (T) handle.invokeExact(arguments);
+          } catch (RuntimeException | Error e) {
+            throw e;
+          } catch (Throwable e) {
+            throw new IllegalStateException("Could not instantiate " + type, e);
+          }
+        };
+      } catch (IllegalAccessException | SecurityException ignored) {
+        // Access has been denied, fall back on reflection
+      }
+    }
+
+    return arguments -> {
+      try {
+        return constructor.newInstance(arguments);
+      } catch (InvocationTargetException e) {
+        if (e.getCause() instanceof Exception cause)
+          throw cause;
+
+        throw new IllegalStateException("Could not instantiate " + type, e.getCause());
+      }
+    };
+  }
+}
@@ -0,0 +1,267 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2023 BlvckBytes
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package de.jecore.bbconfigmapper;
+
+import me.blvckbytes.gpeee.IExpressionEvaluator;
+import me.blvckbytes.gpeee.interpreter.IEvaluationEnvironment;
+import me.blvckbytes.gpeee.parser.expression.AExpression;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Evaluator which delegates to another evaluator while memoizing the results of every expression. The first
+ * evaluations of an expression find out which variables it reads, and results are then keyed by the values of
+ * just those variables, as long as they're immutable scalars. Expressions which access functions are only
+ * memoized within an {@link IVersionedEvaluationEnvironment}, whose version keys results instead. Results are
+ * shared between all evaluations they're memoized for, and thus should not be modified. Answering an evaluation
+ * by a memoized result neither locks nor allocates.
+ */
+public class MemoizingExpressionEvaluator implements IExpressionEvaluator {
+
+  /**
+   * Default maximum number of results which are memoized per expression
+   */
+  public static final int DEFAULT_MAX_RESULTS = 64;
+
+  /**
+   * Default maximum number of expressions whose results are memoized
+   */
+  public static final int DEFAULT_MAX_EXPRESSIONS = 1024;
+
+  private final IExpressionEvaluator delegate;
+  private final int maxResults;
+  private final int maxExpressions;
+
+  // Concurrent, as expressions are also evaluated by parallel mapping tasks, keyed by the expressions interned by configs
+  private final Map<AExpression, ExpressionMemo> memos;
+
+  // Advanced whenever a memo is created, so that requesting the same memo in between doesn't have to write
+  private final AtomicLong createdMemos;
+
+  private final LongAdder hits;
+  private final LongAdder misses;
+  private final LongAdder bypasses;
+
+  /**
+   * Create a new memoizing evaluator which memoizes up to {@link #DEFAULT_MAX_RESULTS} results per expression
+   * @param delegate Evaluator to parse and evaluate with
+   */
+  public MemoizingExpressionEvaluator(
+    final IExpressionEvaluator delegate
+  ) {
+    this(delegate, DEFAULT_MAX_RESULTS);
+  }
+
+  /**
+   * Create a new memoizing evaluator
+   * @param delegate Evaluator to parse and evaluate with
+   * @param maxResults Maximum number of results which are memoized per expression, evicting the least recently used
+   */
+  public MemoizingExpressionEvaluator(
+    final IExpressionEvaluator delegate,
+    final int maxResults
+  ) {
+    this(delegate, maxResults, DEFAULT_MAX_EXPRESSIONS);
+  }
+
+  /**
+   * Create a new memoizing evaluator
+   * @param delegate Evaluator to parse and evaluate with
+   * @param maxResults Maximum number of results which are memoized per expression, evicting the least recently used
+   * @param maxExpressions Maximum number of expressions whose results are memoized, evicting the least recently used
+   */
+  public MemoizingExpressionEvaluator(
+    final IExpressionEvaluator delegate,
+    final int maxResults,
+    final int maxExpressions
+  ) {
+    if (maxResults < 1)
+      throw new IllegalArgumentException("At least one result has to be memoized per expression");
+
+    if (maxExpressions < 1)
+      throw new IllegalArgumentException("The results of at least one expression have to be memoized");
+
+    this.delegate = delegate;
+    this.maxResults = maxResults;
+    this.maxExpressions = maxExpressions;
+    this.memos = new ConcurrentHashMap<>();
+    this.createdMemos = new AtomicLong();
+    this.hits = new LongAdder();
+    this.misses = new LongAdder();
+    this.bypasses = new LongAdder();
+  }
+
+  @Override
+  public AExpression parseString(String input) {
+    return delegate.parseString(input);
+  }
+
+  @Override
+  public AExpression optimizeExpression(AExpression expression) {
+    return delegate.optimizeExpression(expression);
+  }
+
+  @Override
+  public Object evaluateExpression(AExpression expression, IEvaluationEnvironment environment) {
+    ExpressionMemo memo = memoOf(expression);
+    Object result = memo.getConstant();
+
+    // Checked first, as constant results don't require reading the environment
+    if (result != null) {
+      hits.increment();
+      return ExpressionMemo.unwrap(result);
+    }
+
+    // Versions already account for everything the expression could access
+    if (environment instanceof IVersionedEvaluationEnvironment versioned) {
+      long version = versioned.getVersion();
+      IVersionedEvaluationEnvironment owner = RecordingEnvironment.unwrapVersioned(versioned);
+      result = memo.getVersioned(owner, version);
+
+      if (result != null) {
+        hits.increment();
+        return ExpressionMemo.unwrap(result);
+      }
+
+      misses.increment();
+
+      RecordingEnvironment recording = RecordingEnvironment.of(environment);
+      result = delegate.evaluateExpression(expression, recording);
+      memo.putVersioned(owner, version, recording, result);
+      return result;
+    }
+
+    Object key = memo.createKey(environment);
+
+    if (key == null) {
+      bypasses.increment();
+      return delegate.evaluateExpression(expression, environment);
+    }
+
+    result = memo.get(key);
+
+    if (result != null) {
+      hits.increment();
+      return ExpressionMemo.unwrap(result);
+    }
+
+    misses.increment();
+
+    // Retained before evaluating, as nested evaluations on this thread may reuse the key, see ExpressionMemo#createKey
+    key = ExpressionMemo.retainKey(key);
+
+    RecordingEnvironment recording = RecordingEnvironment.of(environment);
+    result = delegate.evaluateExpression(expression, recording);
+    memo.put(key, recording, result);
+    return result;
+  }
+
+  /**
+   * Get the memo of an expression or create it otherwise, evicting the memos of the least recently
+   * evaluated expressions if there are too many
+   * @param expression Expression to get the memo of
+   * @return Memo of the expression
+   */
+  private ExpressionMemo memoOf(AExpression expression) {
+    ExpressionMemo memo = memos.get(expression);
+
+    if (memo != null) {
+      long now = createdMemos.get();
+
+      // Only written if it differs, which spares contended writes while no memos are created
+      if (memo.lastUsed != now)
+        memo.lastUsed = now;
+
+      return memo;
+    }
+
+    memo = memos.computeIfAbsent(expression, k -> new ExpressionMemo(maxResults, createdMemos.incrementAndGet()));
+
+    if (memos.size() > maxExpressions)
+      evictMemos();
+
+    return memo;
+  }
+
+  private synchronized void evictMemos() {
+    RecencyEviction.evict(memos, maxExpressions, memo -> memo.lastUsed);
+  }
+
+  /**
+   * Get the number of evaluations which have been answered by a memoized result
+   */
+  public long getHitCount() {
+    return hits.sum();
+  }
+
+  /**
+   * Get the number of evaluations which could have been, but were not yet answered by a memoized result
+   */
+  public long getMissCount() {
+    return misses.sum();
+  }
+
+  /**
+   * Get the number of evaluations which could not be memoized, as the expression accessed functions
+   * or read variables whose values are not immutable scalars, within an unversioned environment
+   */
+  public long getBypassCount() {
+    return bypasses.sum();
+  }
+
+  /**
+   * Get the share of all evaluations which have been answered by a memoized result
+   * @return Hit rate between zero and one, zero if nothing has been evaluated yet
+   */
+  public double getHitRate() {
+    long hits = getHitCount();
+    long total = hits + getMissCount() + getBypassCount();
+    return total == 0 ? 0 : (double) hits / total;
+  }
+
+  /**
+   * Forget all memoized results and reset the statistics
+   */
+  public void clear() {
+    memos.clear();
+    hits.reset();
+    misses.reset();
+    bypasses.reset();
+  }
+
+  @Override
+  public String toString() {
+    return "MemoizingExpressionEvaluator{" +
+      "delegate=" + delegate +
+      ", maxResults=" + maxResults +
+      ", maxExpressions=" + maxExpressions +
+      ", hits=" + getHitCount() +
+      ", misses=" + getMissCount() +
+      ", bypasses=" + getBypassCount() +
+      '}';
+  }
+}
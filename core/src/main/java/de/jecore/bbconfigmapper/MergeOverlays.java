@@ -0,0 +1,189 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2023 BlvckBytes
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package de.jecore.bbconfigmapper;
+
+import org.jetbrains.annotations.Nullable;
+import org.yaml.snakeyaml.error.Mark;
+import org.yaml.snakeyaml.nodes.*;
+
+import java.util.*;
+import java.util.function.Function;
+
+/**
+ * Resolves the merge keys of a tree into overlays, which hold the effective tuples of all mappings
+ * inheriting tuples through merge keys, while leaving the tree itself untouched. Mappings without
+ * an overlay are effectively represented by their own tuples.
+ */
+final class MergeOverlays {
+
+  private final Map<MappingNode, List<NodeTuple>> overlays;
+  private final Map<MappingNode, Map<String, Integer>> keyPositions;
+  private final Set<MappingNode> visited;
+  private final @Nullable Set<MappingNode> pending;
+  private final Function<MappingNode, List<NodeTuple>> resolvedTuples;
+
+  private MergeOverlays(@Nullable Set<MappingNode> pending, Function<MappingNode, List<NodeTuple>> resolvedTuples) {
+    this.pending = pending;
+    this.resolvedTuples = resolvedTuples;
+    this.overlays = new IdentityHashMap<>();
+    this.keyPositions = new IdentityHashMap<>();
+    this.visited = Collections.newSetFromMap(new IdentityHashMap<>());
+  }
+
+  /**
+   * Resolve all merge keys within a tree, where merges are applied depth-first
+   * @param root Root node of the tree
+   * @return Overlays by the mappings they belong to, empty if there are no merge keys
+   */
+  static Map<MappingNode, List<NodeTuple>> resolve(MappingNode root) {
+    MergeOverlays resolution = new MergeOverlays(null, MappingNode::getValue);
+    resolution.visit(root);
+    return resolution.overlays;
+  }
+
+  /**
+   * Resolve the merge keys of only some of the mappings within a tree, while all other mappings are
+   * represented by the effective tuples they've already been resolved to and are left untouched
+   * @param root Root node of the tree
+   * @param pending Mappings to resolve, which need to include all of their ancestors
+   * @param resolvedTuples Effective tuples of mappings which are not to be resolved
+   * @return Overlays by the pending mappings they belong to, empty if none of them inherit tuples
+   */
+  static Map<MappingNode, List<NodeTuple>> resolve(MappingNode root, Set<MappingNode> pending, Function<MappingNode, List<NodeTuple>> resolvedTuples) {
+    MergeOverlays resolution = new MergeOverlays(pending, resolvedTuples);
+    resolution.visit(root);
+    return resolution.overlays;
+  }
+
+  private boolean isPending(MappingNode node) {
+    return pending == null || pending.contains(node);
+  }
+
+  private List<NodeTuple> tuplesOf(MappingNode node) {
+    if (!isPending(node))
+      return resolvedTuples.apply(node);
+
+    List<NodeTuple> overlay = overlays.get(node);
+    return overlay == null ? node.getValue() : overlay;
+  }
+
+  private List<NodeTuple> overlayOf(MappingNode node) {
+    return overlays.computeIfAbsent(node, k -> new ArrayList<>(k.getValue()));
+  }
+
+  private void visit(MappingNode node) {
+    // Aliased mappings only need to be resolved once, as merging into them again has no effect
+    if (!isPending(node) || !visited.add(node))
+      return;
+
+    // NOTE: It's important to iterate by indices here, as mappings are extended while iterating,
+    // and the mappings inherited that way should also show up in the iteration later on
+    for (int tupleIndex = 0; tupleIndex < tuplesOf(node).size(); tupleIndex++) {
+      NodeTuple tuple = tuplesOf(node).get(tupleIndex);
+
+      if (!(tuple.getValueNode() instanceof MappingNode value) || !(tuple.getKeyNode() instanceof ScalarNode key))
+        continue;
+
+      // Merge after expanding, to resolve depth-first
+      visit(value);
+
+      if (key.getTag() == Tag.MERGE)
+        merge(node, value);
+    }
+  }
+
+  private void merge(MappingNode destination, MappingNode source) {
+    List<NodeTuple> sourceTuples = tuplesOf(source);
+
+    for (int sourceIndex = 0; sourceIndex < sourceTuples.size(); sourceIndex++) {
+      NodeTuple sourceTuple = sourceTuples.get(sourceIndex);
+      Node sourceKey = sourceTuple.getKeyNode();
+      Node sourceValue = sourceTuple.getValueNode();
+
+      // Non-scalar keys are ignored in the merging process
+      if (!(sourceKey instanceof ScalarNode sourceScalarKey))
+        continue;
+
+      // The merge source itself contains another merge key and needs to be processed first
+      if (sourceKey.getTag() == Tag.MERGE) {
+        if (!(sourceValue instanceof MappingNode))
+          throw new IllegalStateException("Cannot merge a non-mapping node into another node");
+
+        merge(destination, (MappingNode) sourceValue);
+        continue;
+      }
+
+      Map<String, Integer> positions = keyPositionsOf(destination);
+      Integer destinationIndex = positions.get(sourceScalarKey.getValue());
+
+      if (destinationIndex == null) {
+        List<NodeTuple> overlay = overlayOf(destination);
+        overlay.add(new NodeTuple(sourceKey, sourceValue));
+        positions.put(sourceScalarKey.getValue(), overlay.size() - 1);
+        continue;
+      }
+
+      NodeTuple destinationTuple = tuplesOf(destination).get(destinationIndex);
+      Node destinationValue = destinationTuple.getValueNode();
+
+      if (destinationValue instanceof MappingNode destinationMapping) {
+        // Mappings which are not pending have already been merged into before
+        if (sourceValue instanceof MappingNode sourceMapping && isPending(destinationMapping))
+          merge(destinationMapping, sourceMapping);
+
+        continue;
+      }
+
+      // Override scalar values, but only if the key to be overridden is above the source
+      // Keys which are added afterwards have a higher priority and thus persist, just as
+      // keys which have been set programmatically and thus do not stem from the source
+      if (isAbove(destinationValue, sourceValue))
+        overlayOf(destination).set(destinationIndex, new NodeTuple(destinationTuple.getKeyNode(), sourceValue));
+    }
+  }
+
+  private Map<String, Integer> keyPositionsOf(MappingNode node) {
+    Map<String, Integer> positions = keyPositions.get(node);
+
+    if (positions != null)
+      return positions;
+
+    List<NodeTuple> tuples = tuplesOf(node);
+    positions = new HashMap<>(tuples.size() * 2);
+
+    for (int i = 0; i < tuples.size(); i++) {
+      if (tuples.get(i).getKeyNode() instanceof ScalarNode key)
+        positions.putIfAbsent(key.getValue(), i);
+    }
+
+    keyPositions.put(node, positions);
+    return positions;
+  }
+
+  private static boolean isAbove(Node a, Node b) {
+    Mark markA = a.getStartMark(), markB = b.getStartMark();
+    return markA != null && markB != null && markA.getPointer() < markB.getPointer();
+  }
+}
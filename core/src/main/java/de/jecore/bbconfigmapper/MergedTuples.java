@@ -0,0 +1,89 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2023 BlvckBytes
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package de.jecore.bbconfigmapper;
+
+import org.jetbrains.annotations.Nullable;
+import org.yaml.snakeyaml.nodes.NodeTuple;
+
+import java.util.AbstractList;
+import java.util.List;
+import java.util.RandomAccess;
+
+/**
+ * Tuples of a mapping which inherits tuples through merge keys, installed as the value of that mapping, so that
+ * it's overlay is reachable from the mapping itself and vanishes together with it. The list reads and writes the
+ * mapping's own tuples, which are serialized as they are, while the effective tuples are kept alongside.
+ */
+final class MergedTuples extends AbstractList<NodeTuple> implements RandomAccess {
+
+  // Final, so that the own tuples are visible to readers which observe this list through a data race
+  private final List<NodeTuple> own;
+
+  // Effective tuples including inherited ones, null if the mapping doesn't inherit any tuples (anymore)
+  private volatile @Nullable List<NodeTuple> overlay;
+
+  MergedTuples(List<NodeTuple> own, @Nullable List<NodeTuple> overlay) {
+    this.own = own;
+    this.overlay = overlay;
+  }
+
+  @Nullable List<NodeTuple> getOverlay() {
+    return overlay;
+  }
+
+  void setOverlay(@Nullable List<NodeTuple> overlay) {
+    this.overlay = overlay;
+  }
+
+  @Override
+  public NodeTuple get(int index) {
+    return own.get(index);
+  }
+
+  @Override
+  public int size() {
+    return own.size();
+  }
+
+  @Override
+  public NodeTuple set(int index, NodeTuple element) {
+    return own.set(index, element);
+  }
+
+  @Override
+  public void add(int index, NodeTuple element) {
+    own.add(index, element);
+  }
+
+  @Override
+  public NodeTuple remove(int index) {
+    return own.remove(index);
+  }
+
+  @Override
+  public int indexOf(Object o) {
+    return own.indexOf(o);
+  }
+}
@@ -0,0 +1,75 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2023 BlvckBytes
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package de.jecore.bbconfigmapper;
+
+import org.jetbrains.annotations.Nullable;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Cursor which resolves it's node by it's absolute path on every access, used as a fallback
+ * for configurations which don't provide their own, node-based cursor implementation
+ */
+final class PathConfigCursor implements IConfigCursor {
+
+  private final IConfig config;
+  private final @Nullable String path;
+
+  PathConfigCursor(IConfig config, @Nullable String path) {
+    this.config = config;
+    this.path = path;
+  }
+
+  @Override
+  public @Nullable String getPath() {
+    return path;
+  }
+
+  @Override
+  public boolean isPresent() {
+    return config.get(path) != null;
+  }
+
+  @Override
+  public IConfigCursor child(String key) {
+    return new PathConfigCursor(config, ConfigPaths.join(path, key));
+  }
+
+  @Override
+  public @Nullable List<IConfigCursor> elements() {
+    return new ValueConfigCursor(value(), path).elements();
+  }
+
+  @Override
+  public @Nullable Map<Object, IConfigCursor> entries() {
+    return new ValueConfigCursor(value(), path).entries();
+  }
+
+  @Override
+  public @Nullable Object value() {
+    return config.get(path);
+  }
+}
@@ -0,0 +1,185 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2023 BlvckBytes
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package de.jecore.bbconfigmapper;
+
+import org.jetbrains.annotations.Nullable;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Tree of all reads a field has performed on the config while being mapped, mirroring the way it navigated
+ * through the config by cursors. Each node holds the results of the reads performed on it's cursor, as well as
+ * the record of the section which has been mapped from it, if any. A record still holds for another tree if
+ * replaying all of it's reads on that tree yields equal results.
+ */
+final class ReadRecord {
+
+  static final int CHILD = 0;
+  static final int ELEMENT = 1;
+  static final int ENTRY = 2;
+
+  // Marks results which have not been read, as null is a valid result
+  private static final Object UNREAD = new Object();
+
+  private record Step(int kind, @Nullable Object key) {}
+
+  private volatile Object present = UNREAD;
+  private volatile @Nullable Object value = UNREAD;
+  private volatile @Nullable Object elementCount = UNREAD;
+  private volatile @Nullable Object entryKeys = UNREAD;
+  private volatile @Nullable MappingRecord section;
+
+  // Created on demand, as most nodes are leaves
+  private volatile @Nullable Map<Step, ReadRecord> steps;
+
+  void recordPresent(boolean present) {
+    this.present = present;
+  }
+
+  void recordValue(@Nullable Object value) {
+    this.value = value;
+  }
+
+  void recordElements(@Nullable List<?> elements) {
+    this.elementCount = elements == null ? null : elements.size();
+  }
+
+  void recordEntries(@Nullable Map<?, ?> entries) {
+    this.entryKeys = entries == null ? null : new ArrayList<>(entries.keySet());
+  }
+
+  void attachSection(MappingRecord section) {
+    this.section = section;
+  }
+
+  /**
+   * Get the record of a section which has been mapped from this node as the provided type
+   * @param type Type the section has to be mapped as
+   * @return Record of the section, null if there's none of that type
+   */
+  @Nullable MappingRecord findSection(Class<?> type) {
+    MappingRecord section = this.section;
+    return section != null && section.type == type ? section : null;
+  }
+
+  /**
+   * Get or create the node of a navigation step away from this node
+   * @param kind Kind of navigation, one of {@link #CHILD}, {@link #ELEMENT} or {@link #ENTRY}
+   * @param key Key of the child or entry, index of the element
+   * @return Node of the step
+   */
+  ReadRecord step(int kind, @Nullable Object key) {
+    Map<Step, ReadRecord> steps = this.steps;
+
+    if (steps == null) {
+      synchronized (this) {
+        steps = this.steps;
+
+        if (steps == null) {
+          steps = new ConcurrentHashMap<>();
+          this.steps = steps;
+        }
+      }
+    }
+
+    return steps.computeIfAbsent(new Step(kind, key), step -> new ReadRecord());
+  }
+
+  /**
+   * Get the node of a navigation step away from this node, without creating it
+   * @param kind Kind of navigation, one of {@link #CHILD}, {@link #ELEMENT} or {@link #ENTRY}
+   * @param key Key of the child or entry, index of the element
+   * @return Node of the step, null if that step has never been taken
+   */
+  @Nullable ReadRecord findStep(int kind, @Nullable Object key) {
+    Map<Step, ReadRecord> steps = this.steps;
+    return steps == null ? null : steps.get(new Step(kind, key));
+  }
+
+  /**
+   * Replay all reads of this node and of the nodes below on a cursor
+   * @param cursor Cursor to replay on, pointing at the same location as this node
+   * @param call Remapping call which compares the records of attached sections
+   * @return True if all reads yielded equal results
+   */
+  boolean matches(IConfigCursor cursor, RemapCall call) {
+    Object present = this.present;
+
+    if (present != UNREAD && !present.equals(cursor.isPresent()))
+      return false;
+
+    Object value = this.value;
+
+    if (value != UNREAD && !Objects.equals(value, cursor.value()))
+      return false;
+
+    List<IConfigCursor> elements = null;
+    Object elementCount = this.elementCount;
+
+    if (elementCount != UNREAD) {
+      elements = cursor.elements();
+
+      if (!Objects.equals(elementCount, elements == null ? null : elements.size()))
+        return false;
+    }
+
+    Map<Object, IConfigCursor> entries = null;
+    Object entryKeys = this.entryKeys;
+
+    if (entryKeys != UNREAD) {
+      entries = cursor.entries();
+
+      if (!Objects.equals(entryKeys, entries == null ? null : new ArrayList<>(entries.keySet())))
+        return false;
+    }
+
+    MappingRecord section = this.section;
+
+    if (section != null && !call.isUnchanged(section, cursor))
+      return false;
+
+    Map<Step, ReadRecord> steps = this.steps;
+
+    if (steps == null)
+      return true;
+
+    for (Map.Entry<Step, ReadRecord> entry : steps.entrySet()) {
+      Step step = entry.getKey();
+
+      // Elements and entries are only ever stepped into after having been read, so their counts and keys match
+      IConfigCursor next = switch (step.kind) {
+        case ELEMENT -> Objects.requireNonNull(elements).get((Integer) step.key);
+        case ENTRY -> Objects.requireNonNull(entries).get(step.key);
+        default -> cursor.child((String) step.key);
+      };
+
+      if (!entry.getValue().matches(next, call))
+        return false;
+    }
+
+    return true;
+  }
+}
@@ -0,0 +1,67 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2023 BlvckBytes
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package de.jecore.bbconfigmapper;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.function.ToLongFunction;
+
+/**
+ * Evicts the least recently used entries of concurrent maps whose values carry the time they've last been
+ * used at, by a clock which only advances on misses, so that hits don't have to write unless there's been a miss.
+ */
+final class RecencyEviction {
+
+  private record Candidate<K, V>(K key, V value, long lastUsed) {}
+
+  private RecencyEviction() {}
+
+  /**
+   * Evict the least recently used entries of a map, down to a quarter below it's maximum size, so that
+   * subsequent misses don't have to evict right away. Callers have to serialize evictions of the same map.
+   * @param entries Map to evict from, whose values may be replaced concurrently, which then survive
+   * @param maxSize Maximum number of entries, zero evicts all of them
+   * @param lastUsed Reads the time a value has last been used at
+   */
+  static <K, V> void evict(Map<K, V> entries, int maxSize, ToLongFunction<V> lastUsed) {
+    if (entries.size() <= maxSize)
+      return;
+
+    int excess = entries.size() - (maxSize - maxSize / 4);
+
+    // Recency is captured up front, as it may change while sorting
+    List<Candidate<K, V>> candidates = new ArrayList<>(entries.size());
+
+    for (Map.Entry<K, V> entry : entries.entrySet())
+      candidates.add(new Candidate<>(entry.getKey(), entry.getValue(), lastUsed.applyAsLong(entry.getValue())));
+
+    candidates.sort(Comparator.comparingLong(Candidate::lastUsed));
+
+    for (int i = 0; i < Math.min(excess, candidates.size()); i++)
+      entries.remove(candidates.get(i).key, candidates.get(i).value);
+  }
+}
@@ -0,0 +1,165 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2023 BlvckBytes
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package de.jecore.bbconfigmapper;
+
+import org.jetbrains.annotations.Nullable;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Cursor which records all reads performed through it and through the cursors it hands out into the
+ * {@link ReadRecord} of a field, while following along the record of that field from the previous
+ * remapping call, in order to find the sections which have been mapped at the same location before
+ */
+final class RecordingCursor implements IConfigCursor {
+
+  private final IConfigCursor delegate;
+  private final FieldRecord field;
+  private final ReadRecord reads;
+  private final @Nullable ReadRecord previousReads;
+
+  final RemapCall call;
+
+  /**
+   * Create a cursor which records into the root of a field's reads
+   * @param delegate Cursor to read from
+   * @param field Record of the field to record into
+   * @param previousReads Reads of the same field from the previous remapping call, if any
+   * @param call Remapping call this cursor is used within
+   */
+  RecordingCursor(IConfigCursor delegate, FieldRecord field, @Nullable ReadRecord previousReads, RemapCall call) {
+    this(delegate, field, field.reads, previousReads, call);
+  }
+
+  private RecordingCursor(
+    final IConfigCursor delegate,
+    final FieldRecord field,
+    final ReadRecord reads,
+    final @Nullable ReadRecord previousReads,
+    final RemapCall call
+  ) {
+    this.delegate = delegate;
+    this.field = field;
+    this.reads = reads;
+    this.previousReads = previousReads;
+    this.call = call;
+  }
+
+  /**
+   * Get the cursor this cursor reads from, which doesn't record
+   */
+  IConfigCursor unwrap() {
+    return delegate;
+  }
+
+  /**
+   * Get the record of the section which has been mapped at this location by the previous remapping call
+   * @param type Type the section has to have been mapped as
+   * @return Record of the section, null if there's none
+   */
+  @Nullable MappingRecord findPreviousSection(Class<?> type) {
+    return previousReads == null ? null : previousReads.findSection(type);
+  }
+
+  /**
+   * Attach the record of the section mapped at this location, which is either reused or about to be mapped
+   * @param section Record of the section
+   */
+  void attachSection(MappingRecord section) {
+    reads.attachSection(section);
+  }
+
+  /**
+   * Prevents the value of the field from being reused, as it holds on to the cursor of this location
+   * in order to read later on, which the recorded reads cannot account for
+   */
+  void preventReuse() {
+    field.preventReuse();
+  }
+
+  @Override
+  public @Nullable String getPath() {
+    return delegate.getPath();
+  }
+
+  @Override
+  public boolean isPresent() {
+    boolean present = delegate.isPresent();
+    reads.recordPresent(present);
+    return present;
+  }
+
+  @Override
+  public IConfigCursor child(String key) {
+    return step(delegate.child(key), ReadRecord.CHILD, key);
+  }
+
+  @Override
+  public @Nullable List<IConfigCursor> elements() {
+    List<IConfigCursor> elements = delegate.elements();
+    reads.recordElements(elements);
+
+    if (elements == null)
+      return null;
+
+    List<IConfigCursor> result = new ArrayList<>(elements.size());
+
+    for (int i = 0; i < elements.size(); i++)
+      result.add(step(elements.get(i), ReadRecord.ELEMENT, i));
+
+    return result;
+  }
+
+  @Override
+  public @Nullable Map<Object, IConfigCursor> entries() {
+    Map<Object, IConfigCursor> entries = delegate.entries();
+    reads.recordEntries(entries);
+
+    if (entries == null)
+      return null;
+
+    Map<Object, IConfigCursor> result = new LinkedHashMap<>();
+
+    for (Map.Entry<Object, IConfigCursor> entry : entries.entrySet())
+      result.put(entry.getKey(), step(entry.getValue(), ReadRecord.ENTRY, entry.getKey()));
+
+    return result;
+  }
+
+  @Override
+  public @Nullable Object value() {
+    Object value = delegate.value();
+    reads.recordValue(value);
+    return value;
+  }
+
+  private RecordingCursor step(IConfigCursor cursor, int kind, @Nullable Object key) {
+    ReadRecord previousStep = previousReads == null ? null : previousReads.findStep(kind, key);
+    return new RecordingCursor(cursor, field, reads.step(kind, key), previousStep, call);
+  }
+}
@@ -0,0 +1,208 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2023 BlvckBytes
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package de.jecore.bbconfigmapper;
+
+import me.blvckbytes.gpeee.functions.AExpressionFunction;
+import me.blvckbytes.gpeee.interpreter.IEvaluationEnvironment;
+import me.blvckbytes.gpeee.interpreter.IValueInterpreter;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.AbstractMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Supplier;
+
+/**
+ * Environment which delegates to another environment while recording whether any of it's functions or
+ * variables have been accessed. Results of evaluations which didn't access any of them do not depend on
+ * the environment and may thus be reused across environments. Variables are also recorded by name, so
+ * that results which only depend on variables can be reused for the same values of those variables.
+ * Versioned environments are recorded by a versioned environment, see {@link #of(IEvaluationEnvironment)}.
+ */
+class RecordingEnvironment implements IEvaluationEnvironment {
+
+  private final IEvaluationEnvironment delegate;
+  private final Map<String, AExpressionFunction> functions;
+  private final Map<String, Supplier<?>> liveVariables;
+  private final Map<String, ?> staticVariables;
+  private boolean accessed;
+
+  // Whether functions have been accessed or any map has been enumerated
+  private boolean accessedBeyondVariables;
+
+  // Names of all variables which have been looked up, null if none
+  private @Nullable Set<String> variableNames;
+
+  private RecordingEnvironment(IEvaluationEnvironment delegate) {
+    this.delegate = delegate;
+    this.functions = new RecordingMap<>(delegate.getFunctions(), false);
+    this.liveVariables = new RecordingMap<>(delegate.getLiveVariables(), true);
+    this.staticVariables = new RecordingMap<>(delegate.getStaticVariables(), true);
+  }
+
+  /**
+   * Create an environment recording all accesses of another environment, which is versioned itself if the other
+   * environment is, so that evaluators further down can still key results by it's version
+   * @param delegate Environment to record
+   * @return Recording environment
+   */
+  static RecordingEnvironment of(IEvaluationEnvironment delegate) {
+    if (delegate instanceof IVersionedEvaluationEnvironment versioned)
+      return new Versioned(versioned);
+
+    return new RecordingEnvironment(delegate);
+  }
+
+  /**
+   * Get the versioned environment which is recorded by a versioned recording environment, if any, as all
+   * recordings of the same environment share it's state and thus it's version
+   * @param env Versioned environment, possibly recording another one
+   * @return Innermost versioned environment which is not a recording
+   */
+  static IVersionedEvaluationEnvironment unwrapVersioned(IVersionedEvaluationEnvironment env) {
+    while (env instanceof Versioned recording)
+      env = recording.versioned;
+
+    return env;
+  }
+
+  /**
+   * Check whether any function or variable has been accessed so far
+   */
+  boolean hasAccessedEnvironment() {
+    return accessed;
+  }
+
+  /**
+   * Check whether any function has been accessed or any map has been enumerated so far, in which
+   * case the accessed parts of the environment cannot be told by the names of variables alone
+   */
+  boolean hasAccessedBeyondVariables() {
+    return accessedBeyondVariables;
+  }
+
+  /**
+   * Get the names of all live or static variables which have been looked up so far
+   * @return Names of variables, null if none have been looked up
+   */
+  @Nullable Set<String> getVariableNames() {
+    return variableNames;
+  }
+
+  @Override
+  public Map<String, AExpressionFunction> getFunctions() {
+    return functions;
+  }
+
+  @Override
+  public Map<String, Supplier<?>> getLiveVariables() {
+    return liveVariables;
+  }
+
+  @Override
+  public Map<String, ?> getStaticVariables() {
+    return staticVariables;
+  }
+
+  @Override
+  public IValueInterpreter getValueInterpreter() {
+    return delegate.getValueInterpreter();
+  }
+
+  /**
+   * Record an access which cannot be told by the names of variables
+   */
+  void markAccessedBeyondVariables() {
+    accessed = true;
+    accessedBeyondVariables = true;
+  }
+
+  /**
+   * Recording environment which passes on the version of a versioned environment, where reading the version counts
+   * as an access beyond variables, as results which are keyed by that version depend on the whole environment
+   */
+  private static final class Versioned extends RecordingEnvironment implements IVersionedEvaluationEnvironment {
+
+    private final IVersionedEvaluationEnvironment versioned;
+
+    private Versioned(IVersionedEvaluationEnvironment versioned) {
+      super(versioned);
+      this.versioned = versioned;
+    }
+
+    @Override
+    public long getVersion() {
+      markAccessedBeyondVariables();
+      return versioned.getVersion();
+    }
+  }
+
+  /**
+   * Read-only view of a map which records all lookups, where enumerating it counts as an access as well
+   */
+  private class RecordingMap<V> extends AbstractMap<String, V> {
+
+    private final Map<String, V> map;
+    private final boolean variables;
+
+    @SuppressWarnings("unchecked")
+    private RecordingMap(Map<String, ? extends V> map, boolean variables) {
+      this.map = (Map<String, V>) map;
+      this.variables = variables;
+    }
+
+    @Override
+    public @Nullable V get(Object key) {
+      record(key);
+      return map.get(key);
+    }
+
+    @Override
+    public boolean containsKey(Object key) {
+      record(key);
+      return map.containsKey(key);
+    }
+
+    @Override
+    public Set<Entry<String, V>> entrySet() {
+      markAccessedBeyondVariables();
+      return map.entrySet();
+    }
+
+    private void record(Object key) {
+      accessed = true;
+
+      if (!variables || !(key instanceof String name)) {
+        markAccessedBeyondVariables();
+        return;
+      }
+
+      if (variableNames == null)
+        variableNames = new HashSet<>();
+
+      variableNames.add(name);
+    }
+  }
+}
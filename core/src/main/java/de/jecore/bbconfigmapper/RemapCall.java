@@ -0,0 +1,76 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2023 BlvckBytes
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package de.jecore.bbconfigmapper;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * State of a single remapping call, which remembers whether records of the previous call still hold
+ * for the current config, so that every record is only ever compared once per call, even though the
+ * record of a section is compared as part of all of it's parents as well as when being reached itself
+ */
+final class RemapCall {
+
+  // Records don't override equals, so they're compared by identity
+  private final Map<Object, Boolean> verdicts;
+
+  RemapCall() {
+    this.verdicts = new ConcurrentHashMap<>();
+  }
+
+  /**
+   * Whether all reads of a section still yield equal results
+   * @param record Record of the section
+   * @param cursor Cursor pointing at the location the section has been mapped from
+   */
+  boolean isUnchanged(MappingRecord record, IConfigCursor cursor) {
+    Boolean verdict = verdicts.get(record);
+
+    // Not computed within computeIfAbsent, as comparing descends into nested records recursively
+    if (verdict == null) {
+      verdict = record.matches(cursor, this);
+      verdicts.put(record, verdict);
+    }
+
+    return verdict;
+  }
+
+  /**
+   * Whether all reads of a field still yield equal results
+   * @param record Record of the field
+   * @param cursor Cursor pointing at the section the field is contained in
+   */
+  boolean isUnchanged(FieldRecord record, IConfigCursor cursor) {
+    Boolean verdict = verdicts.get(record);
+
+    if (verdict == null) {
+      verdict = record.matches(cursor, this);
+      verdicts.put(record, verdict);
+    }
+
+    return verdict;
+  }
+}
@@ -33,10 +33,10 @@ import java.util.Map;
 import java.util.function.BiFunction;
 
 public enum ScalarType {
-  INT(int.class, (i, e) -> (int) e.getValueInterpreter().asLong(i)),
-  LONG(long.class, (i, e) -> e.getValueInterpreter().asLong(i)),
-  DOUBLE(double.class, (i, e) -> e.getValueInterpreter().asDouble(i)),
-  BOOLEAN(boolean.class, (i, e) -> e.getValueInterpreter().asBoolean(i)),
+  INT(int.class, ScalarType::interpretInt),
+  LONG(long.class, ScalarType::interpretLong),
+  DOUBLE(double.class, ScalarType::interpretDouble),
+  BOOLEAN(boolean.class, ScalarType::interpretBoolean),
   STRING(String.class, (i, e) -> e.getValueInterpreter().asString(i)),
   TEXT_COMPONENT(Component.class, (i, e) -> Component.text(e.getValueInterpreter().asString(i)))
   ;
@@ -76,4 +76,40 @@ public enum ScalarType {
   public static @Nullable ScalarType fromClass(Class<?> c) {
     return lookupTable.get(c);
   }
+
+  /**
+   * Interpret a value as an int without boxing it, the way {@link #INT} interprets values
+   * @param input Value to interpret, expressions need to be evaluated beforehand
+   * @param env Environment providing the value interpreter
+   */
+  public static int interpretInt(@Nullable Object input, IEvaluationEnvironment env) {
+    return (int) env.getValueInterpreter().asLong(input);
+  }
+
+  /**
+   * Interpret a value as a long without boxing it, the way {@link #LONG} interprets values
+   * @param input Value to interpret, expressions need to be evaluated beforehand
+   * @param env Environment providing the value interpreter
+   */
+  public static long interpretLong(@Nullable Object input, IEvaluationEnvironment env) {
+    return env.getValueInterpreter().asLong(input);
+  }
+
+  /**
+   * Interpret a value as a double without boxing it, the way {@link #DOUBLE} interprets values
+   * @param input Value to interpret, expressions need to be evaluated beforehand
+   * @param env Environment providing the value interpreter
+   */
+  public static double interpretDouble(@Nullable Object input, IEvaluationEnvironment env) {
+    return env.getValueInterpreter().asDouble(input);
+  }
+
+  /**
+   * Interpret a value as a boolean without boxing it, the way {@link #BOOLEAN} interprets values
+   * @param input Value to interpret, expressions need to be evaluated beforehand
+   * @param env Environment providing the value interpreter
+   */
+  public static boolean interpretBoolean(@Nullable Object input, IEvaluationEnvironment env) {
+    return env.getValueInterpreter().asBoolean(input);
+  }
 }
\ No newline at end of file
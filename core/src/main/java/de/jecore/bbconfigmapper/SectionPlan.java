@@ -0,0 +1,396 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2023 BlvckBytes
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package de.jecore.bbconfigmapper;
+
+import de.jecore.bbconfigmapper.sections.CSConstructor;
+import de.jecore.bbconfigmapper.sections.CSIgnore;
+import de.jecore.bbconfigmapper.sections.IConfigSection;
+import me.blvckbytes.gpeee.IExpressionEvaluator;
+import org.jetbrains.annotations.Nullable;
+
+import java.lang.reflect.*;
+import java.util.*;
+import java.util.function.Supplier;
+
+/**
+ * Immutable mapping plan of a config section type, which holds all reflective information
+ * the mapper requires in order to instantiate and populate instances of that type. Plans are
+ * built once per type and then shared by all subsequent mapping calls.
+ */
+final class SectionPlan<T extends IConfigSection> {
+
+  final Class<T> type;
+
+  /**
+   * Factory which creates new, empty instances by invoking the default constructor,
+   * null if instances are created by passing all values to the {@link #constructor}
+   */
+  final @Nullable Supplier<T> factory;
+
+  /**
+   * Invoker of the canonical constructor of records or of the constructor annotated by
+   * {@link CSConstructor}, which receives the values of all fields in declaration order
+   */
+  final @Nullable FSectionConstructor<T> constructor;
+
+  /**
+   * Initial constructor arguments, which are zero for primitives and null otherwise,
+   * null if instances are created by the {@link #factory}
+   */
+  final Object @Nullable [] argumentDefaults;
+
+  /**
+   * Plans of all applicable fields, ordered in a way that fields of type Object come after known types
+   */
+  final List<FieldPlan> orderedFields;
+
+  /**
+   * Whether instances receive reflected fields through {@link IConfigSection#defaultFor} and
+   * {@link IConfigSection#afterParsing}, which are not called at all otherwise, as generated
+   * mappers state that the section doesn't override either of them
+   */
+  final boolean receivesFields;
+
+  /**
+   * Plans of all applicable fields in declaration order (walking up the hierarchy)
+   */
+  private final List<FieldPlan> declaredFields;
+
+  // Reflected fields in declaration order, resolved on first request if not known upon creation
+  private volatile @Nullable List<Field> fields;
+
+  private SectionPlan(
+    final Class<T> type,
+    final @Nullable Supplier<T> factory,
+    final @Nullable FSectionConstructor<T> constructor,
+    final Object @Nullable [] argumentDefaults,
+    final @Nullable List<Field> fields,
+    final List<FieldPlan> declaredFields,
+    final List<FieldPlan> orderedFields,
+    final boolean receivesFields
+  ) {
+    this.type = type;
+    this.factory = factory;
+    this.constructor = constructor;
+    this.argumentDefaults = argumentDefaults;
+    this.fields = fields;
+    this.declaredFields = declaredFields;
+    this.orderedFields = orderedFields;
+    this.receivesFields = receivesFields;
+  }
+
+  /**
+   * Get all applicable fields in declaration order (walking up the hierarchy), unmodifiable,
+   * of which every call to {@link IConfigSection#afterParsing(List)} receives a copy
+   */
+  List<Field> getFields() {
+    List<Field> result = fields;
+
+    if (result == null) {
+      List<Field> resolved = new ArrayList<>(declaredFields.size());
+
+      for (FieldPlan fieldPlan : declaredFields)
+        resolved.add(fieldPlan.getField());
+
+      result = Collections.unmodifiableList(resolved);
+      fields = result;
+    }
+
+    return result;
+  }
+
+  /**
+   * Build the mapping plan of a given section type
+   * @param type Type of the section
+   * @param generatedMapper Mapper generated for the section at compile time, null if there's none
+   * @param converterRegistry Optional registry of custom value converters to bind
+   * @param evaluator Evaluator passed to primitive-specialized converters
+   * @param strategy Strategy used to instantiate the section and to write it's fields
+   * @return Built plan
+   */
+  static <T extends IConfigSection> SectionPlan<T> create(
+    final Class<T> type,
+    final @Nullable IGeneratedSectionMapper<T> generatedMapper,
+    final @Nullable IValueConverterRegistry converterRegistry,
+    final IExpressionEvaluator evaluator,
+    final AccessStrategy strategy
+  ) {
+    if (generatedMapper != null)
+      return createGenerated(type, generatedMapper, converterRegistry, evaluator, strategy);
+
+    List<Field> fields = findApplicableFields(type);
+    Constructor<T> allArgsConstructor = findAllArgsConstructor(type, fields);
+
+    if (allArgsConstructor != null)
+      return createConstructed(type, allArgsConstructor, fields, converterRegistry, evaluator, strategy);
+
+    Constructor<T> constructor = findDefaultConstructor(type);
+    List<FieldPlan> declaredPlans = new ArrayList<>(fields.size());
+
+    for (Field field : fields)
+      declaredPlans.add(FieldPlan.create(field, converterRegistry, MemberAccessors.createWriter(field, strategy), evaluator, strategy));
+
+    return new SectionPlan<>(
+      type, MemberAccessors.createFactory(constructor, strategy), null, null,
+      Collections.unmodifiableList(fields),
+      Collections.unmodifiableList(declaredPlans),
+      orderFields(declaredPlans),
+      true
+    );
+  }
+
+  /**
+   * Build the mapping plan of a section type from the fields described by it's generated mapper, which
+   * writes all fields and creates all instances it has access to, without reflecting on the section
+   * @param type Type of the section
+   * @param generatedMapper Mapper generated for the section at compile time
+   * @param converterRegistry Optional registry of custom value converters to bind
+   * @param evaluator Evaluator passed to primitive-specialized converters
+   * @param strategy Strategy used to access members the generated mapper cannot access
+   * @return Built plan
+   */
+  private static <T extends IConfigSection> SectionPlan<T> createGenerated(
+    final Class<T> type,
+    final IGeneratedSectionMapper<T> generatedMapper,
+    final @Nullable IValueConverterRegistry converterRegistry,
+    final IExpressionEvaluator evaluator,
+    final AccessStrategy strategy
+  ) {
+    List<GeneratedField> fields = generatedMapper.getFields();
+    List<FieldPlan> declaredPlans = new ArrayList<>(fields.size());
+
+    for (GeneratedField field : fields) {
+      if (field.type() == type)
+        throw new IllegalStateException("Sections cannot use self-referencing fields (" + type + ", " + field.name() + ")");
+
+      FFieldWriter writer;
+      int writeIndex = field.writeIndex();
+
+      if (writeIndex >= 0)
+        writer = (instance, value) -> generatedMapper.write(type.cast(instance), writeIndex, value);
+      else
+        writer = MemberAccessors.createWriter(FieldPlan.resolveField(field.declaringClass(), field.name()), strategy);
+
+      declaredPlans.add(FieldPlan.create(field, converterRegistry, writer, evaluator, strategy));
+    }
+
+    Supplier<T> factory;
+
+    if (generatedMapper.canInstantiate())
+      factory = generatedMapper::newInstance;
+    else
+      factory = MemberAccessors.createFactory(findDefaultConstructor(type), strategy);
+
+    return new SectionPlan<>(
+      type, factory, null, null, null,
+      Collections.unmodifiableList(declaredPlans),
+      orderFields(declaredPlans),
+      generatedMapper.receivesReflectedFields()
+    );
+  }
+
+  /**
+   * Order field plans in a way that fields of type Object come after known types, as
+   * their type is decided at runtime, possibly based on the values of their siblings
+   * @param declaredPlans Field plans in declaration order
+   * @return Unmodifiable list of ordered field plans
+   */
+  private static List<FieldPlan> orderFields(List<FieldPlan> declaredPlans) {
+    List<FieldPlan> knownTypePlans = new ArrayList<>(declaredPlans.size());
+    List<FieldPlan> objectPlans = new ArrayList<>();
+
+    for (FieldPlan plan : declaredPlans) {
+      if (plan.runtimeDecided)
+        objectPlans.add(plan);
+      else
+        knownTypePlans.add(plan);
+    }
+
+    knownTypePlans.addAll(objectPlans);
+    return Collections.unmodifiableList(knownTypePlans);
+  }
+
+  /**
+   * Build the mapping plan of a section type which is instantiated by passing the values
+   * of all of it's fields to a constructor, instead of assigning them one by one
+   * @param type Type of the section
+   * @param constructor All-args constructor, which already has to be accessible
+   * @param fields Applicable fields, matching the constructor's parameters
+   * @param converterRegistry Optional registry of custom value converters to bind
+   * @param evaluator Evaluator passed to primitive-specialized converters
+   * @param strategy Strategy used to invoke the constructor
+   * @return Built plan
+   */
+  private static <T extends IConfigSection> SectionPlan<T> createConstructed(
+    final Class<T> type,
+    final Constructor<T> constructor,
+    final List<Field> fields,
+    final @Nullable IValueConverterRegistry converterRegistry,
+    final IExpressionEvaluator evaluator,
+    final AccessStrategy strategy
+  ) {
+    List<FieldPlan> fieldPlans = new ArrayList<>(fields.size());
+    Object[] argumentDefaults = new Object[fields.size()];
+
+    for (int i = 0; i < fields.size(); i++) {
+      Field field = fields.get(i);
+
+      // There's no instance to call runtimeDecide on before all values are known
+      if (field.getType() == Object.class)
+        throw new IllegalStateException("Constructed sections cannot decide field types at runtime (" + type + ", " + field.getName() + ")");
+
+      // Primitive parameters cannot receive null for values which are absent
+      if (field.getType().isPrimitive())
+        argumentDefaults[i] = Array.get(Array.newInstance(field.getType(), 1), 0);
+
+      int argumentIndex = i;
+      boolean isList = field.getType() == List.class;
+      boolean isMap = field.getType() == Map.class;
+
+      // Collections are frozen, so that constructed sections are immutable as a whole
+      FFieldWriter writer = (arguments, value) -> {
+        if (isList && value instanceof List<?> list)
+          value = Collections.unmodifiableList(list);
+        else if (isMap && value instanceof Map<?, ?> map)
+          value = Collections.unmodifiableMap(map);
+
+        ((Object[]) arguments)[argumentIndex] = value;
+      };
+
+      // Values are collected as boxed arguments, so there's no use in converting them on write
+      fieldPlans.add(FieldPlan.create(field, converterRegistry, writer, evaluator, null));
+    }
+
+    fieldPlans = Collections.unmodifiableList(fieldPlans);
+
+    return new SectionPlan<>(
+      type, null,
+      MemberAccessors.createConstructor(constructor, strategy),
+      argumentDefaults,
+      Collections.unmodifiableList(fields),
+      fieldPlans, fieldPlans,
+      true
+    );
+  }
+
+  /**
+   * Find the canonical constructor of a record or the constructor annotated by {@link CSConstructor},
+   * which has to accept all applicable fields in the order they're provided in
+   * @param type Type of the target class
+   * @param fields Applicable fields of the target class
+   * @return All-args constructor, null if the type is neither a record nor has an annotated constructor
+   */
+  @SuppressWarnings("unchecked")
+  private static <T> @Nullable Constructor<T> findAllArgsConstructor(Class<T> type, List<Field> fields) {
+    Constructor<T> constructor = null;
+
+    if (type.isRecord()) {
+      RecordComponent[] components = type.getRecordComponents();
+      Class<?>[] componentTypes = new Class<?>[components.length];
+
+      for (int i = 0; i < components.length; i++)
+        componentTypes[i] = components[i].getType();
+
+      try {
+        constructor = type.getDeclaredConstructor(componentTypes);
+      } catch (NoSuchMethodException e) {
+        throw new IllegalStateException("Could not find the canonical constructor of " + type, e);
+      }
+    }
+
+    else {
+      for (Constructor<?> candidate : type.getDeclaredConstructors()) {
+        if (!candidate.isAnnotationPresent(CSConstructor.class))
+          continue;
+
+        if (constructor != null)
+          throw new IllegalStateException("Only a single constructor may be annotated by @CSConstructor on " + type);
+
+        constructor = (Constructor<T>) candidate;
+      }
+
+      if (constructor == null)
+        return null;
+    }
+
+    Class<?>[] parameterTypes = constructor.getParameterTypes();
+    boolean matches = parameterTypes.length == fields.size();
+
+    for (int i = 0; matches && i < parameterTypes.length; i++)
+      matches = parameterTypes[i] == fields.get(i).getType();
+
+    if (!matches)
+      throw new IllegalStateException("The constructor of " + type + " has to accept all mapped fields in the order they're declared in");
+
+    constructor.setAccessible(true);
+    return constructor;
+  }
+
+  /**
+   * Find all fields of a class which automated mapping applies to, including inherited fields
+   * @param type Class to look through
+   * @return List of fields in declaration order
+   */
+  private static List<Field> findApplicableFields(Class<?> type) {
+    List<Field> affectedFields = new ArrayList<>();
+
+    // Walk the class' hierarchy
+    Class<?> c = type;
+    while (c != Object.class) {
+      for (Field f : c.getDeclaredFields()) {
+        if (Modifier.isStatic(f.getModifiers()))
+          continue;
+
+        if (f.isAnnotationPresent(CSIgnore.class))
+          continue;
+
+        if (f.getType() == type)
+          throw new IllegalStateException("Sections cannot use self-referencing fields (" + type + ", " + f.getName() + ")");
+
+        f.setAccessible(true);
+        affectedFields.add(f);
+      }
+      c = c.getSuperclass();
+    }
+
+    return affectedFields;
+  }
+
+  /**
+   * Find the default constructor of a class (no parameters required to instantiate it)
+   * or throw a runtime exception otherwise.
+   * @param type Type of the target class
+   * @return Default constructor
+   */
+  private static <T> Constructor<T> findDefaultConstructor(Class<T> type) {
+    try {
+      Constructor<T> ctor = type.getDeclaredConstructor();
+      ctor.setAccessible(true);
+      return ctor;
+    } catch (NoSuchMethodException e) {
+      throw new IllegalStateException("Please specify an empty default constructor on " + type);
+    }
+  }
+}
@@ -0,0 +1,152 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2023 BlvckBytes
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package de.jecore.bbconfigmapper;
+
+import org.yaml.snakeyaml.error.Mark;
+import org.yaml.snakeyaml.nodes.*;
+
+import java.util.*;
+import java.util.function.Function;
+
+/**
+ * Copies a tree into a compact representation which is only ever read from, where the effective tuples of
+ * every mapping are taken over while merge keys are dropped, and where no node retains it's source marks. The
+ * marks reference the windows of the parsed input, which would otherwise stay reachable for as long as the tree.
+ * Nodes which are shared through aliases remain shared within the copy.
+ */
+final class TreeCompaction {
+
+  // Estimated shallow sizes with compressed references: the object header, all fields and the alignment padding
+  private static final int MARK_BYTES = 40;
+  private static final int INT_ARRAY_HEADER_BYTES = 16;
+
+  private final Function<MappingNode, List<NodeTuple>> tuplesOf;
+  private final Map<Node, Node> copies;
+  private final Set<Mark> marks;
+  private final Set<int[]> buffers;
+  private int mergeKeyCount;
+  private MappingNode root;
+
+  private TreeCompaction(Function<MappingNode, List<NodeTuple>> tuplesOf) {
+    this.tuplesOf = tuplesOf;
+    this.copies = new IdentityHashMap<>();
+    this.marks = Collections.newSetFromMap(new IdentityHashMap<>());
+    this.buffers = Collections.newSetFromMap(new IdentityHashMap<>());
+  }
+
+  /**
+   * Compact a tree whose merge keys have already been resolved
+   * @param root Root node of the tree
+   * @param tuplesOf Resolves the effective tuples of a mapping
+   * @return Finished compaction
+   */
+  static TreeCompaction compact(MappingNode root, Function<MappingNode, List<NodeTuple>> tuplesOf) {
+    TreeCompaction compaction = new TreeCompaction(tuplesOf);
+    compaction.root = (MappingNode) compaction.copy(root);
+    return compaction;
+  }
+
+  /**
+   * Get the root node of the compacted tree
+   */
+  MappingNode getRoot() {
+    return root;
+  }
+
+  /**
+   * Create a report of the nodes which have been copied and of what they no longer retain
+   */
+  CompactionReport createReport() {
+    long releasedBytes = (long) marks.size() * MARK_BYTES;
+
+    for (int[] buffer : buffers)
+      releasedBytes += align(INT_ARRAY_HEADER_BYTES + 4L * buffer.length);
+
+    return new CompactionReport(copies.size(), mergeKeyCount, marks.size(), buffers.size(), releasedBytes);
+  }
+
+  private Node copy(Node node) {
+    Node copy = copies.get(node);
+
+    if (copy != null)
+      return copy;
+
+    collectMark(node.getStartMark());
+    collectMark(node.getEndMark());
+
+    if (node instanceof ScalarNode scalar) {
+      copy = new ScalarNode(scalar.getTag(), scalar.getValue(), null, null, scalar.getScalarStyle());
+      copies.put(node, copy);
+      return copy;
+    }
+
+    if (node instanceof SequenceNode sequence) {
+      List<Node> items = sequence.getValue();
+      List<Node> itemCopies = new ArrayList<>(items.size());
+
+      // Registered before copying the items, as they might alias the sequence itself
+      copy = new SequenceNode(sequence.getTag(), itemCopies, sequence.getFlowStyle());
+      copies.put(node, copy);
+
+      for (Node item : items)
+        itemCopies.add(copy(item));
+
+      return copy;
+    }
+
+    if (node instanceof MappingNode mapping) {
+      List<NodeTuple> tuples = tuplesOf.apply(mapping);
+      List<NodeTuple> tupleCopies = new ArrayList<>(tuples.size());
+
+      copy = new MappingNode(mapping.getTag(), tupleCopies, mapping.getFlowStyle());
+      copies.put(node, copy);
+
+      for (NodeTuple tuple : tuples) {
+        // Inherited tuples are already part of the effective tuples, the merge keys themselves are no longer needed
+        if (tuple.getKeyNode().getTag() == Tag.MERGE) {
+          ++mergeKeyCount;
+          continue;
+        }
+
+        tupleCopies.add(new NodeTuple(copy(tuple.getKeyNode()), copy(tuple.getValueNode())));
+      }
+
+      return copy;
+    }
+
+    return node;
+  }
+
+  private void collectMark(Mark mark) {
+    if (mark == null || !marks.add(mark))
+      return;
+
+    if (mark.getBuffer() != null)
+      buffers.add(mark.getBuffer());
+  }
+
+  private static long align(long bytes) {
+    return (bytes + 7) & ~7L;
+  }
+}
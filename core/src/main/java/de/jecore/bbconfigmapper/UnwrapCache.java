@@ -0,0 +1,175 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2023 BlvckBytes
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package de.jecore.bbconfigmapper;
+
+import org.jetbrains.annotations.Nullable;
+import org.yaml.snakeyaml.nodes.Node;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.BiFunction;
+
+/**
+ * Bounded cache of the immutable values nodes have been unwrapped to, keyed by node identity, which evicts
+ * the least recently used values. As the same node is unwrapped differently when being marked for expressions,
+ * both variants are cached separately within the entry of that node, so that looking up either one doesn't
+ * allocate. Hits neither lock nor allocate, as recency is tracked by a clock which only advances on misses.
+ */
+final class UnwrapCache {
+
+  private static final class Values {
+    // Null if not yet unwrapped, NULL_VALUE if unwrapped to null
+    volatile @Nullable Object plain;
+    volatile @Nullable Object marked;
+
+    // Value of the miss clock at the last time either variant has been requested
+    volatile long lastUsed;
+
+    Values(long lastUsed) {
+      this.lastUsed = lastUsed;
+    }
+  }
+
+  private static final Object NULL_VALUE = new Object();
+
+  private final Map<Node, Values> entries;
+
+  // Advanced on every miss only, so that hits on the same entry in between don't have to write
+  private final AtomicLong misses;
+
+  private volatile int maxSize;
+
+  UnwrapCache(int maxSize) {
+    this.maxSize = maxSize;
+    this.entries = new ConcurrentHashMap<>();
+    this.misses = new AtomicLong();
+  }
+
+  /**
+   * Get the cached value of a node or unwrap and cache it otherwise
+   * @param node Node to get the value of
+   * @param markedForExpressions Whether the node is marked for expressions
+   * @param unwrapper Function which unwraps the node if it's not cached
+   * @return Unwrapped value
+   */
+  @Nullable Object get(Node node, boolean markedForExpressions, BiFunction<Node, Boolean, @Nullable Object> unwrapper) {
+    Values values = entries.get(node);
+
+    if (values != null) {
+      Object value = markedForExpressions ? values.marked : values.plain;
+
+      if (value != null) {
+        long now = misses.get();
+
+        // Only written if it differs, which spares contended writes while there are no misses
+        if (values.lastUsed != now)
+          values.lastUsed = now;
+
+        return value == NULL_VALUE ? null : value;
+      }
+    }
+
+    // Unwrapped outside of any lock, as racing to unwrap the same node yields equal values
+    Object value = unwrapper.apply(node, markedForExpressions);
+
+    if (maxSize <= 0)
+      return value;
+
+    long now = misses.incrementAndGet();
+
+    if (values == null) {
+      values = entries.computeIfAbsent(node, k -> new Values(now));
+
+      if (entries.size() > maxSize)
+        trim();
+    }
+
+    values.lastUsed = now;
+
+    if (markedForExpressions)
+      values.marked = value == null ? NULL_VALUE : value;
+    else
+      values.plain = value == null ? NULL_VALUE : value;
+
+    return value;
+  }
+
+  /**
+   * Remove both variants of a node's value
+   * @param node Node to invalidate, ignored if null
+   */
+  void invalidate(@Nullable Node node) {
+    if (node == null)
+      return;
+
+    entries.remove(node);
+  }
+
+  void clear() {
+    entries.clear();
+  }
+
+  /**
+   * Change the maximum number of cached values, evicting the least recently used values if required
+   * @param maxSize Maximum number of nodes whose values are cached, zero disables caching
+   */
+  void setMaxSize(int maxSize) {
+    if (maxSize < 0)
+      throw new IllegalArgumentException("The maximum size cannot be negative");
+
+    this.maxSize = maxSize;
+    trim();
+  }
+
+  /**
+   * Evict the least recently used values, until a quarter of the maximum size is free again,
+   * so that subsequent misses don't have to trim right away
+   */
+  private synchronized void trim() {
+    int maxSize = this.maxSize;
+
+    if (entries.size() <= maxSize)
+      return;
+
+    int excess = entries.size() - (maxSize - maxSize / 4);
+
+    // Recency is captured up front, as it may change while sorting
+    List<EvictionCandidate> candidates = new ArrayList<>(entries.size());
+
+    for (Map.Entry<Node, Values> entry : entries.entrySet())
+      candidates.add(new EvictionCandidate(entry.getKey(), entry.getValue(), entry.getValue().lastUsed));
+
+    candidates.sort(Comparator.comparingLong(EvictionCandidate::lastUsed));
+
+    for (int i = 0; i < Math.min(excess, candidates.size()); i++)
+      entries.remove(candidates.get(i).node, candidates.get(i).values);
+  }
+
+  private record EvictionCandidate(Node node, Values values, long lastUsed) {}
+}
@@ -0,0 +1,93 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2023 BlvckBytes
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package de.jecore.bbconfigmapper;
+
+import org.jetbrains.annotations.Nullable;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Cursor over an already unwrapped value, made up of maps, lists and scalars
+ */
+final class ValueConfigCursor implements IConfigCursor {
+
+  private final @Nullable Object value;
+  private final @Nullable String path;
+
+  ValueConfigCursor(@Nullable Object value, @Nullable String path) {
+    this.value = value;
+    this.path = path;
+  }
+
+  @Override
+  public @Nullable String getPath() {
+    return path;
+  }
+
+  @Override
+  public boolean isPresent() {
+    return value != null;
+  }
+
+  @Override
+  public IConfigCursor child(String key) {
+    Object childValue = value instanceof Map<?, ?> map ? map.get(key) : null;
+    return new ValueConfigCursor(childValue, ConfigPaths.join(path, key));
+  }
+
+  @Override
+  public @Nullable List<IConfigCursor> elements() {
+    if (!(value instanceof List<?> list))
+      return null;
+
+    List<IConfigCursor> result = new ArrayList<>(list.size());
+
+    for (int i = 0; i < list.size(); i++)
+      result.add(new ValueConfigCursor(list.get(i), ConfigPaths.join(path, String.valueOf(i))));
+
+    return result;
+  }
+
+  @Override
+  public @Nullable Map<Object, IConfigCursor> entries() {
+    if (!(value instanceof Map<?, ?> map))
+      return null;
+
+    Map<Object, IConfigCursor> result = new LinkedHashMap<>();
+
+    for (Map.Entry<?, ?> entry : map.entrySet())
+      result.put(entry.getKey(), new ValueConfigCursor(entry.getValue(), ConfigPaths.join(path, String.valueOf(entry.getKey()))));
+
+    return result;
+  }
+
+  @Override
+  public @Nullable Object value() {
+    return value;
+  }
+}
@@ -0,0 +1,1877 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2023 BlvckBytes
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package de.jecore.bbconfigmapper;
+
+import de.jecore.bbconfigmapper.logging.DebugLogSource;
+import de.jecore.bbconfigmapper.logging.ITraceSink;
+import de.jecore.bbconfigmapper.logging.LoggerTraceSink;
+import de.jecore.bbconfigmapper.logging.TraceEvent;
+import me.blvckbytes.gpeee.IExpressionEvaluator;
+import me.blvckbytes.gpeee.Tuple;
+import me.blvckbytes.gpeee.interpreter.IEvaluationEnvironment;
+import me.blvckbytes.gpeee.parser.expression.AExpression;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import org.yaml.snakeyaml.DumperOptions;
+import org.yaml.snakeyaml.LoaderOptions;
+import org.yaml.snakeyaml.Yaml;
+import org.yaml.snakeyaml.comments.CommentLine;
+import org.yaml.snakeyaml.comments.CommentType;
+import org.yaml.snakeyaml.constructor.Constructor;
+import org.yaml.snakeyaml.nodes.*;
+import org.yaml.snakeyaml.representer.Representer;
+
+import java.io.*;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.BiConsumer;
+import java.util.function.BiFunction;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Handles YAML configuration operations and allows overwriting parts of a new file if keys are added.
+ */
+public class YamlConfig implements IConfig {
+  
+  /**
+   * Parsers and emitters which are currently not in use, as a single instance must not be used concurrently
+   */
+  private static final Queue<Yaml> YAML_POOL = new ConcurrentLinkedQueue<>();
+  private static final Queue<Yaml> READ_ONLY_YAML_POOL = new ConcurrentLinkedQueue<>();
+  private static final LoaderOptions LOADER_OPTIONS;
+  private static final LoaderOptions READ_ONLY_LOADER_OPTIONS;
+
+  /**
+   * Default maximum number of unwrapped values which are cached
+   */
+  public static final int DEFAULT_UNWRAP_CACHE_SIZE = 256;
+
+  // Key indices which are kept in any case before pruning those of nodes which are no longer part of the tree
+  private static final int MIN_KEY_INDEX_PRUNE_THRESHOLD = 1024;
+  private static final DumperOptions DUMPER_OPTIONS;
+
+  private static final FLocatedNodeHandler<Tuple<@Nullable Node, Boolean>> TO_TUPLE = Tuple::new;
+  private static final FLocatedNodeHandler<Boolean> IS_PRESENT = (node, markedForExpressions) -> node != null;
+  
+  private final @Nullable IExpressionEvaluator evaluator;
+  private final ITraceSink traceSink;
+  private final boolean tracing;
+  private final @Nullable String expressionMarkerSuffix;
+  // Key indices of mapping nodes by node identity, pruned down to the nodes of the current tree once they outgrow it
+  private final Map<MappingNode, MappingKeyIndex> keyIndices;
+
+  // Number of key indices at which those of nodes which are no longer part of the tree are pruned
+  private volatile int keyIndexPruneThreshold;
+  private final UnwrapCache unwrapCache;
+
+  // Created once, so that reading values doesn't allocate a new method reference on every call
+  private final BiFunction<Node, Boolean, @Nullable Object> nodeUnwrapper;
+  private final FLocatedNodeHandler<@Nullable Object> locatedValueUnwrapper;
+
+  // Whether the tree contains merge keys, which spares looking up overlays otherwise
+  private volatile boolean hasMergeKeys;
+
+  // Intern table of parsed expressions by their source text, shared by all nodes of the current tree
+  private volatile Map<String, AExpression> expressionsByText;
+
+  // Intern table of the previously loaded tree, so that unchanged expressions keep their identity across a reload
+  private volatile Map<String, AExpression> previousExpressionsByText;
+
+  // Whether nodes may be reachable through multiple paths, which rules out invalidating cached values along paths
+  private volatile boolean sharedNodes;
+
+  // Counts completed changes of the tree including reloads, which invalidate all values resolved by key handles
+  private final AtomicLong revision;
+  
+  // Whether writers copy the nodes along modified paths instead of mutating them, see enableConcurrentAccess
+  private volatile boolean concurrentAccess;
+
+  // Mappings which the copy-on-write update in progress has copied or created, none of which are shared with a snapshot yet
+  private @Nullable Set<MappingNode> copiedMappings;
+
+  // Whether the tree is a compact one which can only be read from, see loadReadOnly
+  private volatile boolean readOnly;
+
+  private volatile MappingNode rootNode;
+  private volatile String header;
+  
+  static {
+    LOADER_OPTIONS = new LoaderOptions();
+    LOADER_OPTIONS.setProcessComments(true);
+    LOADER_OPTIONS.setAllowDuplicateKeys(true);
+
+    READ_ONLY_LOADER_OPTIONS = new LoaderOptions();
+    READ_ONLY_LOADER_OPTIONS.setProcessComments(false);
+    READ_ONLY_LOADER_OPTIONS.setAllowDuplicateKeys(true);
+    
+    DUMPER_OPTIONS = new DumperOptions();
+    DUMPER_OPTIONS.setProcessComments(true);
+    DUMPER_OPTIONS.setAllowUnicode(true);
+    DUMPER_OPTIONS.setDefaultFlowStyle(DumperOptions.FlowStyle.BLOCK);
+    DUMPER_OPTIONS.setPrettyFlow(true);
+    DUMPER_OPTIONS.setAnchorGenerator(Node::getAnchor);
+  }
+
+  /**
+   * Take a parser and emitter out of the pool, or create a new one if all of them are in use
+   * @param readOnly Whether the instance is only used to parse read-only configs, which skips comments
+   * @return Instance to be used exclusively until released
+   */
+  private static Yaml acquireYaml(boolean readOnly) {
+    Yaml yaml = (readOnly ? READ_ONLY_YAML_POOL : YAML_POOL).poll();
+
+    if (yaml == null) {
+      LoaderOptions loaderOptions = readOnly ? READ_ONLY_LOADER_OPTIONS : LOADER_OPTIONS;
+      yaml = new Yaml(new Constructor(loaderOptions), new Representer(DUMPER_OPTIONS), DUMPER_OPTIONS, loaderOptions);
+    }
+
+    return yaml;
+  }
+
+  /**
+   * Hand a parser and emitter back to the pool
+   * @param yaml Instance which is no longer used
+   * @param readOnly Whether the instance has been acquired for read-only configs
+   */
+  private static void releaseYaml(Yaml yaml, boolean readOnly) {
+    (readOnly ? READ_ONLY_YAML_POOL : YAML_POOL).offer(yaml);
+  }
+  
+  /**
+   * Constructs a new YamlConfig instance.
+   * @param evaluator The expression evaluator
+   * @param logger The logger, which is traced to at {@link Level#FINEST} if loggable at that level upon construction
+   * @param expressionMarkerSuffix The suffix for expressions
+   */
+  public YamlConfig(
+      final @Nullable IExpressionEvaluator evaluator,
+      final Logger logger,
+      final @Nullable String expressionMarkerSuffix
+  ) {
+    this(evaluator, new LoggerTraceSink(logger), expressionMarkerSuffix);
+  }
+
+  /**
+   * Constructs a new YamlConfig instance.
+   * @param evaluator The expression evaluator
+   * @param traceSink The sink to emit trace events to, which is asked whether {@link DebugLogSource#YAML} is enabled once
+   * @param expressionMarkerSuffix The suffix for expressions
+   */
+  public YamlConfig(
+      final @Nullable IExpressionEvaluator evaluator,
+      final ITraceSink traceSink,
+      final @Nullable String expressionMarkerSuffix
+  ) {
+    this.evaluator = evaluator;
+    this.traceSink = traceSink;
+    this.tracing = traceSink.isEnabled(DebugLogSource.YAML);
+    this.expressionMarkerSuffix = expressionMarkerSuffix;
+    // Concurrent, as lookups are also performed by parallel mapping tasks and by readers of earlier snapshots
+    this.keyIndices = new ConcurrentHashMap<>();
+    this.keyIndexPruneThreshold = MIN_KEY_INDEX_PRUNE_THRESHOLD;
+    this.unwrapCache = new UnwrapCache(DEFAULT_UNWRAP_CACHE_SIZE);
+    this.nodeUnwrapper = this::unwrapNode;
+    this.locatedValueUnwrapper = (node, markedForExpressions) -> node == null ? null : unwrapCache.get(node, markedForExpressions, nodeUnwrapper);
+    this.expressionsByText = new ConcurrentHashMap<>();
+    this.previousExpressionsByText = Map.of();
+    this.revision = new AtomicLong();
+  }
+  
+  /**
+   * Loads the YAML configuration from a reader.
+   * @param reader The reader containing YAML data
+   */
+  public void load(Reader reader) {
+    MappingNode root = parse(reader, false);
+
+    if (tracing)
+      traceSink.trace(TraceEvent.LOAD);
+
+    synchronized (this) {
+      publishLoadedRoot(root, false);
+    }
+  }
+
+  /**
+   * Loads the YAML configuration from a reader into a compact tree which can only be read from, for configs
+   * which are never modified or saved. Comments are skipped while parsing, merge keys are resolved into plain
+   * mappings and no node retains it's source marks, which reference the buffers of the parsed input.
+   * Loading again by {@link #load(Reader)} makes the config writable again.
+   * @param reader The reader containing YAML data
+   * @return Report of the heap no longer retained by the tree
+   */
+  public CompactionReport loadReadOnly(Reader reader) {
+    MappingNode root = parse(reader, true);
+
+    // Merge keys are resolved while the marks deciding about overrides are still present
+    Map<MappingNode, List<NodeTuple>> overlays = MergeOverlays.resolve(root);
+    TreeCompaction compaction = TreeCompaction.compact(root, node -> overlays.getOrDefault(node, node.getValue()));
+
+    if (tracing)
+      traceSink.trace(TraceEvent.LOAD);
+
+    synchronized (this) {
+      publishLoadedRoot(compaction.getRoot(), true);
+    }
+
+    return compaction.createReport();
+  }
+
+  /**
+   * Parse the root node of a YAML document
+   * @param reader The reader containing YAML data
+   * @param readOnly Whether to skip comments, as the config is loaded read-only
+   * @return Parsed root node
+   */
+  private MappingNode parse(Reader reader, boolean readOnly) {
+    Node root;
+    Yaml yaml = acquireYaml(readOnly);
+
+    // Parsed outside the lock, as only swapping out the tree needs to be exclusive
+    try {
+      Iterator<Node> nodes = yaml.composeAll(reader).iterator();
+
+      root = nodes.hasNext() ? nodes.next() : newMappingNode(null);
+
+      if (nodes.hasNext())
+        throw new IllegalStateException("Encountered multiple nodes");
+    } finally {
+      releaseYaml(yaml, readOnly);
+    }
+
+    if (!(root instanceof MappingNode))
+      throw new IllegalStateException("The top level of a config has to be a map.");
+
+    return (MappingNode) root;
+  }
+
+  /**
+   * Execute the standard loading routines on a freshly parsed root node before publishing it
+   * @param newRoot Parsed root node
+   * @param readOnly Whether the root node is part of a compact tree which can only be read from
+   */
+  private void publishLoadedRoot(MappingNode newRoot, boolean readOnly) {
+    this.readOnly = readOnly;
+    this.header = extractHeader(newRoot);
+    this.keyIndices.clear();
+    this.keyIndexPruneThreshold = MIN_KEY_INDEX_PRUNE_THRESHOLD;
+    this.hasMergeKeys = false;
+    installMergeOverlays(newRoot);
+    this.rootNode = newRoot;
+    this.unwrapCache.clear();
+    this.previousExpressionsByText = this.expressionsByText;
+    this.expressionsByText = new ConcurrentHashMap<>();
+    this.sharedNodes = containsAnchors(newRoot);
+    this.revision.incrementAndGet();
+  }
+
+  /**
+   * Load many files concurrently, where every file is parsed, has it's header extracted and it's merge keys
+   * processed within a task of it's own. All files are attempted, even if some of them fail to load.
+   * @param paths Files to load
+   * @param executor Executor to run the loading tasks on
+   * @param configFactory Creates the not yet loaded config of a file
+   * @return Loaded configs by their files, in the order of the provided paths
+   * @throws IllegalStateException A file could not be loaded, with the failures of all further files suppressed
+   */
+  public static Map<Path, YamlConfig> loadAll(Collection<Path> paths, Executor executor, Function<Path, YamlConfig> configFactory) {
+    Map<Path, CompletableFuture<YamlConfig>> tasks = new LinkedHashMap<>();
+
+    for (Path path : paths) {
+      tasks.put(path, CompletableFuture.supplyAsync(() -> {
+        YamlConfig config = configFactory.apply(path);
+
+        try (Reader reader = Files.newBufferedReader(path)) {
+          config.load(reader);
+        } catch (IOException e) {
+          throw new UncheckedIOException(e);
+        }
+
+        return config;
+      }, executor));
+    }
+
+    Map<Path, YamlConfig> configs = new LinkedHashMap<>();
+    IllegalStateException failure = null;
+
+    for (Map.Entry<Path, CompletableFuture<YamlConfig>> task : tasks.entrySet()) {
+      try {
+        configs.put(task.getKey(), task.getValue().join());
+      } catch (CompletionException e) {
+        Throwable cause = e.getCause() == null ? e : e.getCause();
+
+        if (failure == null)
+          failure = new IllegalStateException("Could not load " + task.getKey(), cause);
+        else
+          failure.addSuppressed(cause);
+      }
+    }
+
+    if (failure != null)
+      throw failure;
+
+    return configs;
+  }
+
+  /**
+   * Load many files concurrently on virtual threads, see {@link #loadAll(Collection, Executor, Function)}
+   * @param paths Files to load
+   * @param configFactory Creates the not yet loaded config of a file
+   * @return Loaded configs by their files, in the order of the provided paths
+   */
+  public static Map<Path, YamlConfig> loadAll(Collection<Path> paths, Function<Path, YamlConfig> configFactory) {
+    try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+      return loadAll(paths, executor, configFactory);
+    }
+  }
+
+  /**
+   * Change the maximum number of values which {@link #get(String)} keeps unwrapped, as those are otherwise
+   * rebuilt from their nodes on every call. Cached values are invalidated along the paths of modifications.
+   * @param maxSize Maximum number of cached values, zero disables caching
+   */
+  public void setUnwrapCacheSize(int maxSize) {
+    this.unwrapCache.setMaxSize(maxSize);
+  }
+
+  /**
+   * Allow reading from multiple threads while this configuration is being modified or saved. Modifications then
+   * copy all nodes along the modified path and publish a new root node, instead of changing nodes in place, so
+   * that readers always see a consistent snapshot of the tree without having to lock. Values held by earlier
+   * snapshots stay untouched, which also means that modifications no longer propagate to other paths aliasing
+   * the same node. Writers are always serialized among each other.
+   */
+  public void enableConcurrentAccess() {
+    this.concurrentAccess = true;
+  }
+
+  /**
+   * Modify nodes in place again, see {@link #enableConcurrentAccess()}
+   */
+  public void disableConcurrentAccess() {
+    this.concurrentAccess = false;
+  }
+
+  /**
+   * Check whether a node or any of it's children carries an anchor, which makes it reachable through aliases
+   * @param node Node to check
+   * @return True if an anchor has been found
+   */
+  private static boolean containsAnchors(Node node) {
+    if (node.getAnchor() != null)
+      return true;
+
+    if (node instanceof SequenceNode sequence) {
+      for (Node item : sequence.getValue()) {
+        if (containsAnchors(item))
+          return true;
+      }
+    }
+
+    else if (node instanceof MappingNode mapping) {
+      for (NodeTuple tuple : mapping.getValue()) {
+        if (containsAnchors(tuple.getKeyNode()) || containsAnchors(tuple.getValueNode()))
+          return true;
+      }
+    }
+
+    return false;
+  }
+
+  /**
+   * Invalidate the cached values of all nodes along a path which is about to be modified, which are all
+   * of the nodes containing the modified node and the modified node itself. If nodes are possibly shared,
+   * all values are invalidated, as they could contain the modified node through an alias.
+   * @param path Path which is about to be modified, null means root
+   */
+  private void invalidateUnwrapCacheAlong(@Nullable ConfigPath path) {
+    if (path == null || sharedNodes) {
+      unwrapCache.clear();
+      return;
+    }
+
+    unwrapCache.invalidate(rootNode);
+
+    for (int segmentCount = 1; segmentCount <= path.getSegmentCount(); segmentCount++)
+      unwrapCache.invalidate(locateNode(path, segmentCount, false, false).a);
+  }
+
+  /**
+   * Resolve the merge keys within a whole tree and install the resulting overlays on their mappings by wrapping
+   * the tuples of those into {@link MergedTuples}, before the tree is published or after it's been modified in place
+   * @param root Root node of the tree
+   */
+  private void installMergeOverlays(MappingNode root) {
+    Map<MappingNode, List<NodeTuple>> overlays = MergeOverlays.resolve(root);
+
+    if (overlays.isEmpty())
+      return;
+
+    for (Map.Entry<MappingNode, List<NodeTuple>> overlay : overlays.entrySet()) {
+      MappingNode node = overlay.getKey();
+
+      if (node.getValue() instanceof MergedTuples merged)
+        merged.setOverlay(overlay.getValue());
+      else
+        node.setValue(new MergedTuples(node.getValue(), overlay.getValue()));
+
+      invalidateKeyIndexFor(node);
+    }
+
+    hasMergeKeys = true;
+  }
+
+  /**
+   * Resolve the merge keys of the mappings a copy-on-write update has copied or created and install the resulting
+   * overlays on only those, before the new tree is published. All other mappings are shared with earlier snapshots
+   * and keep both their overlays and key indices, as their merge keys still refer to the very same nodes.
+   * @param root Root node of the new tree
+   * @param copies Mappings which have been copied or created by the update
+   */
+  private void installMergeOverlays(MappingNode root, Set<MappingNode> copies) {
+    Map<MappingNode, List<NodeTuple>> overlays = MergeOverlays.resolve(root, copies, YamlConfig::tuplesOf);
+
+    for (MappingNode copy : copies) {
+      List<NodeTuple> overlay = overlays.get(copy);
+
+      // Also replaces overlays carried over from the original, which may no longer apply
+      if (copy.getValue() instanceof MergedTuples merged)
+        merged.setOverlay(overlay);
+      else if (overlay != null)
+        copy.setValue(new MergedTuples(copy.getValue(), overlay));
+      else
+        continue;
+
+      invalidateKeyIndexFor(copy);
+    }
+  }
+
+  /**
+   * Apply a copy-on-write update while keeping track of all mappings it copies or creates
+   * @param copies Set to add the copied and created mappings to
+   * @param update Update to apply
+   * @return Result of the update
+   */
+  private <T> T trackingCopies(Set<MappingNode> copies, Supplier<T> update) {
+    copiedMappings = copies;
+
+    try {
+      return update.get();
+    } finally {
+      copiedMappings = null;
+    }
+  }
+
+  private MappingNode trackCopy(MappingNode node) {
+    Set<MappingNode> copies = copiedMappings;
+
+    if (copies != null)
+      copies.add(node);
+
+    return node;
+  }
+
+  /**
+   * Resolve the merge keys anew after the tree has been modified in place, as mappings may inherit differently now
+   */
+  private void refreshMergeOverlays() {
+    if (!hasMergeKeys || concurrentAccess)
+      return;
+
+    forAllMappings(rootNode, node -> {
+      if (node.getValue() instanceof MergedTuples merged && merged.getOverlay() != null) {
+        merged.setOverlay(null);
+        invalidateKeyIndexFor(node);
+      }
+    });
+
+    hasMergeKeys = false;
+    installMergeOverlays(rootNode);
+  }
+
+  /**
+   * Get the effective tuples of a mapping, which includes those inherited through merge keys
+   * @param node Mapping to get the tuples of
+   * @return Effective tuples, not to be modified
+   */
+  private static List<NodeTuple> tuplesOf(MappingNode node) {
+    List<NodeTuple> tuples = node.getValue();
+
+    if (!(tuples instanceof MergedTuples merged))
+      return tuples;
+
+    List<NodeTuple> overlay = merged.getOverlay();
+    return overlay == null ? tuples : overlay;
+  }
+
+  /**
+   * Call the consumer on every mapping within a tree exactly once, including those only reachable through
+   * sequences and those reachable through multiple aliases
+   * @param root Root node of the tree
+   * @param consumer Mapping consumer
+   */
+  private static void forAllMappings(MappingNode root, Consumer<MappingNode> consumer) {
+    Set<Node> visited = Collections.newSetFromMap(new IdentityHashMap<>());
+    Deque<Node> pending = new ArrayDeque<>();
+    pending.push(root);
+
+    while (!pending.isEmpty()) {
+      Node node = pending.pop();
+
+      if (!visited.add(node))
+        continue;
+
+      if (node instanceof SequenceNode sequence) {
+        for (Node item : sequence.getValue())
+          pending.push(item);
+      }
+
+      else if (node instanceof MappingNode mapping) {
+        consumer.accept(mapping);
+
+        for (NodeTuple tuple : mapping.getValue()) {
+          pending.push(tuple.getKeyNode());
+          pending.push(tuple.getValueNode());
+        }
+      }
+    }
+  }
+
+  /**
+   * Ensure that the tree may be modified and saved, which compact trees do not support,
+   * as they lack the comments and merge keys of the original document
+   * @throws IllegalStateException The config has been loaded read-only
+   */
+  private void ensureWritable() {
+    if (readOnly)
+      throw new IllegalStateException("This config has been loaded read-only");
+  }
+
+  /**
+   * Extract the header comment from the first key's first node tuple by taking as many
+   * block comment lines as possible until a blank line occurs. If no blank line is to be
+   * found, nothing will be extracted, as the comment is considered to be attached to the key.
+   * @param root Root node to extract from
+   * @return Extracted header, empty if there's none
+   */
+  private String extractHeader(MappingNode root) {
+    List<NodeTuple> rootTuples = root.getValue();
+
+    if (rootTuples.isEmpty())
+      return "";
+
+    Node firstKey = rootTuples.getFirst().getKeyNode();
+    List<CommentLine> firstKeyBlockComments = firstKey.getBlockComments();
+
+    if (firstKeyBlockComments == null)
+      return "";
+
+    List<CommentLine> untouchedBlockComments = new ArrayList<>(firstKeyBlockComments);
+
+    StringBuilder headerBuilder = new StringBuilder();
+    boolean foundBlankLine = false;
+    boolean foundBlockLine = false;
+
+    while (! firstKeyBlockComments.isEmpty()) {
+      CommentLine firstLine = firstKeyBlockComments.removeFirst();
+      CommentType type = firstLine.getCommentType();
+      String value = firstLine.getValue();
+
+      // Collect as many block comment lines as possible
+      if (type == CommentType.BLOCK) {
+        headerBuilder.append("#").append(value).append('\n');
+        foundBlockLine = true;
+        continue;
+      }
+
+      // Stop at (including) the first blank line
+      if (foundBlockLine && firstLine.getCommentType() == CommentType.BLANK_LINE) {
+        headerBuilder.append('\n');
+        foundBlankLine = true;
+        break;
+      }
+
+      // Unwanted comment type, if this is reached, state will be restored also
+      break;
+    }
+
+    // Didn't find a blank line, stop and roll back to vanilla state
+    if (!foundBlankLine) {
+      firstKey.setBlockComments(untouchedBlockComments);
+      headerBuilder.setLength(0);
+    }
+
+    return headerBuilder.toString();
+  }
+
+  public void save(Writer writer) throws IOException {
+    if (tracing)
+      traceSink.trace(TraceEvent.SAVE);
+
+    MappingNode root;
+    String header;
+
+    // Capture a consistent snapshot, which is then serialized without blocking writers
+    synchronized (this) {
+      ensureWritable();
+      root = this.rootNode;
+      header = this.header;
+    }
+
+    if (root == null || root.getValue().isEmpty()) {
+      writer.write("");
+      return;
+    }
+
+    writer.write(header);
+
+    // Merge keys are only resolved within overlays, so the tree can be serialized as is
+    Yaml yaml = acquireYaml(false);
+
+    try {
+      yaml.serialize(root, writer);
+    } finally {
+      releaseYaml(yaml, false);
+    }
+  }
+
+  /**
+   * Create a shallow copy of a node, which carries over all of it's properties and comments, but shares
+   * it's children with the original node. The anchor is not carried over, as aliases keep referring to
+   * the original node.
+   * @param node Node to copy
+   * @return Copy of the node
+   */
+  private Node copyNode(Node node) {
+    Node copy;
+
+    if (node instanceof ScalarNode scalar)
+      copy = new ScalarNode(scalar.getTag(), scalar.getValue(), scalar.getStartMark(), scalar.getEndMark(), scalar.getScalarStyle());
+
+    else if (node instanceof SequenceNode sequence)
+      copy = new SequenceNode(sequence.getTag(), true, new ArrayList<>(sequence.getValue()), sequence.getStartMark(), sequence.getEndMark(), sequence.getFlowStyle());
+
+    else if (node instanceof MappingNode mapping) {
+      List<NodeTuple> tuples = new ArrayList<>(mapping.getValue());
+
+      // Copies keep inheriting until their merge keys are resolved anew, so that inherited keys are still recognized
+      if (mapping.getValue() instanceof MergedTuples merged && merged.getOverlay() != null)
+        tuples = new MergedTuples(tuples, merged.getOverlay());
+
+      MappingNode mappingCopy = new MappingNode(mapping.getTag(), true, tuples, mapping.getStartMark(), mapping.getEndMark(), mapping.getFlowStyle());
+      mappingCopy.setMerged(mapping.isMerged());
+      copy = trackCopy(mappingCopy);
+    }
+
+    else
+      return node;
+
+    copy.setBlockComments(node.getBlockComments());
+    copy.setInLineComments(node.getInLineComments());
+    copy.setEndComments(node.getEndComments());
+    return copy;
+  }
+
+  /**
+   * Create a deep copy of a node, which shares none of it's children with the original node, so that it
+   * can be placed within the same tree as the original. Anchors are not carried over, as nothing aliases the copy.
+   * @param node Node to copy
+   * @return Copy of the node
+   */
+  private Node deepCopyNode(Node node) {
+    Node copy = copyNode(node);
+
+    if (copy instanceof SequenceNode sequence)
+      sequence.getValue().replaceAll(this::deepCopyNode);
+
+    else if (copy instanceof MappingNode mapping)
+      mapping.getValue().replaceAll(tuple -> new NodeTuple(deepCopyNode(tuple.getKeyNode()), deepCopyNode(tuple.getValueNode())));
+
+    return copy;
+  }
+
+  /**
+   * Extends keys which the provided config contains but are absent on this instance
+   * by copying over the values those keys hold
+   * @param other Config to extend from
+   * @return Number of updated keys
+   */
+  public int extendMissingKeys(YamlConfig other) {
+    return extendMissingKeysReporting(other).getAddedCount();
+  }
+
+  /**
+   * Extends keys which the provided config contains but are absent on this instance by copying over the values
+   * those keys hold, where both trees are walked side by side in a single pass. Missing keys are inserted at the
+   * index they hold within the other config, so that the order of keys is retained as far as possible.
+   * @param other Config to extend from
+   * @return Report of all extended keys
+   */
+  public synchronized ExtensionReport extendMissingKeysReporting(YamlConfig other) {
+    ensureWritable();
+
+    MappingNode otherRoot = other.rootNode;
+
+    if (otherRoot == null)
+      throw new IllegalStateException("Other config has not yet been loaded");
+
+    MappingNode root = rootNode;
+
+    if (root == null)
+      throw new IllegalStateException("This config has not yet been loaded");
+
+    List<String> addedPaths = new ArrayList<>();
+    boolean copyOnWrite = concurrentAccess;
+    Set<MappingNode> copies = Collections.newSetFromMap(new IdentityHashMap<>());
+    MappingNode newRoot = trackingCopies(copies, () -> extendContainer(root, other, otherRoot, null, copyOnWrite, addedPaths));
+
+    if (addedPaths.isEmpty())
+      return new ExtensionReport(addedPaths);
+
+    // Copied nodes are now shared with the other config
+    unwrapCache.clear();
+    sharedNodes = true;
+
+    // Extended values might carry merge keys of their own
+    hasMergeKeys |= other.hasMergeKeys;
+
+    // All extensions have been applied to a single copy of the tree, which is published at once
+    if (copyOnWrite) {
+      if (hasMergeKeys)
+        installMergeOverlays(newRoot, copies);
+
+      rootNode = newRoot;
+    }
+
+    else
+      refreshMergeOverlays();
+
+    revision.incrementAndGet();
+    return new ExtensionReport(addedPaths);
+  }
+
+  /**
+   * Extend a mapping of this config by the keys of the corresponding mapping within the other config, while
+   * descending into all keys which hold a mapping within both of them. Keys holding values of differing types
+   * are left as they are. Merge keys are extended together with the keys they cause to be inherited.
+   * @param target Mapping of this config
+   * @param other Config the source mapping belongs to
+   * @param source Mapping of the other config
+   * @param parentPath Path of both mappings, null means root
+   * @param copyOnWrite Whether to extend a copy of the target instead of the target itself
+   * @param addedPaths List to append the paths of all extended keys to
+   * @return Extended mapping, which is a copy of the target if it has been modified in copy-on-write mode
+   */
+  private MappingNode extendContainer(MappingNode target, YamlConfig other, MappingNode source, @Nullable String parentPath, boolean copyOnWrite, List<String> addedPaths) {
+    MappingKeyIndex index = keyIndexOf(target);
+    List<NodeTuple> sourceTuples = tuplesOf(source);
+    MappingNode result = target;
+    boolean modified = false;
+    boolean mergeKeysExtended = false;
+
+    // Tuples the source holds itself, as opposed to the tuples it only inherits through merge keys
+    Set<NodeTuple> ownSourceTuples = null;
+
+    if (sourceTuples != source.getValue()) {
+      ownSourceTuples = Collections.newSetFromMap(new IdentityHashMap<>());
+      ownSourceTuples.addAll(source.getValue());
+    }
+
+    // Folded keys which have been extended already, as the index only knows about the target's previous keys
+    Set<String> extendedKeys = null;
+
+    for (int sourceIndex = 0; sourceIndex < sourceTuples.size(); sourceIndex++) {
+      NodeTuple sourceTuple = sourceTuples.get(sourceIndex);
+
+      if (!(sourceTuple.getKeyNode() instanceof ScalarNode sourceKey))
+        continue;
+
+      String key = sourceKey.getValue();
+      String keyPath = parentPath == null ? key : parentPath + "." + key;
+      boolean inherited = ownSourceTuples != null && !ownSourceTuples.contains(sourceTuple);
+      NodeTuple targetTuple = null;
+
+      // Merge keys cannot be looked up, they're extended as long as the target doesn't merge on it's own
+      if (sourceKey.getTag() == Tag.MERGE) {
+        if (holdsMergeKey(target))
+          continue;
+      }
+
+      else {
+        String foldedKey = MappingKeyIndex.fold(key);
+
+        // Look up the key the same way as when locating a path, where unmarked keys also match their marked variant
+        targetTuple = index.findFolded(foldedKey);
+
+        if (targetTuple == null && (expressionMarkerSuffix == null || !key.endsWith(expressionMarkerSuffix)))
+          targetTuple = index.findMarkedFolded(foldedKey);
+
+        if (targetTuple == null) {
+          // The target inherits the very same keys through the merge key which has just been extended
+          if (inherited && mergeKeysExtended)
+            continue;
+
+          if (extendedKeys == null)
+            extendedKeys = new HashSet<>();
+
+          if (!extendedKeys.add(foldedKey))
+            continue;
+        }
+      }
+
+      if (targetTuple == null) {
+        if (!modified) {
+          result = copyOnWrite ? (MappingNode) copyNode(target) : target;
+          modified = true;
+        }
+
+        // Take the whole tuple from the other config in order to also carry over comments, formatting, etc
+        // Inherited tuples are detached, as their nodes are also part of the mapping they're inherited from
+        NodeTuple extension = sourceTuple;
+
+        if (inherited)
+          extension = new NodeTuple(deepCopyNode(sourceTuple.getKeyNode()), deepCopyNode(sourceTuple.getValueNode()));
+
+        if (sourceKey.getTag() == Tag.MERGE)
+          mergeKeysExtended = true;
+
+        List<NodeTuple> tuples = result.getValue();
+
+        // The new key is at an index which doesn't yet exist, add to the end of the tuple list
+        if (sourceIndex >= tuples.size())
+          tuples.add(extension);
+
+        // Insert the new tuple at the right index
+        else
+          tuples.add(sourceIndex, extension);
+
+        addedPaths.add(keyPath);
+        continue;
+      }
+
+      if (!(targetTuple.getValueNode() instanceof MappingNode targetChild) || !(sourceTuple.getValueNode() instanceof MappingNode sourceChild))
+        continue;
+
+      MappingNode extendedChild = extendContainer(targetChild, other, sourceChild, keyPath, copyOnWrite, addedPaths);
+
+      // Extended in place, nothing to replace
+      if (extendedChild == targetChild)
+        continue;
+
+      if (!modified) {
+        result = (MappingNode) copyNode(target);
+        modified = true;
+      }
+
+      List<NodeTuple> tuples = result.getValue();
+      int tupleIndex = tuples.indexOf(targetTuple);
+
+      // Replace the tuple at it's position, while tuples which are only inherited
+      // through merge keys are overridden by a tuple of the copy itself
+      if (tupleIndex >= 0)
+        tuples.set(tupleIndex, new NodeTuple(targetTuple.getKeyNode(), extendedChild));
+      else
+        tuples.add(createNewTuple(null, ((ScalarNode) targetTuple.getKeyNode()).getValue(), extendedChild));
+    }
+
+    if (modified && !copyOnWrite)
+      invalidateKeyIndexFor(target);
+
+    return result;
+  }
+
+  /**
+   * Check whether a mapping holds a merge key of it's own
+   * @param node Mapping to check
+   * @return True if there's a merge key among it's tuples
+   */
+  private static boolean holdsMergeKey(MappingNode node) {
+    for (NodeTuple tuple : node.getValue()) {
+      if (tuple.getKeyNode().getTag() == Tag.MERGE)
+        return true;
+    }
+
+    return false;
+  }
+
+  @Override
+  public @Nullable Object get(@Nullable String path) {
+    return get(toPath(path));
+  }
+
+  @Override
+  public @Nullable Object get(@Nullable ConfigPath path) {
+    if (tracing)
+      traceSink.trace(TraceEvent.GET, path);
+
+    Object value;
+
+    if (path == null)
+      value = locatedValueUnwrapper.apply(rootNode, false);
+    else
+      value = locateNode(path, path.getSegmentCount(), false, false, locatedValueUnwrapper);
+
+    if (tracing)
+      traceSink.trace(TraceEvent.GET_RESULT, path, value);
+
+    return value;
+  }
+
+  @Override
+  public int getInt(@Nullable ConfigPath path, IEvaluationEnvironment env) {
+    return ScalarType.interpretInt(evaluate(get(path), env), env);
+  }
+
+  @Override
+  public long getLong(@Nullable ConfigPath path, IEvaluationEnvironment env) {
+    return ScalarType.interpretLong(evaluate(get(path), env), env);
+  }
+
+  @Override
+  public double getDouble(@Nullable ConfigPath path, IEvaluationEnvironment env) {
+    return ScalarType.interpretDouble(evaluate(get(path), env), env);
+  }
+
+  @Override
+  public boolean getBoolean(@Nullable ConfigPath path, IEvaluationEnvironment env) {
+    return ScalarType.interpretBoolean(evaluate(get(path), env), env);
+  }
+
+  /**
+   * Evaluate a value if it's an expression, so that it can be interpreted as a primitive
+   * @param value Value to evaluate
+   * @param env Environment to evaluate with
+   * @return Result of the expression, the value itself if it's not an expression
+   */
+  private @Nullable Object evaluate(@Nullable Object value, IEvaluationEnvironment env) {
+    if (value instanceof AExpression expression && evaluator != null)
+      return evaluator.evaluateExpression(expression, env);
+
+    return value;
+  }
+
+  @Override
+  public IConfigCursor cursor(@Nullable String path) {
+    if (tracing)
+      traceSink.trace(TraceEvent.CURSOR, path);
+
+    Tuple<@Nullable Node, Boolean> target = locateNode(toPath(path), false, false);
+    return new NodeCursor(null, path, target.a, target.b);
+  }
+
+  @Override
+  public void set(@Nullable String path, @Nullable Object value) {
+    set(toPath(path), value);
+  }
+
+  @Override
+  public synchronized void set(@Nullable ConfigPath path, @Nullable Object value) {
+    if (tracing)
+      traceSink.trace(TraceEvent.SET, path, value);
+
+    ensureWritable();
+
+    Node wrappedValue = wrapValue(value);
+
+    // Nodes are never modified in place when accessed concurrently, so their cached values remain valid
+    if (!concurrentAccess)
+      invalidateUnwrapCacheAlong(path);
+
+    if (path == null) {
+      if (!(wrappedValue instanceof MappingNode))
+        throw new IllegalArgumentException("Cannot exchange the root-node for a non-map node");
+
+      if (tracing)
+        traceSink.trace(TraceEvent.SWAP_ROOT);
+
+      header = extractHeader((MappingNode) wrappedValue);
+      rootNode = (MappingNode) wrappedValue;
+      refreshMergeOverlays();
+      revision.incrementAndGet();
+      return;
+    }
+
+    updatePathValue(path, wrappedValue, true);
+    refreshMergeOverlays();
+    revision.incrementAndGet();
+  }
+
+  @Override
+  public void remove(@Nullable String path) {
+    remove(toPath(path));
+  }
+
+  /**
+   * Remove a key and all of it's children by it's pre-parsed path
+   * @param path Path to identify the key, null means root
+   * @throws IllegalStateException The key is only inherited through a merge key, as it would be merged in again
+   */
+  @Override
+  public synchronized void remove(@Nullable ConfigPath path) {
+    if (tracing)
+      traceSink.trace(TraceEvent.REMOVE, path);
+
+    ensureWritable();
+
+    if (!concurrentAccess)
+      invalidateUnwrapCacheAlong(path);
+
+    if (path == null) {
+      if (tracing)
+        traceSink.trace(TraceEvent.RESET_ROOT);
+
+      rootNode = createNewMappingNode(null);
+      refreshMergeOverlays();
+      revision.incrementAndGet();
+      return;
+    }
+
+    updatePathValue(path, null, false);
+    refreshMergeOverlays();
+    revision.incrementAndGet();
+  }
+
+  private MappingNode createNewMappingNode(@Nullable List<NodeTuple> items) {
+    return trackCopy(newMappingNode(items));
+  }
+
+  private static MappingNode newMappingNode(@Nullable List<NodeTuple> items) {
+    if (items == null)
+      items = new ArrayList<>();
+    return new MappingNode(Tag.MAP, true, items, null, null, DUMPER_OPTIONS.getDefaultFlowStyle());
+  }
+
+  @Override
+  public boolean exists(@Nullable String path) {
+    return exists(toPath(path));
+  }
+
+  @Override
+  public boolean exists(@Nullable ConfigPath path) {
+    if (tracing)
+      traceSink.trace(TraceEvent.EXISTS, path);
+
+    // For a key to exist, it's path has to exist within the
+    // config, even if it points at a null value
+    boolean exists = path == null ? rootNode != null : locateNode(path, path.getSegmentCount(), true, false, IS_PRESENT);
+
+    if (tracing)
+      traceSink.trace(TraceEvent.EXISTS_RESULT, path, exists);
+
+    return exists;
+  }
+
+  /**
+   * Create a handle of the value at a given path, which resolves and converts that value only once and
+   * then keeps returning it until this configuration is modified or reloaded. Hold on to the handle in
+   * order to read frequently accessed keys without walking the tree on every read.
+   * @param path Path to identify the value
+   * @param type Scalar type to convert the value to
+   * @return Handle of the value
+   */
+  public <T> ConfigKey<T> key(ConfigPath path, ScalarType type) {
+    return new ConfigKey<>(this, path, type, evaluator);
+  }
+
+  /**
+   * Create a handle of the value at a given path, see {@link #key(ConfigPath, ScalarType)}
+   * @param path Path to identify the value
+   * @param type Scalar type to convert the value to
+   * @return Handle of the value
+   */
+  public <T> ConfigKey<T> key(String path, ScalarType type) {
+    return key(ConfigPath.of(path), type);
+  }
+
+  /**
+   * Get the current revision of this configuration, which changes after every completed
+   * modification or reload of the tree
+   */
+  long getRevision() {
+    return revision.get();
+  }
+
+  @Override
+  public synchronized void attachComment(@Nullable String path, List<String> lines, boolean self) {
+    if (tracing)
+      traceSink.trace(TraceEvent.ATTACH_COMMENT, path, self, lines);
+
+    ensureWritable();
+
+    ConfigPath targetPath = toPath(path);
+    Node target = locateNode(targetPath, self, false).a;
+
+    if (target == null)
+      throw new IllegalStateException("Cannot attach a comment to a non-existing path");
+
+    List<CommentLine> comments = new ArrayList<>();
+
+    for (String line : lines) {
+      CommentType type = line.isBlank() ? CommentType.BLANK_LINE : CommentType.BLOCK;
+      comments.add(new CommentLine(null, null, line, type));
+    }
+
+    if (!concurrentAccess) {
+      target.setBlockComments(comments);
+      return;
+    }
+
+    // Comments are attached to a copy of the target, which replaces it within a copy of it's container
+    if (targetPath == null) {
+      Set<MappingNode> copies = Collections.newSetFromMap(new IdentityHashMap<>());
+      MappingNode newRoot = trackingCopies(copies, () -> (MappingNode) copyNode(target));
+      newRoot.setBlockComments(comments);
+
+      if (hasMergeKeys)
+        installMergeOverlays(newRoot, copies);
+
+      rootNode = newRoot;
+      return;
+    }
+
+    updateContainer(targetPath, false, (container, keyPart) -> {
+      NodeTuple tuple = locateKey(container, keyPart);
+
+      if (tuple == null && expressionMarkerSuffix != null && !keyPart.endsWith(expressionMarkerSuffix))
+        tuple = locateKey(container, keyPart + expressionMarkerSuffix);
+
+      // Has just been located and cannot have vanished since, as writers are serialized
+      assert tuple != null;
+
+      Node commented = copyNode(self ? tuple.getKeyNode() : tuple.getValueNode());
+      commented.setBlockComments(comments);
+
+      List<NodeTuple> containerTuples = container.getValue();
+      NodeTuple commentedTuple = self ? new NodeTuple(commented, tuple.getValueNode()) : new NodeTuple(tuple.getKeyNode(), commented);
+      int tupleIndex = containerTuples.indexOf(tuple);
+
+      // Tuples which are only inherited through merge keys are overridden by a tuple of the container itself
+      if (tupleIndex >= 0)
+        containerTuples.set(tupleIndex, commentedTuple);
+      else
+        containerTuples.add(commentedTuple);
+
+      invalidateKeyIndexFor(container);
+    });
+  }
+
+
+  @Override
+  public @Nullable List<String> readComment(@Nullable String path, boolean self) {
+    if (tracing)
+      traceSink.trace(TraceEvent.READ_COMMENT, path, self);
+
+    // Comments are skipped while loading read-only, so there's nothing to be read
+    ensureWritable();
+
+    Node target = locateNode(toPath(path), self, false).a;
+
+    if (target == null)
+      return null;
+
+    List<CommentLine> targetComments = target.getBlockComments();
+
+    if (targetComments == null)
+      return null;
+
+    List<String> comments = new ArrayList<>();
+
+    for (CommentLine comment : targetComments) {
+      if (comment.getCommentType() == CommentType.BLANK_LINE) {
+        comments.add("\n");
+        continue;
+      }
+
+      comments.add(comment.getValue());
+    }
+
+    if (tracing)
+      traceSink.trace(TraceEvent.READ_COMMENT_RESULT, path, comments);
+
+    return comments;
+  }
+
+  private Tuple<MappingNode, String> locateContainerNode(ConfigPath keyPath, boolean forceCreateMappings) {
+    int segmentCount = keyPath.getSegmentCount();
+    String keyPart = keyPath.getSegment(segmentCount - 1);
+    MappingNode container;
+
+    // A single segment, the container is root and the key-part is just the path value
+    if (segmentCount == 1)
+      container = rootNode;
+
+    // Look up the container by the segments before the last one (in force mapping creation mode)
+    else
+      container = (MappingNode) locateNode(keyPath, segmentCount - 1, false, forceCreateMappings).a;
+
+    if (container == null || keyPart.isBlank())
+      throw new IllegalArgumentException("Invalid path specified: " + keyPath);
+
+    return new Tuple<>(container, keyPart);
+  }
+
+  /**
+   * Update the value at the key a given path points to within the tree
+   * @param keyPath Path to change the value at
+   * @param value New value node, leave null to just remove this node
+   */
+  private void updatePathValue(ConfigPath keyPath, @Nullable Node value, boolean forceCreateMappings) {
+    updateContainer(keyPath, forceCreateMappings, (container, keyPart) -> updateKeyValue(container, keyPart, value));
+  }
+
+  /**
+   * Update the value at a key within it's container
+   * @param container Container holding the key
+   * @param keyPart Key to change the value at
+   * @param value New value node, leave null to just remove this node
+   */
+  private void updateKeyValue(MappingNode container, String keyPart, @Nullable Node value) {
+    // Check if there's an existing tuple
+    NodeTuple existingTuple = locateKey(container, keyPart);
+    Node existingKey = null;
+    int existingIndex = -1;
+
+    // Tuples which are only inherited through merge keys are overridden by a tuple of the container itself
+    if (existingTuple != null)
+      existingIndex = container.getValue().indexOf(existingTuple);
+
+    // Inherited tuples would be merged in again right away, as there's no way to exclude a key from a merge
+    if (value == null && existingTuple != null && existingIndex < 0)
+      throw new IllegalStateException("Cannot remove the key >" + keyPart + "<, as it's only inherited through a merge key");
+
+    invalidateKeyIndexFor(container);
+
+    // Remove an existing tuple from the map
+    if (existingIndex >= 0) {
+      existingKey = existingTuple.getKeyNode();
+      container.getValue().remove(existingIndex);
+
+      // If the just removed tuple held a mapping node as it's value, drop the indices of all children
+      // mappings within that tuple recursively right away, unless they're still part of a snapshot
+      Node valueNode = existingTuple.getValueNode();
+      if (valueNode instanceof MappingNode && !concurrentAccess) {
+        invalidateKeyIndexFor((MappingNode) valueNode);
+        forAllMappingsRecursively((MappingNode) valueNode, (currentContainer, currentKey, currentValue) -> {
+          this.invalidateKeyIndexFor(currentValue);
+        });
+      }
+    }
+
+    // Create a new tuple for this value, if provided
+    if (value != null) {
+      NodeTuple newTuple = createNewTuple(existingKey, keyPart, value);
+
+      // Preserve it's index within the list of tuples
+      if (existingIndex >= 0)
+        container.getValue().add(existingIndex, newTuple);
+      else
+        container.getValue().add(newTuple);
+    }
+  }
+
+  /**
+   * Apply an update to the mapping node containing the key a given path points to. When being accessed
+   * concurrently, the update is applied to a copy of that container instead, and all of it's ancestors
+   * are copied up to a new root node, which is published once the update has completed.
+   * @param keyPath Path of the key to update
+   * @param forceCreateMappings Whether to create missing containers or to replace non-mapping values on the way
+   * @param update Update receiving the container and the key
+   */
+  private void updateContainer(ConfigPath keyPath, boolean forceCreateMappings, BiConsumer<MappingNode, String> update) {
+    if (!concurrentAccess) {
+      Tuple<MappingNode, String> containerAndKeyPart = locateContainerNode(keyPath, forceCreateMappings);
+      update.accept(containerAndKeyPart.a, containerAndKeyPart.b);
+      return;
+    }
+
+    String keyPart = keyPath.getSegment(keyPath.getSegmentCount() - 1);
+
+    if (keyPart.isBlank())
+      throw new IllegalArgumentException("Invalid path specified: " + keyPath);
+
+    Set<MappingNode> copies = Collections.newSetFromMap(new IdentityHashMap<>());
+    MappingNode newRoot = trackingCopies(copies, () -> copyAlong(rootNode, keyPath, 0, forceCreateMappings, update));
+
+    // Copied mappings need overlays of their own before they become visible
+    if (hasMergeKeys)
+      installMergeOverlays(newRoot, copies);
+
+    rootNode = newRoot;
+  }
+
+  /**
+   * Copy a mapping node and apply an update to the container of a path's key within that copy, where
+   * all mappings on the way to the container are copied as well
+   * @param node Mapping node to copy
+   * @param keyPath Path of the key to update
+   * @param segmentIndex Index of the segment which is to be looked up within the node
+   * @param forceCreateMappings Whether to create missing containers or to replace non-mapping values on the way
+   * @param update Update receiving the container and the key
+   * @return Copy of the node
+   */
+  private MappingNode copyAlong(MappingNode node, ConfigPath keyPath, int segmentIndex, boolean forceCreateMappings, BiConsumer<MappingNode, String> update) {
+    MappingNode copy = (MappingNode) copyNode(node);
+    int containerIndex = keyPath.getSegmentCount() - 1;
+
+    // Reached the container of the key
+    if (segmentIndex == containerIndex) {
+      update.accept(copy, keyPath.getSegment(containerIndex));
+      return copy;
+    }
+
+    // Look up the next container within the original node, as it's tuples are shared with the copy
+    MappingKeyIndex index = keyIndexOf(node);
+    String foldedPathPart = keyPath.getFoldedSegment(segmentIndex);
+    NodeTuple tuple = index.findFolded(foldedPathPart);
+
+    if (tuple == null)
+      tuple = index.findMarkedFolded(foldedPathPart);
+
+    MappingNode child;
+
+    if (tuple != null && tuple.getValueNode() instanceof MappingNode mapping)
+      child = mapping;
+
+    else if (forceCreateMappings)
+      child = createNewMappingNode(null);
+
+    else
+      throw new IllegalArgumentException("Invalid path specified: " + keyPath);
+
+    MappingNode childCopy = copyAlong(child, keyPath, segmentIndex + 1, forceCreateMappings, update);
+    List<NodeTuple> tuples = copy.getValue();
+
+    int tupleIndex = tuple == null ? -1 : tuples.indexOf(tuple);
+
+    // Replace the tuple at it's position, so that the order of keys is retained, while tuples which are
+    // only inherited through merge keys are overridden by a tuple of the copy itself
+    if (tupleIndex >= 0)
+      tuples.set(tupleIndex, new NodeTuple(tuple.getKeyNode(), childCopy));
+    else
+      tuples.add(createNewTuple(null, keyPath.getSegment(segmentIndex), childCopy));
+
+    return copy;
+  }
+
+  /**
+   * Invalidate the key index {@link #locateKey(MappingNode, String)} built for a specific
+   * node, which is rebuilt on the next lookup, as that node's tuples have changed
+   * @param node Target node
+   */
+  private void invalidateKeyIndexFor(MappingNode node) {
+    this.keyIndices.remove(node);
+  }
+
+  /**
+   * Call the consumer on all instances of a {@link MappingNode} within the recursive children of
+   * the provided parent mapping node if that child is registered using a string key
+   * @param node Parent mapping node
+   * @param consumer Mapping node consumer
+   */
+  private void forAllMappingsRecursively(MappingNode node, FMappingNodeConsumer consumer) {
+    List<NodeTuple> tupleList = node.getValue();
+    int currentTupleIndex = 0;
+
+    while (currentTupleIndex < tupleList.size()) {
+      NodeTuple currentTuple = tupleList.get(currentTupleIndex);
+
+      Node valueNode = currentTuple.getValueNode();
+      Node keyNode = currentTuple.getKeyNode();
+
+      if (valueNode instanceof MappingNode && keyNode instanceof ScalarNode) {
+        forAllMappingsRecursively((MappingNode) valueNode, consumer);
+
+        // Call after expanding, to iterate depth-first
+        consumer.accept(node, (ScalarNode) keyNode, (MappingNode) valueNode);
+      }
+
+      ++currentTupleIndex;
+    }
+  }
+
+  /**
+   * Create a new tuple by mapping either an existing key node or a new
+   * {@link ScalarNode} key from a string to a node value
+   * @param keyNode Key node to use
+   * @param key Key string to use to create a new key node
+   * @param value Node value to assign to this key
+   * @return Node tuple containing the key-value pair
+   */
+  private NodeTuple createNewTuple(@Nullable Node keyNode, @Nullable String key, Node value) {
+    if (keyNode == null) {
+    //assert key != null;
+      keyNode = new ScalarNode(Tag.STR, key, null, null, DumperOptions.ScalarStyle.PLAIN);
+    }
+
+    return new NodeTuple(keyNode, value);
+  }
+
+  /**
+   * Locates a target node by it's identifying path
+   * @param path Path to search for, null means root
+   * @param self Whether to locate the containing key or the value (self means the key)
+   * @return A tuple of the target node or null if the target node didn't exist
+   *         as well as a boolean marking whether this path was marked for expressions
+   */
+  private @NotNull Tuple<@Nullable Node, Boolean> locateNode(@Nullable ConfigPath path, boolean self, boolean forceCreateMappings) {
+    if (path == null)
+      return new Tuple<>(rootNode, false);
+
+    return locateNode(path, path.getSegmentCount(), self, forceCreateMappings, TO_TUPLE);
+  }
+
+  /**
+   * Locates a target node by the first few segments of it's identifying path
+   * @param path Path to search for
+   * @param segmentCount Number of leading segments of the path to follow
+   * @param self Whether to locate the containing key or the value (self means the key)
+   * @return A tuple of the target node or null if the target node didn't exist
+   *         as well as a boolean marking whether this path was marked for expressions
+   */
+  private @NotNull Tuple<@Nullable Node, Boolean> locateNode(ConfigPath path, int segmentCount, boolean self, boolean forceCreateMappings) {
+    return locateNode(path, segmentCount, self, forceCreateMappings, TO_TUPLE);
+  }
+
+  /**
+   * Locates a target node by the first few segments of it's identifying path and hands it to a handler,
+   * which is what lookups on the hot path use, as they don't need to allocate a tuple that way
+   * @param path Path to search for
+   * @param segmentCount Number of leading segments of the path to follow
+   * @param self Whether to locate the containing key or the value (self means the key)
+   * @param handler Handler of the target node or null if the target node didn't exist
+   *                as well as a boolean marking whether this path was marked for expressions
+   * @return Result of the handler
+   */
+  private <T> T locateNode(ConfigPath path, int segmentCount, boolean self, boolean forceCreateMappings, FLocatedNodeHandler<T> handler) {
+    Node node = rootNode;
+    boolean markedForExpressions = false;
+
+    for (int segmentIndex = 0; segmentIndex < segmentCount; segmentIndex++) {
+      String pathPart = path.getSegment(segmentIndex);
+
+      // Not a mapping node, cannot look up a path-part, the key has to be invalid
+      if (!(node instanceof final MappingNode mapping))
+        return handler.apply(null, markedForExpressions);
+
+      MappingKeyIndex index = keyIndexOf(mapping);
+      String foldedPathPart = path.getFoldedSegment(segmentIndex);
+
+      NodeTuple keyValueTuple = index.findFolded(foldedPathPart);
+      boolean markedAlready = expressionMarkerSuffix != null && pathPart.endsWith(expressionMarkerSuffix);
+
+      // The k-v tuple could not be located and isn't marked for expressions already
+      // Try to append the expression marker and check for a match again
+      if (keyValueTuple == null && !markedAlready) {
+        keyValueTuple = index.findMarkedFolded(foldedPathPart);
+        markedAlready = true;
+      }
+
+      // There was a tuple available and it carried the expression marker
+      if (keyValueTuple != null && markedAlready)
+        markedForExpressions = true;
+
+      // Target tuple could not be located or is of wrong value type, create a
+      // new tuple of value type mapping and set it within the tree
+      if (forceCreateMappings && (keyValueTuple == null || !(keyValueTuple.getValueNode() instanceof MappingNode))) {
+        // Try to reuse already present key nodes
+        Node tupleKey = keyValueTuple == null ? null : keyValueTuple.getKeyNode();
+
+        keyValueTuple = createNewTuple(tupleKey, pathPart, createNewMappingNode(null));
+        mapping.getValue().add(keyValueTuple);
+
+        // Invalidate the index, which doesn't yet contain this newly added tuple
+        invalidateKeyIndexFor(mapping);
+      }
+
+      // Current path-part does not exist
+      if (keyValueTuple == null)
+        return handler.apply(null, markedForExpressions);
+
+      // On the last iteration and the key itself has been requested
+      if (segmentIndex == segmentCount - 1 && self)
+        node = keyValueTuple.getKeyNode();
+      else
+        node = keyValueTuple.getValueNode();
+
+      if (node == null)
+        break;
+    }
+
+    return handler.apply(node, markedForExpressions);
+  }
+
+  /**
+   * Locates a target key's containing node tuple within a mapping node's list of tuples
+   * @param node Node to search in
+   * @param key Target key
+   * @return Target tuple if found, null on absent key
+   */
+  private @Nullable NodeTuple locateKey(MappingNode node, String key) {
+    return keyIndexOf(node).find(key);
+  }
+
+  /**
+   * Get the key index of a mapping node, which is built on the first request
+   * @param node Node to get the index of
+   * @return Index of the node's keys
+   */
+  private MappingKeyIndex keyIndexOf(MappingNode node) {
+    MappingKeyIndex index = keyIndices.get(node);
+
+    if (index != null)
+      return index;
+
+    // Index all keys of this node in one pass, instead of searching linearly per requested key
+    index = MappingKeyIndex.build(tuplesOf(node), expressionMarkerSuffix);
+
+    if (keyIndices.put(node, index) == null && keyIndices.size() > keyIndexPruneThreshold)
+      pruneKeyIndices();
+
+    return index;
+  }
+
+  /**
+   * Drop the key indices of all nodes which are no longer part of the current tree, as those are only
+   * requested by readers of earlier snapshots, if at all, and rebuilt on demand in that case
+   */
+  private void pruneKeyIndices() {
+    synchronized (keyIndices) {
+      MappingNode root = rootNode;
+
+      if (root == null || keyIndices.size() <= keyIndexPruneThreshold)
+        return;
+
+      Set<MappingNode> reachable = Collections.newSetFromMap(new IdentityHashMap<>());
+      forAllMappings(root, reachable::add);
+
+      keyIndices.keySet().retainAll(reachable);
+      keyIndexPruneThreshold = Math.max(MIN_KEY_INDEX_PRUNE_THRESHOLD, keyIndices.size() * 2);
+    }
+  }
+
+  private static @Nullable ConfigPath toPath(@Nullable String path) {
+    return path == null ? null : ConfigPath.of(path);
+  }
+
+  /**
+   * Unwraps any given node by unwrapping scalar values first, then - if applicable - collecting them
+   * into maps or lists, as by the node's tag. Null tags will result in null values.
+   * @param node Node to unwrap
+   * @param markedForExpressions Whether expressions should be parsed
+   * @return Unwrapped node as a Java value
+   */
+  private @Nullable Object unwrapNode(Node node, boolean markedForExpressions) {
+    if (node instanceof ScalarNode)
+      return unwrapScalarNode((ScalarNode) node, markedForExpressions);
+
+    if (node instanceof SequenceNode) {
+      List<Object> values = new ArrayList<>();
+
+      for (Node item : ((SequenceNode) node).getValue())
+        values.add(unwrapNode(item, markedForExpressions));
+
+      // Immutable, as values are cached and shared between callers
+      return Collections.unmodifiableList(values);
+    }
+
+    if (node instanceof MappingNode) {
+      Map<Object, Object> values = new LinkedHashMap<>();
+
+      for (NodeTuple item : tuplesOf((MappingNode) node)) {
+        boolean isItemMarkedForExpressions = markedForExpressions;
+
+        // Expressions within keys are - of course - not supported
+        Object key = unwrapNode(item.getKeyNode(), false);
+
+        // If the key is a string, it might hold an attached marker which needs to be stripped off
+        if (key instanceof final String keyS) {
+
+          // Strip of trailing marker, also mark for expressions (if not marked already)
+          if (expressionMarkerSuffix != null && keyS.endsWith(expressionMarkerSuffix)) {
+            key = keyS.substring(0, keyS.length() - 1);
+            isItemMarkedForExpressions = true;
+          }
+        }
+
+        values.put(key, unwrapNode(item.getValueNode(), isItemMarkedForExpressions));
+      }
+
+      return Collections.unmodifiableMap(values);
+    }
+
+    throw new IllegalStateException("Encountered unknown node type >" + node.getType().getName() + "<");
+  }
+
+  /**
+   * Tries to wrap an object in a yaml tree node, throws an {@link IllegalArgumentException}
+   * for value types which cannot be depicted as a yaml value directly
+   * @param value Value to wrap
+   * @return Wrapped value
+   */
+  private Node wrapValue(@Nullable Object value) {
+    Node node = wrapScalarNode(value);
+
+    if (node != null)
+      return node;
+
+    if (value instanceof Collection) {
+      List<Node> values = new ArrayList<>();
+      node = new SequenceNode(Tag.SEQ, true, values, null, null, DUMPER_OPTIONS.getDefaultFlowStyle());
+
+      for (Object item : (Collection<?>) value)
+        values.add(wrapValue(item));
+
+      return node;
+    }
+
+    if (value instanceof Map) {
+      List<NodeTuple> tuples = new ArrayList<>();
+      node = createNewMappingNode(tuples);
+
+      for (Map.Entry<?, ?> entry : ((Map<?, ?>) value).entrySet()) {
+        Node keyNode = createScalarNode(String.valueOf(entry.getKey()), Tag.STR);
+        tuples.add(new NodeTuple(keyNode, wrapValue(entry.getValue())));
+      }
+
+      return node;
+    }
+
+    throw new IllegalArgumentException("Cannot store a value of type " + value.getClass());
+  }
+
+  /**
+   * Unwraps a {@link ScalarNode} to a java type
+   * @param node Node to unwrap
+   * @param markedForExpressions Whether expressions should be parsed
+   * @return Unwrapped java value
+   */
+  private @Nullable Object unwrapScalarNode(ScalarNode node, boolean markedForExpressions) {
+    Tag tag = node.getTag();
+
+    if (tag == Tag.NULL)
+      return null;
+
+    // If a node is marked for expression either itself or by a parent node, it
+    // will be parsed as such, no matter it's tag, as it's a user-choice
+    if (evaluator != null && markedForExpressions)
+      return parseExpression(evaluator, node);
+
+    if (tag == Tag.STR)
+      return node.getValue();
+
+    if (tag == Tag.BOOL)
+      return node.getValue().equalsIgnoreCase("true");
+
+    if (tag == Tag.INT)
+      return Long.parseLong(node.getValue());
+
+    if (tag == Tag.FLOAT)
+      return Double.parseDouble(node.getValue());
+
+    throw new IllegalStateException("Encountered unknown scalar node type >" + tag + "<");
+  }
+
+  /**
+   * Get the parsed and optimized expression of a scalar node, which is only parsed once per expression
+   * text and shared between all nodes holding that text. Expressions of the previously loaded tree
+   * are taken over, so that remapping and memoizing evaluators recognize unchanged expressions by identity.
+   * @param evaluator Evaluator to parse with
+   * @param node Node holding the expression
+   * @return Parsed expression
+   */
+  private AExpression parseExpression(IExpressionEvaluator evaluator, ScalarNode node) {
+    // Looked up before computing, as a hit then doesn't have to lock the bin of the text
+    AExpression expression = expressionsByText.get(node.getValue());
+
+    if (expression != null)
+      return expression;
+
+    return expressionsByText.computeIfAbsent(node.getValue(), text -> {
+      AExpression previous = previousExpressionsByText.get(text);
+      return previous != null ? previous : evaluator.optimizeExpression(evaluator.parseString(text));
+    });
+  }
+
+  /**
+   * Wraps a Java object into a suited containing {@link ScalarNode}, if possible
+   * @param value Value to wrap
+   * @return Wrapped value or null if this isn't a scalar value
+   */
+  private @Nullable Node wrapScalarNode(@Nullable Object value) {
+    String stringValue = String.valueOf(value);
+
+    if (value == null)
+      return createScalarNode(stringValue, Tag.NULL);
+
+    if (value instanceof Boolean)
+      return createScalarNode(stringValue, Tag.BOOL);
+
+    if (value instanceof Long || value instanceof Integer || value instanceof Short || value instanceof Byte)
+      return createScalarNode(stringValue, Tag.INT);
+
+    if (value instanceof Double || value instanceof Float)
+      return createScalarNode(stringValue, Tag.FLOAT);
+
+    if (value instanceof String)
+      return createScalarNode(stringValue, Tag.STR);
+
+    // Unknown scalar type
+    return null;
+  }
+
+  /**
+   * Create a new, parameterized scalar node
+   * @param value String value (node content)
+   * @param tag Type tag
+   * @return Created scalar node
+   */
+  private ScalarNode createScalarNode(String value, Tag tag) {
+    return new ScalarNode(tag, value, null, null, DumperOptions.ScalarStyle.PLAIN);
+  }
+
+  /**
+   * Cursor which points directly at a node of this configuration's tree
+   */
+  private class NodeCursor implements IConfigCursor {
+
+    private final @Nullable NodeCursor parent;
+    private final @Nullable String key;
+    private final @Nullable Node node;
+    private final boolean markedForExpressions;
+
+    /**
+     * @param parent Cursor this cursor descended from, null for the cursor of a located path
+     * @param key Key within the parent, or the located path if there's no parent
+     * @param node Target node, null if absent
+     * @param markedForExpressions Whether the target node has been marked for expressions
+     */
+    NodeCursor(@Nullable NodeCursor parent, @Nullable String key, @Nullable Node node, boolean markedForExpressions) {
+      this.parent = parent;
+      this.key = key;
+      this.node = node;
+      this.markedForExpressions = markedForExpressions;
+    }
+
+    @Override
+    public @Nullable String getPath() {
+      // Only built on demand, as paths are solely used to describe errors
+      if (parent == null)
+        return key;
+
+      String parentPath = parent.getPath();
+      return parentPath == null ? key : parentPath + "." + key;
+    }
+
+    @Override
+    public boolean isPresent() {
+      return node != null && node.getTag() != Tag.NULL;
+    }
+
+    @Override
+    public IConfigCursor child(String key) {
+      if (!(node instanceof MappingNode mapping))
+        return new NodeCursor(this, key, null, markedForExpressions);
+
+      NodeTuple keyValueTuple = locateKey(mapping, key);
+      boolean markedAlready = expressionMarkerSuffix != null && key.endsWith(expressionMarkerSuffix);
+
+      // The k-v tuple could not be located and isn't marked for expressions already
+      // Try to append the expression marker and check for a match again
+      if (keyValueTuple == null && !markedAlready && expressionMarkerSuffix != null) {
+        keyValueTuple = locateKey(mapping, key + expressionMarkerSuffix);
+        markedAlready = true;
+      }
+
+      if (keyValueTuple == null)
+        return new NodeCursor(this, key, null, markedForExpressions);
+
+      return new NodeCursor(this, key, keyValueTuple.getValueNode(), markedForExpressions || markedAlready);
+    }
+
+    @Override
+    public @Nullable List<IConfigCursor> elements() {
+      if (!(node instanceof SequenceNode sequence))
+        return null;
+
+      List<Node> items = sequence.getValue();
+      List<IConfigCursor> result = new ArrayList<>(items.size());
+
+      for (int i = 0; i < items.size(); i++)
+        result.add(new NodeCursor(this, String.valueOf(i), items.get(i), markedForExpressions));
+
+      return result;
+    }
+
+    @Override
+    public @Nullable Map<Object, IConfigCursor> entries() {
+      if (!(node instanceof MappingNode mapping))
+        return null;
+
+      Map<Object, IConfigCursor> result = new LinkedHashMap<>();
+
+      for (NodeTuple item : tuplesOf(mapping)) {
+        Node keyNode = item.getKeyNode();
+
+        // Merge keys should never be retrievable and thus be "hidden"
+        if (keyNode.getTag() == Tag.MERGE)
+          continue;
+
+        boolean isItemMarkedForExpressions = markedForExpressions;
+
+        // Expressions within keys are - of course - not supported
+        Object key = unwrapNode(keyNode, false);
+
+        // Strip of trailing marker, also mark for expressions (if not marked already)
+        if (key instanceof String keyS && expressionMarkerSuffix != null && keyS.endsWith(expressionMarkerSuffix)) {
+          key = keyS.substring(0, keyS.length() - expressionMarkerSuffix.length());
+          isItemMarkedForExpressions = true;
+        }
+
+        result.put(key, new NodeCursor(this, String.valueOf(key), item.getValueNode(), isItemMarkedForExpressions));
+      }
+
+      return result;
+    }
+
+    @Override
+    public @Nullable Object value() {
+      if (node == null)
+        return null;
+
+      // Only collections are worth caching, as mapping reads each scalar once
+      if (node instanceof ScalarNode)
+        return unwrapNode(node, markedForExpressions);
+
+      return unwrapCache.get(node, markedForExpressions, nodeUnwrapper);
+    }
+  }
+}
\ No newline at end of file
@@ -0,0 +1,61 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2023 BlvckBytes
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package de.jecore.bbconfigmapper.logging;
+
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * Receiver of trace events. Whether a source is enabled is only queried once, when a component is
+ * being constructed, so that components with disabled tracing skip all event creation entirely.
+ */
+public interface ITraceSink {
+
+  /**
+   * Sink which discards all events and disables tracing for all sources
+   */
+  ITraceSink DISABLED = new ITraceSink() {
+    @Override
+    public boolean isEnabled(DebugLogSource source) {
+      return false;
+    }
+
+    @Override
+    public void trace(TraceEvent event, @Nullable Object... attributes) {}
+  };
+
+  /**
+   * Whether events of the provided source are to be emitted
+   * @param source Source of events
+   */
+  boolean isEnabled(DebugLogSource source);
+
+  /**
+   * Receive an event of an enabled source
+   * @param event Emitted event
+   * @param attributes Attribute values, aligned with the event's attribute names
+   */
+  void trace(TraceEvent event, @Nullable Object... attributes);
+
+}
@@ -0,0 +1,66 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2023 BlvckBytes
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package de.jecore.bbconfigmapper.logging;
+
+import org.jetbrains.annotations.Nullable;
+
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Sink which formats events into messages of a logger at {@link Level#FINEST}, which is only
+ * enabled if the logger has been loggable at that level when the sink has been queried
+ */
+public class LoggerTraceSink implements ITraceSink {
+
+  private final Logger logger;
+
+  public LoggerTraceSink(Logger logger) {
+    this.logger = logger;
+  }
+
+  @Override
+  public boolean isEnabled(DebugLogSource source) {
+    return logger.isLoggable(Level.FINEST);
+  }
+
+  @Override
+  public void trace(TraceEvent event, @Nullable Object... attributes) {
+    StringBuilder message = new StringBuilder()
+      .append(event.getSource())
+      .append(' ')
+      .append(event.getDescription());
+
+    for (int i = 0; i < attributes.length && i < event.getAttributeCount(); i++) {
+      message
+        .append(i == 0 ? " " : ", ")
+        .append(event.getAttributeName(i))
+        .append('=')
+        .append(attributes[i]);
+    }
+
+    logger.log(Level.FINEST, message.toString());
+  }
+}
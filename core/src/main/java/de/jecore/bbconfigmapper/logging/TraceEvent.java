@@ -0,0 +1,109 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2023 BlvckBytes
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package de.jecore.bbconfigmapper.logging;
+
+/**
+ * Structured event emitted to an {@link ITraceSink}, carrying attribute values in the order of it's attribute names
+ */
+public enum TraceEvent {
+
+  // Mapper
+  MAP_ENTRY(DebugLogSource.MAPPER, "At the entry point of mapping", "path", "type"),
+  REMAP_ENTRY(DebugLogSource.MAPPER, "At the entry point of remapping", "path", "type"),
+  MAP_SECTION(DebugLogSource.MAPPER, "At the subroutine of mapping", "path", "type"),
+  REUSE_SECTION(DebugLogSource.MAPPER, "Reusing unchanged section", "path"),
+  REUSE_FIELD(DebugLogSource.MAPPER, "Reusing unchanged field value", "field"),
+  PROCESS_FIELD(DebugLogSource.MAPPER, "Processing field", "field", "type"),
+  RUNTIME_DECIDE(DebugLogSource.MAPPER, "Called runtimeDecide", "field", "type"),
+  CUSTOM_CONVERTER(DebugLogSource.MAPPER, "Using custom converter", "type"),
+  PARALLEL_SECTIONS(DebugLogSource.MAPPER, "Mapping sub-sections in parallel", "count"),
+  PARALLEL_CHUNKS(DebugLogSource.MAPPER, "Mapping items in parallel chunks", "items", "chunks"),
+  CONVERT_VALUE(DebugLogSource.MAPPER, "Trying to convert a value", "type"),
+  CONVERT_ABSENT(DebugLogSource.MAPPER, "Is null, returning null"),
+  CONVERT_SECTION(DebugLogSource.MAPPER, "Parsing value as config-section"),
+  WRAP_EVALUABLE(DebugLogSource.MAPPER, "Wrapping value in evaluable"),
+  RETURN_EVALUABLE(DebugLogSource.MAPPER, "Returning evaluable"),
+  MATERIALIZE_LAZY(DebugLogSource.MAPPER, "Materializing lazy section", "path"),
+  RESOLVE_MAP(DebugLogSource.MAPPER, "Resolving map field"),
+  RESOLVE_MAP_ABSENT(DebugLogSource.MAPPER, "Not a map, returning empty map"),
+  RESOLVE_MAP_VALUES(DebugLogSource.MAPPER, "Mapping values individually"),
+  RESOLVE_LIST(DebugLogSource.MAPPER, "Resolving list field"),
+  RESOLVE_LIST_ABSENT(DebugLogSource.MAPPER, "Not a list, returning empty list"),
+  RESOLVE_ARRAY(DebugLogSource.MAPPER, "Resolving array field"),
+  RESOLVE_ARRAY_ABSENT(DebugLogSource.MAPPER, "Not a list, returning empty array"),
+  RESOLVE_FIELD(DebugLogSource.MAPPER, "Resolving value", "field", "path"),
+  RESOLVE_FIELD_ABSENT(DebugLogSource.MAPPER, "Returning null for absent path"),
+  RESOLVE_FIELD_SECTION(DebugLogSource.MAPPER, "Type is of another section"),
+  RESOLVE_FIELD_LAZY(DebugLogSource.MAPPER, "Type is of a lazy section"),
+  RESOLVE_FIELD_PLAIN(DebugLogSource.MAPPER, "Resolving path value as plain object"),
+
+  // YAML
+  LOAD(DebugLogSource.YAML, "Successfully loaded the YAML root node using the provided reader"),
+  SAVE(DebugLogSource.YAML, "Serializing the YAML root node to the provided writer"),
+  GET(DebugLogSource.YAML, "Object has been requested", "path"),
+  GET_RESULT(DebugLogSource.YAML, "Returning content", "path", "value"),
+  CURSOR(DebugLogSource.YAML, "A cursor has been requested", "path"),
+  SET(DebugLogSource.YAML, "An update has been requested", "path", "value"),
+  SWAP_ROOT(DebugLogSource.YAML, "Swapped out the root node"),
+  REMOVE(DebugLogSource.YAML, "The removal has been requested", "path"),
+  RESET_ROOT(DebugLogSource.YAML, "Reset the root node"),
+  EXISTS(DebugLogSource.YAML, "An existence check has been requested", "path"),
+  EXISTS_RESULT(DebugLogSource.YAML, "Returning existence value", "path", "exists"),
+  ATTACH_COMMENT(DebugLogSource.YAML, "Attaching a comment has been requested", "path", "self", "lines"),
+  READ_COMMENT(DebugLogSource.YAML, "Reading the comment has been requested", "path", "self"),
+  READ_COMMENT_RESULT(DebugLogSource.YAML, "Returning comments", "path", "comments"),
+  ;
+
+  private final DebugLogSource source;
+  private final String description;
+  private final String[] attributeNames;
+
+  TraceEvent(DebugLogSource source, String description, String... attributeNames) {
+    this.source = source;
+    this.description = description;
+    this.attributeNames = attributeNames;
+  }
+
+  public DebugLogSource getSource() {
+    return source;
+  }
+
+  public String getDescription() {
+    return description;
+  }
+
+  /**
+   * Get the name of an attribute of this event
+   * @param index Index of the attribute
+   * @return Name of the attribute
+   */
+  public String getAttributeName(int index) {
+    return attributeNames[index];
+  }
+
+  public int getAttributeCount() {
+    return attributeNames.length;
+  }
+}
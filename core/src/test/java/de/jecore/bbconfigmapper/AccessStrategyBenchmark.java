@@ -0,0 +1,97 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2023 BlvckBytes
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package de.jecore.bbconfigmapper;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Field;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * Compares the accessors of both {@link AccessStrategy} constants when instantiating a section and writing
+ * it's fields, which is the part of mapping they're responsible for. Run by the JMH main class on the test
+ * classpath, see the README.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+@State(Scope.Benchmark)
+public class AccessStrategyBenchmark {
+
+  public static class Section {
+    private String name;
+    private Object payload;
+    private final Integer amount;
+
+    public Section() {
+      this.amount = null;
+    }
+  }
+
+  @Param({ "REFLECTION", "METHOD_HANDLES" })
+  public AccessStrategy strategy;
+
+  private Supplier<Section> factory;
+  private FFieldWriter nameWriter;
+  private FFieldWriter payloadWriter;
+  private FFieldWriter amountWriter;
+
+  private final Object payload = new Object();
+  private final Integer amount = 5;
+
+  @Setup
+  public void setup() throws Exception {
+    Constructor<Section> constructor = Section.class.getDeclaredConstructor();
+    constructor.setAccessible(true);
+    factory = MemberAccessors.createFactory(constructor, strategy);
+
+    nameWriter = createWriter("name");
+    payloadWriter = createWriter("payload");
+    amountWriter = createWriter("amount");
+  }
+
+  private FFieldWriter createWriter(String name) throws Exception {
+    Field field = Section.class.getDeclaredField(name);
+    field.setAccessible(true);
+    return MemberAccessors.createWriter(field, strategy);
+  }
+
+  @Benchmark
+  public Section instantiate() {
+    return factory.get();
+  }
+
+  @Benchmark
+  public Section instantiateAndWrite() throws Exception {
+    Section section = factory.get();
+    nameWriter.write(section, "name");
+    payloadWriter.write(section, payload);
+    amountWriter.write(section, amount);
+    return section;
+  }
+}
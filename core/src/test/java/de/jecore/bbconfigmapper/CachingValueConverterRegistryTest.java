@@ -0,0 +1,148 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2023 BlvckBytes
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package de.jecore.bbconfigmapper;
+
+import de.jecore.bbconfigmapper.sections.IConfigSection;
+import org.jetbrains.annotations.Nullable;
+import org.junit.jupiter.api.Test;
+
+import java.io.StringReader;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.logging.Logger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class CachingValueConverterRegistryTest {
+
+  private static final Logger LOGGER = Logger.getLogger(CachingValueConverterRegistryTest.class.getName());
+
+  public record Color(String name) {}
+
+  public static class FirstSection implements IConfigSection {
+    public Color color;
+  }
+
+  public static class SecondSection implements IConfigSection {
+    public Color color;
+  }
+
+  private static final FValueConverter COLOR_CONVERTER = (value, evaluator) -> value == null ? null : new Color((String) value);
+
+  /**
+   * Registry which answers from a map that may change at any time
+   */
+  private static class MutableRegistry implements IValueConverterRegistry {
+
+    private final Map<Class<?>, FValueConverter> converters = new HashMap<>();
+    private final AtomicInteger lookups = new AtomicInteger();
+
+    @Override
+    public @Nullable Class<?> getRequiredTypeFor(Class<?> type) {
+      lookups.incrementAndGet();
+      return converters.containsKey(type) ? String.class : null;
+    }
+
+    @Override
+    public @Nullable FValueConverter getConverterFor(Class<?> type) {
+      return converters.get(type);
+    }
+  }
+
+  @Test
+  public void shouldNotCacheLookupsOfPlainRegistries() throws Exception {
+    MutableRegistry registry = new MutableRegistry();
+    ConfigMapper mapper = createMapper("other: 1", registry);
+
+    // Looks up the converter of colors while no converter is registered yet
+    assertNull(mapper.mapSection(null, FirstSection.class).color);
+
+    registry.converters.put(Color.class, COLOR_CONVERTER);
+    mapper.getConfig().set("color", "red");
+
+    assertEquals(new Color("red"), mapper.mapSection(null, SecondSection.class).color);
+  }
+
+  @Test
+  public void shouldResolveEveryTypeOnlyOnce() {
+    MutableRegistry delegate = new MutableRegistry();
+    delegate.converters.put(Color.class, COLOR_CONVERTER);
+
+    CachingValueConverterRegistry registry = new CachingValueConverterRegistry(delegate, false);
+
+    for (int i = 0; i < 3; i++) {
+      assertEquals(String.class, registry.getRequiredTypeFor(Color.class));
+      assertSame(COLOR_CONVERTER, registry.getConverterFor(Color.class));
+    }
+
+    assertEquals(1, delegate.lookups.get());
+  }
+
+  @Test
+  public void shouldRejectRegistrationsAfterLookupsUntilInvalidated() {
+    CachingValueConverterRegistry registry = new CachingValueConverterRegistry(false);
+
+    assertNull(registry.getConverterFor(Color.class));
+    assertThrows(IllegalStateException.class, () -> registry.register(Color.class, String.class, COLOR_CONVERTER));
+
+    registry.invalidate();
+    registry.register(Color.class, String.class, COLOR_CONVERTER);
+
+    assertSame(COLOR_CONVERTER, registry.getConverterFor(Color.class));
+  }
+
+  @Test
+  public void shouldResolveChangedDelegatesAfterInvalidating() {
+    MutableRegistry delegate = new MutableRegistry();
+    CachingValueConverterRegistry registry = new CachingValueConverterRegistry(delegate, false);
+
+    assertNull(registry.getConverterFor(Color.class));
+
+    delegate.converters.put(Color.class, COLOR_CONVERTER);
+    assertNull(registry.getConverterFor(Color.class));
+
+    registry.invalidate();
+    assertSame(COLOR_CONVERTER, registry.getConverterFor(Color.class));
+  }
+
+  @Test
+  public void shouldInheritConvertersIfHierarchyAware() {
+    CachingValueConverterRegistry registry = new CachingValueConverterRegistry(true)
+      .register(CharSequence.class, String.class, COLOR_CONVERTER);
+
+    assertSame(COLOR_CONVERTER, registry.getConverterFor(StringBuilder.class));
+    assertNull(new CachingValueConverterRegistry(false)
+      .register(CharSequence.class, String.class, COLOR_CONVERTER)
+      .getConverterFor(StringBuilder.class));
+  }
+
+  private ConfigMapper createMapper(String yaml, IValueConverterRegistry registry) throws Exception {
+    YamlConfig config = new YamlConfig(null, LOGGER, null);
+    config.load(new StringReader(yaml));
+
+    return new ConfigMapper(config, LOGGER, TestEvaluators.throwing(), registry);
+  }
+}
@@ -0,0 +1,72 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2023 BlvckBytes
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package de.jecore.bbconfigmapper;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ConfigPathTest {
+
+  @Test
+  public void shouldSplitIntoSegments() {
+    ConfigPath path = ConfigPath.of("  limits.Cooldown ");
+
+    assertEquals("limits.Cooldown", path.toString());
+    assertEquals(2, path.getSegmentCount());
+    assertEquals("limits", path.getSegment(0));
+    assertEquals("Cooldown", path.getSegment(1));
+    assertEquals("cooldown", path.getFoldedSegment(1));
+  }
+
+  @Test
+  public void shouldAppendChildren() {
+    ConfigPath path = ConfigPath.of("a").child("b.c");
+
+    assertEquals(ConfigPath.of("a.b.c"), path);
+    assertEquals("c", path.getSegment(2));
+  }
+
+  @Test
+  public void shouldRejectBlankPaths() {
+    assertThrows(IllegalArgumentException.class, () -> ConfigPath.of("  "));
+  }
+
+  @Test
+  public void shouldKeepPathsInUseWhileEvictingOthers() {
+    ConfigPath hot = ConfigPath.of("cache.hot");
+    ConfigPath cold = ConfigPath.of("cache.cold");
+
+    for (int i = 0; i < ConfigPath.MAX_CACHED_PATHS * 4; i++) {
+      ConfigPath.of("cache.filler" + i);
+      assertSame(hot, ConfigPath.of("cache.hot"));
+    }
+
+    // Parsed again after having been evicted, which still yields an equal path
+    ConfigPath reparsed = ConfigPath.of("cache.cold");
+    assertNotSame(cold, reparsed);
+    assertEquals(cold, reparsed);
+  }
+}
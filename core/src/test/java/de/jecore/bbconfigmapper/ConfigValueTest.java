@@ -0,0 +1,189 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2023 BlvckBytes
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package de.jecore.bbconfigmapper;
+
+import me.blvckbytes.gpeee.GPEEE;
+import me.blvckbytes.gpeee.IExpressionEvaluator;
+import me.blvckbytes.gpeee.interpreter.IEvaluationEnvironment;
+import me.blvckbytes.gpeee.parser.expression.AExpression;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.StringReader;
+import java.util.*;
+import java.util.logging.Logger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ConfigValueTest {
+
+  private static final Logger LOGGER = Logger.getLogger(ConfigValueTest.class.getName());
+
+  private CountingExpressionEvaluator evaluator;
+
+  @BeforeEach
+  public void setUp() {
+    evaluator = new CountingExpressionEvaluator(new GPEEE(LOGGER));
+  }
+
+  @Test
+  public void shouldSpecializeOnTheShapeOfValues() {
+    AExpression expression = evaluator.parseString("1 + 2");
+
+    assertTrue(ConfigValue.of(5L, evaluator) instanceof ConstantScalarValue);
+    assertTrue(ConfigValue.of(null, evaluator) instanceof ConstantScalarValue);
+    assertTrue(ConfigValue.of(expression, evaluator) instanceof ExpressionScalarValue);
+    assertTrue(ConfigValue.of(List.of(1L, 2L), evaluator) instanceof ListValue);
+    assertTrue(ConfigValue.of(Map.of("a", 1L), evaluator) instanceof MapValue);
+
+    // Expressions cannot be evaluated without an evaluator and are thus taken as they are
+    assertTrue(ConfigValue.of(expression, null) instanceof ConstantScalarValue);
+  }
+
+  @Test
+  public void shouldInterpretPrimitives() {
+    IEvaluationEnvironment env = GPEEE.EMPTY_ENVIRONMENT;
+
+    for (IEvaluable value : List.of(new ConfigValue(12L, evaluator), ConfigValue.of(12L, evaluator), ConfigValue.of(evaluator.parseString("5 + 7"), evaluator))) {
+      assertEquals(12, value.asInt(env));
+      assertEquals(12L, value.asLong(env));
+      assertEquals(12.0, value.asDouble(env));
+      assertTrue(value.asBoolean(env));
+    }
+
+    YamlConfig config = new YamlConfig(null, LOGGER, null);
+    config.load(new StringReader("""
+      limits:
+        max: 250
+        ratio: .75
+        enabled: true
+      """));
+
+    assertEquals(250, config.getInt("limits.max", env));
+    assertEquals(250L, config.getLong("limits.max", env));
+    assertEquals(.75, config.getDouble("limits.ratio", env));
+    assertTrue(config.getBoolean("limits.enabled", env));
+  }
+
+  @Test
+  public void shouldMemoizeResultsWhichDontDependOnTheEnvironment() {
+    IEvaluationEnvironment env = GPEEE.EMPTY_ENVIRONMENT;
+    ConfigValue list = new ConfigValue(new ArrayList<>(List.of(1L, 2L)), evaluator);
+
+    List<Long> longs = list.asList(ScalarType.LONG, env);
+    assertEquals(List.of(1L, 2L), longs);
+    assertSame(longs, list.asList(ScalarType.LONG, env));
+    assertThrows(UnsupportedOperationException.class, () -> longs.add(3L));
+
+    ConfigValue expression = new ConfigValue(evaluator.parseString("1 + 2"), evaluator);
+
+    for (int i = 0; i < 5; i++) {
+      assertEquals(3L, expression.asLong(env));
+      assertEquals(3L, (long) expression.<Long>asScalar(ScalarType.LONG, env));
+    }
+
+    // Once for the raw value and once for the scalar
+    assertEquals(2, evaluator.evaluations);
+  }
+
+  @Test
+  public void shouldEvaluateVariableExpressionsOnEveryRequest() {
+    TestEnvironment env = new TestEnvironment();
+    env.staticVariables.put("a", 1L);
+
+    for (IEvaluable value : List.of(new ConfigValue(evaluator.parseString("a + 1"), evaluator), ConfigValue.of(evaluator.parseString("a + 1"), evaluator))) {
+      env.staticVariables.put("a", 1L);
+      assertEquals(2L, value.asLong(env));
+      assertEquals(2L, (long) value.<Long>asScalar(ScalarType.LONG, env));
+
+      env.staticVariables.put("a", 5L);
+      assertEquals(6L, value.asLong(env));
+      assertEquals(6L, (long) value.<Long>asScalar(ScalarType.LONG, env));
+    }
+  }
+
+  @Test
+  public void shouldInterpretVariableResultsLikeGeneralValues() {
+    TestEnvironment env = new TestEnvironment();
+    env.staticVariables.put("items", List.of(1L, List.of(2L, 3L), 3L));
+    env.staticVariables.put("item", 4L);
+    env.staticVariables.put("limits", Map.of("min", 1L, "max", 10L));
+
+    IEvaluable items = ConfigValue.of(evaluator.parseString("items"), evaluator);
+    IEvaluable item = ConfigValue.of(evaluator.parseString("item"), evaluator);
+    IEvaluable limits = ConfigValue.of(evaluator.parseString("limits"), evaluator);
+
+    assertEquals(List.of(1L, 2L, 3L, 3L), items.asList(ScalarType.LONG, env));
+    assertEquals(Set.of(1L, 2L, 3L), items.asSet(ScalarType.LONG, env));
+    assertEquals(List.of(4L), item.asList(ScalarType.LONG, env));
+    assertEquals(Map.of("min", 1L, "max", 10L), limits.asMap(ScalarType.STRING, ScalarType.LONG, env));
+    assertThrows(IllegalArgumentException.class, () -> item.asMap(ScalarType.STRING, ScalarType.LONG, env));
+
+    IEvaluable general = new ConfigValue(evaluator.parseString("items"), evaluator);
+    assertEquals(general.asList(ScalarType.STRING, env), items.asList(ScalarType.STRING, env));
+    assertEquals(general.asSet(ScalarType.LONG, env), items.asSet(ScalarType.LONG, env));
+
+    env.staticVariables.put("item", 7L);
+    assertEquals(List.of(7L), item.asList(ScalarType.LONG, env));
+  }
+
+  @Test
+  @SuppressWarnings("unchecked")
+  public void shouldHandOutUnmodifiableRawValues() {
+    IEvaluationEnvironment env = GPEEE.EMPTY_ENVIRONMENT;
+
+    Object list = ConfigValue.of(new ArrayList<>(List.of(1L)), evaluator).asRawObject(env);
+    assertThrows(UnsupportedOperationException.class, () -> ((List<Object>) list).add(2L));
+
+    Object map = ConfigValue.of(new HashMap<>(Map.of("a", 1L)), evaluator).asRawObject(env);
+    assertThrows(UnsupportedOperationException.class, () -> ((Map<Object, Object>) map).put("b", 2L));
+
+    // Results of constant expressions are kept and thus handed out to every caller as well
+    IExpressionEvaluator listBuilder = new IExpressionEvaluator() {
+
+      @Override
+      public AExpression parseString(String input) {
+        return evaluator.parseString(input);
+      }
+
+      @Override
+      public AExpression optimizeExpression(AExpression expression) {
+        return expression;
+      }
+
+      @Override
+      public Object evaluateExpression(AExpression expression, IEvaluationEnvironment environment) {
+        return new ArrayList<>(List.of(1L, 2L));
+      }
+    };
+
+    IEvaluable expression = ConfigValue.of(listBuilder.parseString("1"), listBuilder);
+    Object result = expression.asRawObject(env);
+
+    assertEquals(List.of(1L, 2L), result);
+    assertSame(result, expression.asRawObject(env));
+    assertThrows(UnsupportedOperationException.class, () -> ((List<Object>) expression.asRawObject(env)).add(3L));
+  }
+}
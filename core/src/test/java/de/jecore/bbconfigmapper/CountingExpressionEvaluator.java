@@ -0,0 +1,59 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2023 BlvckBytes
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package de.jecore.bbconfigmapper;
+
+import me.blvckbytes.gpeee.IExpressionEvaluator;
+import me.blvckbytes.gpeee.interpreter.IEvaluationEnvironment;
+import me.blvckbytes.gpeee.parser.expression.AExpression;
+
+/**
+ * Evaluator which counts the evaluations it passes on to another evaluator
+ */
+class CountingExpressionEvaluator implements IExpressionEvaluator {
+
+  private final IExpressionEvaluator delegate;
+
+  int evaluations;
+
+  CountingExpressionEvaluator(IExpressionEvaluator delegate) {
+    this.delegate = delegate;
+  }
+
+  @Override
+  public AExpression parseString(String input) {
+    return delegate.parseString(input);
+  }
+
+  @Override
+  public AExpression optimizeExpression(AExpression expression) {
+    return delegate.optimizeExpression(expression);
+  }
+
+  @Override
+  public Object evaluateExpression(AExpression expression, IEvaluationEnvironment environment) {
+    evaluations++;
+    return delegate.evaluateExpression(expression, environment);
+  }
+}
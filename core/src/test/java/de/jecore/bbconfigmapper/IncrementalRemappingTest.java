@@ -0,0 +1,214 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2023 BlvckBytes
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package de.jecore.bbconfigmapper;
+
+import de.jecore.bbconfigmapper.sections.IConfigSection;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.StringReader;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.logging.Logger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class IncrementalRemappingTest {
+
+  private static final Logger LOGGER = Logger.getLogger(IncrementalRemappingTest.class.getName());
+
+  public static class RootSection implements IConfigSection {
+    public List<String> names;
+    public ItemSection first;
+    public ItemSection second;
+  }
+
+  public static class ItemSection implements IConfigSection {
+    public String name;
+    public String color;
+  }
+
+  public static class DecidedSection implements IConfigSection {
+    public String kind;
+    public Object payload;
+
+    @Override
+    public Class<?> runtimeDecide(String field) {
+      return "number".equals(kind) ? Long.class : String.class;
+    }
+  }
+
+  public static class ListRootSection implements IConfigSection {
+    public List<ItemSection> items;
+  }
+
+  public static class LazyRootSection implements IConfigSection {
+    public LazySection<ItemSection> item;
+  }
+
+  private YamlConfig config;
+  private ConfigMapper mapper;
+
+  @BeforeEach
+  public void setUp() {
+    config = new YamlConfig(null, LOGGER, null);
+
+    mapper = new ConfigMapper(config, LOGGER, TestEvaluators.throwing(), null);
+  }
+
+  @Test
+  public void shouldReuseEverythingIfNothingChanged() throws Exception {
+    load("names: [a, b]\nfirst: {name: one, color: red}\nsecond: {name: two, color: blue}");
+    RootSection previous = mapper.remapSection(null, RootSection.class);
+
+    load("names: [a, b]\nfirst: {name: one, color: red}\nsecond: {name: two, color: blue}");
+    assertSame(previous, mapper.remapSection(null, RootSection.class));
+  }
+
+  @Test
+  public void shouldOnlyRebuildChangedSections() throws Exception {
+    load("names: [a, b]\nfirst: {name: one, color: red}\nsecond: {name: two, color: blue}");
+    RootSection previous = mapper.remapSection(null, RootSection.class);
+
+    load("names: [a, b]\nfirst: {name: one, color: red}\nsecond: {name: three, color: blue}");
+    RootSection current = mapper.remapSection(null, RootSection.class);
+
+    assertNotSame(previous, current);
+    assertSame(previous.first, current.first);
+    assertNotSame(previous.second, current.second);
+    assertEquals("three", current.second.name);
+
+    // Unchanged fields of rebuilt sections are taken over as well
+    assertSame(previous.names, current.names);
+  }
+
+  @Test
+  public void shouldRebuildChangedLists() throws Exception {
+    load("names: [a, b]\nfirst: {name: one}\nsecond: {name: two}");
+    RootSection previous = mapper.remapSection(null, RootSection.class);
+
+    load("names: [a, c]\nfirst: {name: one}\nsecond: {name: two}");
+    RootSection current = mapper.remapSection(null, RootSection.class);
+
+    assertNotSame(previous, current);
+    assertEquals(List.of("a", "c"), current.names);
+    assertSame(previous.first, current.first);
+    assertSame(previous.second, current.second);
+  }
+
+  @Test
+  public void shouldNotReuseSectionsWhoseKeysVanished() throws Exception {
+    load("first: {name: one, color: red}");
+    RootSection previous = mapper.remapSection(null, RootSection.class);
+
+    load("first: {name: one}");
+    RootSection current = mapper.remapSection(null, RootSection.class);
+
+    assertNotSame(previous.first, current.first);
+    assertNull(current.first.color);
+  }
+
+  @Test
+  public void shouldDetectChangesMergedInByMergeKeys() throws Exception {
+    load("template: &template {color: red}\nfirst: {<<: *template, name: one}\nsecond: {name: two}");
+    RootSection previous = mapper.remapSection(null, RootSection.class);
+    assertEquals("red", previous.first.color);
+
+    // Only the template changed, while the section's own keys remained equal
+    load("template: &template {color: green}\nfirst: {<<: *template, name: one}\nsecond: {name: two}");
+    RootSection current = mapper.remapSection(null, RootSection.class);
+
+    assertNotSame(previous.first, current.first);
+    assertEquals("green", current.first.color);
+    assertSame(previous.second, current.second);
+  }
+
+  @Test
+  public void shouldDetectModificationsInPlace() throws Exception {
+    load("first: {name: one}\nsecond: {name: two}");
+    RootSection previous = mapper.remapSection(null, RootSection.class);
+
+    config.set("second.name", "three");
+    RootSection current = mapper.remapSection(null, RootSection.class);
+
+    assertSame(previous.first, current.first);
+    assertEquals("three", current.second.name);
+  }
+
+  @Test
+  public void shouldDecideRuntimeTypesAnew() throws Exception {
+    load("kind: number\npayload: 5");
+    DecidedSection previous = mapper.remapSection(null, DecidedSection.class);
+    assertEquals(5L, previous.payload);
+
+    // The payload's value remained equal, but it's decided type depends on it's sibling
+    load("kind: text\npayload: 5");
+    DecidedSection current = mapper.remapSection(null, DecidedSection.class);
+    assertEquals("5", current.payload);
+  }
+
+  @Test
+  public void shouldResolveLazySectionsAnew() throws Exception {
+    load("item: {name: one}");
+    LazyRootSection previous = mapper.remapSection(null, LazyRootSection.class);
+
+    load("item: {name: two}");
+    LazyRootSection current = mapper.remapSection(null, LazyRootSection.class);
+
+    assertNotSame(previous, current);
+    assertEquals("two", current.item.get().name);
+  }
+
+  @Test
+  public void shouldReuseItemsMappedInParallel() throws Exception {
+    mapper.enableParallelMapping(ForkJoinPool.commonPool(), 2);
+
+    load("items: [{name: a}, {name: b}, {name: c}, {name: d}]");
+    ListRootSection previous = mapper.remapSection(null, ListRootSection.class);
+
+    load("items: [{name: a}, {name: b}, {name: x}, {name: d}]");
+    ListRootSection current = mapper.remapSection(null, ListRootSection.class);
+
+    assertSame(previous.items.get(0), current.items.get(0));
+    assertSame(previous.items.get(1), current.items.get(1));
+    assertNotSame(previous.items.get(2), current.items.get(2));
+    assertSame(previous.items.get(3), current.items.get(3));
+    assertEquals("x", current.items.get(2).name);
+  }
+
+  @Test
+  public void shouldForgetRecordsWhenCleared() throws Exception {
+    load("first: {name: one}");
+    RootSection previous = mapper.remapSection(null, RootSection.class);
+
+    mapper.clearRemapRecords();
+    load("first: {name: one}");
+    assertNotSame(previous, mapper.remapSection(null, RootSection.class));
+  }
+
+  private void load(String yaml) throws Exception {
+    config.load(new StringReader(yaml));
+  }
+}
@@ -0,0 +1,114 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2023 BlvckBytes
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package de.jecore.bbconfigmapper;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.StringReader;
+import java.lang.management.ManagementFactory;
+import java.util.logging.Logger;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+public class LookupAllocationTest {
+
+  private static final Logger LOGGER = Logger.getLogger(LookupAllocationTest.class.getName());
+
+  private static final int WARMUP_ROUNDS = 20_000;
+  private static final int MEASURED_ROUNDS = 200_000;
+
+  // Lookups per round, see lookupRound
+  private static final int LOOKUPS_PER_ROUND = 6;
+
+  private final YamlConfig config;
+
+  public LookupAllocationTest() {
+    config = new YamlConfig(null, LOGGER, null);
+    config.load(new StringReader("section:\n  name: value\n  amount: 5\n  nested:\n    enabled: true\n"));
+  }
+
+  @Test
+  public void warmLookupsShouldNotAllocate() {
+    com.sun.management.ThreadMXBean threads = threadBean();
+    long threadId = Thread.currentThread().getId();
+
+    // Warms up the key indices, the unwrapped values, the parsed paths and the compiled code
+    for (int i = 0; i < WARMUP_ROUNDS; i++)
+      lookupRound();
+
+    long before = threads.getThreadAllocatedBytes(threadId);
+    int found = 0;
+
+    for (int i = 0; i < MEASURED_ROUNDS; i++)
+      found += lookupRound();
+
+    long allocated = threads.getThreadAllocatedBytes(threadId) - before;
+    long lookups = (long) MEASURED_ROUNDS * LOOKUPS_PER_ROUND;
+
+    assertEquals(MEASURED_ROUNDS * 4, found);
+
+    // Less than a byte per lookup on average, as anything allocated per lookup would take at least an object header
+    assertEquals(0, allocated / lookups, "Allocated " + allocated + " bytes over " + lookups + " lookups");
+  }
+
+  /**
+   * Perform a mix of warm lookups, covering case-insensitive, nested and absent keys
+   * @return Number of values found
+   */
+  private int lookupRound() {
+    int found = 0;
+
+    if (config.get("section.name") != null)
+      found++;
+
+    if (config.get("Section.Amount") != null)
+      found++;
+
+    if (config.get("section.nested.enabled") != null)
+      found++;
+
+    if (config.get("section.absent") != null)
+      found++;
+
+    if (config.exists("section.nested"))
+      found++;
+
+    if (config.exists("missing.path"))
+      found++;
+
+    return found;
+  }
+
+  private static com.sun.management.ThreadMXBean threadBean() {
+    assumeTrue(ManagementFactory.getThreadMXBean() instanceof com.sun.management.ThreadMXBean, "Allocations cannot be measured per thread");
+
+    com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+    assumeTrue(threads.isThreadAllocatedMemorySupported(), "Allocations cannot be measured per thread");
+
+    threads.setThreadAllocatedMemoryEnabled(true);
+    return threads;
+  }
+}
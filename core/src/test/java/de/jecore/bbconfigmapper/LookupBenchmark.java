@@ -0,0 +1,73 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2023 BlvckBytes
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package de.jecore.bbconfigmapper;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.io.StringReader;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Logger;
+
+/**
+ * Measures warm lookups of values by {@link YamlConfig#get(String)} and {@link YamlConfig#exists(String)},
+ * which are not supposed to allocate, as reported per operation by JMH's gc profiler. Run by the JMH
+ * main class on the test classpath, see the README.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+@State(Scope.Benchmark)
+public class LookupBenchmark {
+
+  private YamlConfig config;
+
+  @Setup
+  public void setup() {
+    config = new YamlConfig(null, Logger.getLogger(LookupBenchmark.class.getName()), null);
+    config.load(new StringReader("section:\n  name: value\n  amount: 5\n  nested:\n    enabled: true\n"));
+  }
+
+  @Benchmark
+  public Object get() {
+    return config.get("section.nested.enabled");
+  }
+
+  @Benchmark
+  public Object getCaseInsensitive() {
+    return config.get("Section.Amount");
+  }
+
+  @Benchmark
+  public Object getAbsent() {
+    return config.get("section.absent");
+  }
+
+  @Benchmark
+  public boolean exists() {
+    return config.exists("section.nested");
+  }
+}
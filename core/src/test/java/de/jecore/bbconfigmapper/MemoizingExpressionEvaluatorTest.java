@@ -0,0 +1,155 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2023 BlvckBytes
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package de.jecore.bbconfigmapper;
+
+import me.blvckbytes.gpeee.GPEEE;
+import me.blvckbytes.gpeee.interpreter.IEvaluationEnvironment;
+import me.blvckbytes.gpeee.parser.expression.AExpression;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.logging.Logger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class MemoizingExpressionEvaluatorTest {
+
+  private static final Logger LOGGER = Logger.getLogger(MemoizingExpressionEvaluatorTest.class.getName());
+
+  private static class VersionedEnvironment extends TestEnvironment implements IVersionedEvaluationEnvironment {
+
+    long version;
+
+    @Override
+    public long getVersion() {
+      return version;
+    }
+  }
+
+  private CountingExpressionEvaluator counting;
+  private MemoizingExpressionEvaluator evaluator;
+
+  @BeforeEach
+  public void setUp() {
+    // Counts the evaluations which are not answered by a memoized result
+    counting = new CountingExpressionEvaluator(new GPEEE(LOGGER));
+    evaluator = new MemoizingExpressionEvaluator(counting);
+  }
+
+  @Test
+  public void shouldMemoizeByTheValuesOfReadVariables() {
+    AExpression expression = evaluator.parseString("a + b");
+    TestEnvironment env = new TestEnvironment();
+    env.staticVariables.put("a", 1L);
+    env.staticVariables.put("b", 2L);
+
+    for (int i = 0; i < 5; i++)
+      assertEquals(3L, evaluate(expression, env));
+
+    // Learning about the variables and memoizing by them takes two evaluations
+    assertEquals(2, counting.evaluations);
+
+    env.staticVariables.put("b", 5L);
+    assertEquals(6L, evaluate(expression, env));
+    assertEquals(6L, evaluate(expression, env));
+    assertEquals(3, counting.evaluations);
+  }
+
+  @Test
+  public void shouldKeepKeysOfNestedEvaluationsApart() {
+    AExpression inner = evaluator.parseString("a + b");
+    AExpression outer = evaluator.parseString("x + y + z");
+
+    TestEnvironment innerEnv = new TestEnvironment();
+    innerEnv.staticVariables.put("a", 1L);
+    innerEnv.staticVariables.put("b", 2L);
+
+    // Reading x evaluates another expression of fewer variables while the key of the outer one is being created
+    TestEnvironment outerEnv = new TestEnvironment();
+    outerEnv.liveVariables.put("x", () -> evaluator.evaluateExpression(inner, innerEnv));
+    outerEnv.staticVariables.put("y", 10L);
+    outerEnv.staticVariables.put("z", 100L);
+
+    for (int i = 0; i < 5; i++)
+      assertEquals(113L, evaluate(outer, outerEnv));
+
+    innerEnv.staticVariables.put("a", 4L);
+
+    for (int i = 0; i < 5; i++)
+      assertEquals(116L, evaluate(outer, outerEnv));
+
+    outerEnv.staticVariables.put("y", 20L);
+    assertEquals(126L, evaluate(outer, outerEnv));
+
+    innerEnv.staticVariables.put("a", 1L);
+    outerEnv.staticVariables.put("y", 10L);
+    assertEquals(113L, evaluate(outer, outerEnv));
+  }
+
+  @Test
+  public void shouldKeyByTheVersionOfRecordedEnvironments() {
+    AExpression expression = evaluator.parseString("a + 1");
+    VersionedEnvironment env = new VersionedEnvironment();
+    env.staticVariables.put("a", 1L);
+
+    RecordingEnvironment recording = RecordingEnvironment.of(env);
+    assertTrue(recording instanceof IVersionedEvaluationEnvironment);
+
+    for (int i = 0; i < 5; i++)
+      assertEquals(2L, evaluate(expression, RecordingEnvironment.of(env)));
+
+    assertEquals(1, counting.evaluations);
+
+    // Results depend on the whole environment, and thus on the recorded one as well
+    evaluate(expression, recording);
+    assertTrue(recording.hasAccessedEnvironment());
+
+    env.staticVariables.put("a", 2L);
+    env.version++;
+
+    assertEquals(3L, evaluate(expression, RecordingEnvironment.of(env)));
+    assertEquals(2, counting.evaluations);
+  }
+
+  @Test
+  public void shouldAnswerConstantExpressionsWithoutReadingTheEnvironment() {
+    AExpression expression = evaluator.parseString("1 + 2");
+    VersionedEnvironment env = new VersionedEnvironment();
+
+    assertEquals(3L, evaluate(expression, env));
+
+    RecordingEnvironment recording = RecordingEnvironment.of(env);
+    assertEquals(3L, evaluate(expression, recording));
+    assertFalse(recording.hasAccessedEnvironment());
+
+    env.version++;
+    assertEquals(3L, evaluate(expression, env));
+    assertEquals(1, counting.evaluations);
+  }
+
+  private long evaluate(AExpression expression, IEvaluationEnvironment env) {
+    return ((Number) evaluator.evaluateExpression(expression, env)).longValue();
+  }
+}
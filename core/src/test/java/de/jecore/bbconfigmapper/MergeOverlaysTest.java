@@ -0,0 +1,245 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2023 BlvckBytes
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package de.jecore.bbconfigmapper;
+
+import org.junit.jupiter.api.Test;
+import org.yaml.snakeyaml.nodes.MappingNode;
+import org.yaml.snakeyaml.nodes.Node;
+import org.yaml.snakeyaml.nodes.NodeTuple;
+import org.yaml.snakeyaml.nodes.ScalarNode;
+
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.lang.reflect.Field;
+import java.util.List;
+import java.util.logging.Logger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class MergeOverlaysTest {
+
+  private static final Logger LOGGER = Logger.getLogger(MergeOverlaysTest.class.getName());
+
+  private static final String SECTIONS = """
+    sectionA: &sectionA
+      title: 'Welcome to section a'
+      color: green
+      width: 100
+      settings:
+        opacity: .5
+        animated: false
+
+    sectionB: &sectionB
+      <<: *sectionA
+      title: 'Welcome to section b'
+      settings:
+        animated: true
+    """;
+
+  @Test
+  public void shouldOnlyOverrideValuesDeclaredAboveTheSource() throws Exception {
+    YamlConfig config = load("""
+      above:
+        title: own
+        <<: {title: merged, color: red}
+      below:
+        <<: {title: merged, color: red}
+        title: own
+      """);
+
+    assertEquals("merged", config.get("above.title"));
+    assertEquals("own", config.get("below.title"));
+    assertEquals("red", config.get("above.color"));
+    assertEquals("red", config.get("below.color"));
+  }
+
+  @Test
+  public void shouldMergeNestedMappingsDeeply() throws Exception {
+    YamlConfig config = load(SECTIONS + """
+      sectionC:
+        <<: *sectionB
+        width: 200
+      """);
+
+    assertEquals("Welcome to section b", config.get("sectionB.title"));
+    assertEquals("green", config.get("sectionB.color"));
+    assertEquals(.5, ((Number) config.get("sectionB.settings.opacity")).doubleValue());
+    assertEquals(true, config.get("sectionB.settings.animated"));
+
+    // Inherits from B, which in turn inherits from A
+    assertEquals("Welcome to section b", config.get("sectionC.title"));
+    assertEquals("green", config.get("sectionC.color"));
+    assertEquals(200L, ((Number) config.get("sectionC.width")).longValue());
+    assertEquals(true, config.get("sectionC.settings.animated"));
+  }
+
+  @Test
+  public void shouldNotLeakOverridesBetweenSiblingsSharingAnAlias() throws Exception {
+    YamlConfig config = load("""
+      base: &base
+        color: red
+        size: 1
+        settings:
+          animated: false
+          opacity: .5
+      first:
+        <<: *base
+        size: 2
+        settings:
+          animated: true
+      second:
+        <<: *base
+      """);
+
+    assertEquals(2L, ((Number) config.get("first.size")).longValue());
+    assertEquals(1L, ((Number) config.get("second.size")).longValue());
+    assertEquals(1L, ((Number) config.get("base.size")).longValue());
+
+    assertEquals("red", config.get("first.color"));
+    assertEquals("red", config.get("second.color"));
+
+    assertEquals(true, config.get("first.settings.animated"));
+    assertEquals(.5, ((Number) config.get("first.settings.opacity")).doubleValue());
+    assertEquals(false, config.get("second.settings.animated"));
+    assertEquals(false, config.get("base.settings.animated"));
+  }
+
+  @Test
+  public void shouldSaveOverridesOfInheritedKeysNextToTheMergeKey() throws Exception {
+    YamlConfig config = load(SECTIONS);
+
+    config.set("sectionB.color", "blue");
+    config.set("sectionB.settings.opacity", .8);
+
+    assertEquals("blue", config.get("sectionB.color"));
+    assertEquals("green", config.get("sectionA.color"));
+
+    StringWriter writer = new StringWriter();
+    config.save(writer);
+    String saved = writer.toString();
+
+    // The tree is saved as is, so inherited keys are not written out, but the merge key is kept
+    assertTrue(saved.contains("<<: *sectionA"), saved);
+    assertEquals(1, saved.split("width:", -1).length - 1, saved);
+
+    YamlConfig reloaded = load(saved);
+
+    assertEquals("blue", reloaded.get("sectionB.color"));
+    assertEquals(.8, ((Number) reloaded.get("sectionB.settings.opacity")).doubleValue());
+    assertEquals(true, reloaded.get("sectionB.settings.animated"));
+    assertEquals(100L, ((Number) reloaded.get("sectionB.width")).longValue());
+
+    assertEquals("green", reloaded.get("sectionA.color"));
+    assertEquals(.5, ((Number) reloaded.get("sectionA.settings.opacity")).doubleValue());
+  }
+
+  @Test
+  public void shouldRejectRemovingInheritedKeys() throws Exception {
+    YamlConfig config = load(SECTIONS);
+
+    IllegalStateException exception = assertThrows(IllegalStateException.class, () -> config.remove("sectionB.color"));
+    assertTrue(exception.getMessage().contains("inherited"), exception.getMessage());
+    assertTrue(config.exists("sectionB.color"));
+    assertEquals("green", config.get("sectionB.color"));
+
+    // Also within nested mappings which merge deeply
+    assertThrows(IllegalStateException.class, () -> config.remove("sectionB.settings.opacity"));
+    assertTrue(config.exists("sectionB.settings.opacity"));
+
+    // Keys overriding inherited ones are removed, which reveals the inherited value again
+    config.remove("sectionB.title");
+    assertEquals("Welcome to section a", config.get("sectionB.title"));
+
+    // Removing a merging section removes everything it inherits, but leaves the source alone
+    config.remove("sectionB");
+    assertFalse(config.exists("sectionB.color"));
+    assertNull(config.get("sectionB.color"));
+    assertEquals("green", config.get("sectionA.color"));
+  }
+
+  @Test
+  public void shouldRejectRemovingInheritedKeysWhenAccessedConcurrently() throws Exception {
+    YamlConfig config = load(SECTIONS);
+    config.enableConcurrentAccess();
+
+    assertThrows(IllegalStateException.class, () -> config.remove("sectionB.width"));
+    assertEquals(100L, ((Number) config.get("sectionB.width")).longValue());
+
+    config.remove("sectionB.title");
+    assertEquals("Welcome to section a", config.get("sectionB.title"));
+  }
+
+  @Test
+  public void shouldLeaveMappingsSharedWithSnapshotsAloneWhenWritingConcurrently() throws Exception {
+    YamlConfig config = load(SECTIONS + """
+      sectionC:
+        <<: *sectionB
+        width: 200
+      """);
+    config.enableConcurrentAccess();
+
+    MappingNode sectionB = (MappingNode) mappingOf(rootOf(config), "sectionB");
+    List<NodeTuple> overlay = ((MergedTuples) sectionB.getValue()).getOverlay();
+    assertNotNull(overlay);
+
+    config.set("sectionC.width", 300);
+    config.set("sectionA.color", "red");
+    config.attachComment("sectionC", List.of("Third section"), false);
+
+    // Neither resolved anew nor copied, as none of these updates is located within it
+    assertSame(sectionB, mappingOf(rootOf(config), "sectionB"));
+    assertSame(overlay, ((MergedTuples) sectionB.getValue()).getOverlay());
+
+    assertEquals(300L, ((Number) config.get("sectionC.width")).longValue());
+    assertEquals("Welcome to section b", config.get("sectionC.title"));
+    assertEquals(true, config.get("sectionC.settings.animated"));
+    assertEquals(.5, ((Number) config.get("sectionC.settings.opacity")).doubleValue());
+    assertEquals("red", config.get("sectionA.color"));
+
+    // Aliases keep referring to the original mapping, just as when modifying it in place
+    assertEquals("green", config.get("sectionB.color"));
+  }
+
+  private static MappingNode rootOf(YamlConfig config) throws Exception {
+    Field rootNode = YamlConfig.class.getDeclaredField("rootNode");
+    rootNode.setAccessible(true);
+    return (MappingNode) rootNode.get(config);
+  }
+
+  private static Node mappingOf(MappingNode node, String key) {
+    for (NodeTuple tuple : node.getValue()) {
+      if (((ScalarNode) tuple.getKeyNode()).getValue().equals(key))
+        return tuple.getValueNode();
+    }
+
+    throw new IllegalArgumentException("Missing key " + key);
+  }
+
+  private static YamlConfig load(String yaml) {
+    YamlConfig config = new YamlConfig(null, LOGGER, null);
+    config.load(new StringReader(yaml));
+    return config;
+  }
+}
@@ -0,0 +1,73 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2023 BlvckBytes
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package de.jecore.bbconfigmapper;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.StringReader;
+import java.util.List;
+import java.util.logging.Logger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ReadOnlyLoadingTest {
+
+  private static final Logger LOGGER = Logger.getLogger(ReadOnlyLoadingTest.class.getName());
+
+  private static final String COMMENTED = "# About the key\nkey: value\nplain: 1\n";
+
+  @Test
+  public void shouldReadValuesOfCompactTrees() {
+    YamlConfig config = new YamlConfig(null, LOGGER, null);
+    config.loadReadOnly(new StringReader("base: &base {shared: 1}\nmerged:\n  <<: *base\n  own: 2\n"));
+
+    assertEquals(1L, ((Number) config.get("merged.shared")).longValue());
+    assertEquals(2L, ((Number) config.get("merged.own")).longValue());
+  }
+
+  @Test
+  public void shouldRejectReadingCommentsOfCompactTrees() {
+    YamlConfig config = new YamlConfig(null, LOGGER, null);
+    config.loadReadOnly(new StringReader(COMMENTED));
+
+    IllegalStateException exception = assertThrows(IllegalStateException.class, () -> config.readComment("key", true));
+    assertEquals("This config has been loaded read-only", exception.getMessage());
+    assertThrows(IllegalStateException.class, () -> config.set("key", "other"));
+
+    // Loading normally makes comments readable again
+    config.load(new StringReader(COMMENTED));
+    assertEquals(List.of(" About the key"), config.readComment("key", true));
+  }
+
+  @Test
+  public void shouldReadNullIfNoCommentIsAttached() {
+    YamlConfig config = new YamlConfig(null, LOGGER, null);
+    config.load(new StringReader(COMMENTED));
+    config.set("added", 2);
+
+    assertNull(config.readComment("added", true));
+    assertNull(config.readComment("missing", true));
+  }
+}
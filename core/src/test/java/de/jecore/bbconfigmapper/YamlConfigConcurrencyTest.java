@@ -0,0 +1,130 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2023 BlvckBytes
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package de.jecore.bbconfigmapper;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.StringReader;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.logging.Logger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class YamlConfigConcurrencyTest {
+
+  private static final Logger LOGGER = Logger.getLogger(YamlConfigConcurrencyTest.class.getName());
+
+  private static final int READERS = 4;
+  private static final int WRITES = 2000;
+  private static final int KEYS = 32;
+
+  @Test
+  public void readersShouldSeeConsistentSnapshotsWhileWriting() throws Exception {
+    StringBuilder yaml = new StringBuilder("counter: 0\nbase: &base\n  shared: 1\nmerged:\n  <<: *base\n  own: 2\nkeys:\n");
+
+    for (int i = 0; i < KEYS; i++)
+      yaml.append("  k").append(i).append(": ").append(i).append('\n');
+
+    YamlConfig config = new YamlConfig(null, LOGGER, null);
+    config.load(new StringReader(yaml.toString()));
+    config.enableConcurrentAccess();
+
+    // Smaller than the number of keys read, so that readers keep evicting each other's values
+    config.setUnwrapCacheSize(8);
+
+    AtomicBoolean writing = new AtomicBoolean(true);
+    AtomicReference<Throwable> failure = new AtomicReference<>();
+    CountDownLatch start = new CountDownLatch(1);
+    List<Thread> readers = new ArrayList<>();
+
+    for (int readerIndex = 0; readerIndex < READERS; readerIndex++) {
+      Thread reader = new Thread(() -> {
+        try {
+          start.await();
+          long lastCounter = 0;
+
+          do {
+            // Every write publishes a newer tree, so the counter can never be seen going backwards
+            long counter = ((Number) config.get("counter")).longValue();
+            assertTrue(counter >= lastCounter, "Counter went backwards from " + lastCounter + " to " + counter);
+            lastCounter = counter;
+
+            // Inherited values have to stay resolvable on copies of the merged mapping
+            assertEquals(1L, ((Number) config.get("merged.shared")).longValue());
+            assertTrue(config.exists("merged.own"));
+
+            for (int i = 0; i < KEYS; i++)
+              assertEquals((long) i, ((Number) config.get("keys.k" + i)).longValue());
+          } while (writing.get());
+        } catch (Throwable e) {
+          failure.compareAndSet(null, e);
+        }
+      });
+
+      reader.start();
+      readers.add(reader);
+    }
+
+    start.countDown();
+
+    try {
+      for (int i = 1; i <= WRITES; i++) {
+        config.set("counter", i);
+
+        // Copies the merged mapping, which has to be resolved anew before being published
+        config.set("merged.own", i);
+      }
+    } finally {
+      writing.set(false);
+    }
+
+    for (Thread reader : readers)
+      reader.join();
+
+    if (failure.get() != null)
+      throw new AssertionError("A reader failed", failure.get());
+
+    assertEquals((long) WRITES, ((Number) config.get("counter")).longValue());
+    assertEquals((long) WRITES, ((Number) config.get("merged.own")).longValue());
+    assertEquals(1L, ((Number) config.get("merged.shared")).longValue());
+  }
+
+  @Test
+  public void shouldResolveMergeKeysAnewAfterModifyingInPlace() throws Exception {
+    YamlConfig config = new YamlConfig(null, LOGGER, null);
+    config.load(new StringReader("base: &base\n  shared: 1\nmerged:\n  <<: *base\n  own: 2\n"));
+
+    config.set("base.shared", 3);
+    config.set("base.added", 4);
+
+    assertEquals(3L, ((Number) config.get("merged.shared")).longValue());
+    assertEquals(4L, ((Number) config.get("merged.added")).longValue());
+    assertEquals(2L, ((Number) config.get("merged.own")).longValue());
+  }
+}
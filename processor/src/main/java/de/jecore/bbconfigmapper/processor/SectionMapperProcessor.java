@@ -0,0 +1,545 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2023 BlvckBytes
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package de.jecore.bbconfigmapper.processor;
+
+import javax.annotation.processing.*;
+import javax.lang.model.SourceVersion;
+import javax.lang.model.element.*;
+import javax.lang.model.type.ArrayType;
+import javax.lang.model.type.DeclaredType;
+import javax.lang.model.type.TypeKind;
+import javax.lang.model.type.TypeMirror;
+import javax.lang.model.util.ElementFilter;
+import javax.lang.model.util.Elements;
+import javax.lang.model.util.Types;
+import javax.tools.Diagnostic;
+import javax.tools.FileObject;
+import javax.tools.StandardLocation;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.Writer;
+import java.util.*;
+
+/**
+ * Generates a reflection-free mapper for every concrete implementation of the config section interface
+ * within the compiled sources and registers them as services. Generated mappers describe all mapped fields,
+ * instantiate their section through it's default constructor and assign it's fields directly, while the
+ * runtime falls back to reflection for all members which are not accessible from within the section's
+ * package (private or final fields, private constructors). Sections which generated code cannot describe
+ * entirely, as well as sections created through an annotated constructor, are mapped reflectively.
+ */
+@SupportedAnnotationTypes("*")
+public class SectionMapperProcessor extends AbstractProcessor {
+
+  private static final String SECTION_INTERFACE = "de.jecore.bbconfigmapper.sections.IConfigSection";
+  private static final String IGNORE_ANNOTATION = "de.jecore.bbconfigmapper.sections.CSIgnore";
+  private static final String INLINED_ANNOTATION = "de.jecore.bbconfigmapper.sections.CSInlined";
+  private static final String ALWAYS_ANNOTATION = "de.jecore.bbconfigmapper.sections.CSAlways";
+  private static final String CONSTRUCTOR_ANNOTATION = "de.jecore.bbconfigmapper.sections.CSConstructor";
+  private static final String LAZY_SECTION = "de.jecore.bbconfigmapper.LazySection";
+  private static final String MAPPER_INTERFACE = "de.jecore.bbconfigmapper.IGeneratedSectionMapper";
+  private static final String FIELD_DESCRIPTION = "de.jecore.bbconfigmapper.GeneratedField";
+  private static final String MAPPER_SUFFIX = "_SectionMapper";
+  private static final String SERVICE_FILE = "META-INF/services/" + MAPPER_INTERFACE;
+
+  private static final Set<String> FIELD_HOOKS = Set.of("defaultFor", "afterParsing");
+
+  // Binary names of all visited sections and of all generated mappers
+  private final Set<String> visitedSections = new HashSet<>();
+  private final Set<String> generatedMappers = new TreeSet<>();
+
+  private Elements elements;
+  private Types types;
+
+  @Override
+  public synchronized void init(ProcessingEnvironment processingEnv) {
+    super.init(processingEnv);
+    this.elements = processingEnv.getElementUtils();
+    this.types = processingEnv.getTypeUtils();
+  }
+
+  @Override
+  public SourceVersion getSupportedSourceVersion() {
+    return SourceVersion.latestSupported();
+  }
+
+  @Override
+  public boolean process(Set<? extends TypeElement> annotations, RoundEnvironment roundEnv) {
+    if (roundEnv.processingOver()) {
+      if (!generatedMappers.isEmpty())
+        registerMappers();
+
+      return false;
+    }
+
+    TypeElement sectionElement = elements.getTypeElement(SECTION_INTERFACE);
+
+    // The library is not on the classpath of this compilation
+    if (sectionElement == null)
+      return false;
+
+    for (TypeElement type : ElementFilter.typesIn(roundEnv.getRootElements()))
+      visitType(type, sectionElement);
+
+    // Never claim any annotations, as other processors might be interested in them too
+    return false;
+  }
+
+  /**
+   * Generate a mapper for the provided type if it's a mappable section and
+   * visit all of it's member types recursively afterwards
+   * @param type Type to visit
+   * @param sectionElement Element of the config section interface
+   */
+  private void visitType(TypeElement type, TypeElement sectionElement) {
+    if (isMappableSection(type, sectionElement)) {
+      String binaryName = elements.getBinaryName(type).toString();
+
+      if (visitedSections.add(binaryName)) {
+        try {
+          if (generateMapper(type, binaryName, sectionElement))
+            generatedMappers.add(binaryName + MAPPER_SUFFIX);
+        } catch (IOException e) {
+          processingEnv.getMessager().printMessage(Diagnostic.Kind.ERROR, "Could not generate a section mapper: " + e.getMessage(), type);
+        }
+      }
+    }
+
+    for (TypeElement memberType : ElementFilter.typesIn(type.getEnclosedElements()))
+      visitType(memberType, sectionElement);
+  }
+
+  /**
+   * Checks whether a type is a concrete section class which generated code can refer to
+   * @param type Type in question
+   * @param sectionElement Element of the config section interface
+   */
+  private boolean isMappableSection(TypeElement type, TypeElement sectionElement) {
+    if (type.getKind() != ElementKind.CLASS)
+      return false;
+
+    if (type.getModifiers().contains(Modifier.ABSTRACT))
+      return false;
+
+    if (!types.isAssignable(types.erasure(type.asType()), types.erasure(sectionElement.asType())))
+      return false;
+
+    // Inner classes require an enclosing instance, local and anonymous classes cannot be referred to
+    NestingKind nestingKind = type.getNestingKind();
+
+    if (nestingKind == NestingKind.LOCAL || nestingKind == NestingKind.ANONYMOUS)
+      return false;
+
+    if (nestingKind == NestingKind.MEMBER && !type.getModifiers().contains(Modifier.STATIC))
+      return false;
+
+    // Sections receiving all values through their constructor are not populated field by field
+    for (ExecutableElement constructor : ElementFilter.constructorsIn(type.getEnclosedElements())) {
+      if (isAnnotationPresent(constructor, CONSTRUCTOR_ANNOTATION))
+        return false;
+    }
+
+    return isAccessibleType(type, getPackageName(type));
+  }
+
+  /**
+   * Generate the mapper of a section, if all of it's mapped fields can be described by generated code
+   * @param type Section type
+   * @param binaryName Binary name of the section type
+   * @param sectionElement Element of the config section interface
+   * @return Whether a mapper has been generated
+   */
+  private boolean generateMapper(TypeElement type, String binaryName, TypeElement sectionElement) throws IOException {
+    String packageName = getPackageName(type);
+    String mapperName = (packageName.isEmpty() ? binaryName : binaryName.substring(packageName.length() + 1)) + MAPPER_SUFFIX;
+    String typeName = types.erasure(type.asType()).toString();
+
+    List<VariableElement> writableFields = new ArrayList<>();
+    List<String> fieldDescriptions = new ArrayList<>();
+
+    for (VariableElement field : collectMappedFields(type)) {
+      int writeIndex = -1;
+
+      if (isWritableField(field, packageName)) {
+        writeIndex = writableFields.size();
+        writableFields.add(field);
+      }
+
+      String description = describeField(field, writeIndex, packageName, sectionElement);
+
+      // Leave it up to reflection, which reports all unsupported fields when the plan is built
+      if (description == null)
+        return false;
+
+      fieldDescriptions.add(description);
+    }
+
+    boolean canInstantiate = hasAccessibleDefaultConstructor(type);
+
+    StringBuilder source = new StringBuilder();
+
+    if (!packageName.isEmpty())
+      source.append("package ").append(packageName).append(";\n\n");
+
+    source.append("@javax.annotation.processing.Generated(\"").append(getClass().getName()).append("\")\n");
+    source.append("@SuppressWarnings({ \"unchecked\", \"rawtypes\" })\n");
+    source.append("public final class ").append(mapperName).append(" implements ").append(MAPPER_INTERFACE).append('<').append(typeName).append("> {\n\n");
+
+    source.append("  private static final java.util.List<").append(FIELD_DESCRIPTION).append("> FIELDS = java.util.List.of(");
+    for (int i = 0; i < fieldDescriptions.size(); i++)
+      source.append(i == 0 ? "\n" : ",\n").append("    ").append(fieldDescriptions.get(i));
+    source.append("\n  );\n\n");
+
+    source.append("  @Override\n");
+    source.append("  public boolean canInstantiate() {\n");
+    source.append("    return ").append(canInstantiate).append(";\n");
+    source.append("  }\n\n");
+
+    source.append("  @Override\n");
+    source.append("  public ").append(typeName).append(" newInstance() {\n");
+    source.append("    return ").append(canInstantiate ? "new " + typeName + "()" : "null").append(";\n");
+    source.append("  }\n\n");
+
+    source.append("  @Override\n");
+    source.append("  public java.util.List<").append(FIELD_DESCRIPTION).append("> getFields() {\n");
+    source.append("    return FIELDS;\n");
+    source.append("  }\n\n");
+
+    source.append("  @Override\n");
+    source.append("  public boolean receivesReflectedFields() {\n");
+    source.append("    return ").append(overridesFieldHooks(type, sectionElement)).append(";\n");
+    source.append("  }\n\n");
+
+    source.append("  @Override\n");
+    source.append("  public void write(").append(typeName).append(" instance, int fieldIndex, Object value) {\n");
+    source.append("    switch (fieldIndex) {\n");
+    for (int i = 0; i < writableFields.size(); i++) {
+      VariableElement field = writableFields.get(i);
+      String declaringTypeName = types.erasure(field.getEnclosingElement().asType()).toString();
+
+      source.append("      case ").append(i).append(" -> ((").append(declaringTypeName).append(") instance).")
+        .append(field.getSimpleName()).append(" = ").append(castExpression(field.asType())).append(";\n");
+    }
+    source.append("      default -> throw new IllegalArgumentException(\"Unknown field index \" + fieldIndex);\n");
+    source.append("    }\n");
+    source.append("  }\n");
+    source.append("}\n");
+
+    String qualifiedMapperName = packageName.isEmpty() ? mapperName : packageName + "." + mapperName;
+
+    try (Writer writer = processingEnv.getFiler().createSourceFile(qualifiedMapperName, type).openWriter()) {
+      writer.write(source.toString());
+    }
+
+    return true;
+  }
+
+  /**
+   * Creates the expression which constructs the description of a mapped field
+   * @param field Mapped field
+   * @param writeIndex Index the generated mapper writes the field by, -1 if it cannot write it
+   * @param packageName Name of the package the mapper resides in
+   * @param sectionElement Element of the config section interface
+   * @return Source of the expression, null if the field cannot be described by generated code
+   */
+  private String describeField(VariableElement field, int writeIndex, String packageName, TypeElement sectionElement) {
+    TypeElement declaringType = (TypeElement) field.getEnclosingElement();
+    TypeMirror fieldType = field.asType();
+
+    String declaringLiteral = classLiteral(declaringType.asType(), packageName);
+    String typeLiteral = classLiteral(fieldType, packageName);
+
+    if (declaringLiteral == null || typeLiteral == null)
+      return null;
+
+    String genericTypes = "null";
+    String lazySectionType = "null";
+
+    if (fieldType.getKind() == TypeKind.DECLARED) {
+      DeclaredType declaredType = (DeclaredType) fieldType;
+      List<? extends TypeMirror> typeArguments = declaredType.getTypeArguments();
+
+      if (!typeArguments.isEmpty()) {
+        StringJoiner literals = new StringJoiner(", ", "java.util.List.of(", ")");
+
+        for (TypeMirror typeArgument : typeArguments) {
+          String literal = typeArgumentLiteral(typeArgument, packageName);
+
+          if (literal == null)
+            return null;
+
+          literals.add(literal);
+        }
+
+        genericTypes = literals.toString();
+      }
+
+      // Either a lazy section itself or a list or map holding lazy sections
+      DeclaredType lazyType = null;
+
+      if (isOfType(declaredType, LAZY_SECTION))
+        lazyType = declaredType;
+
+      else if (!typeArguments.isEmpty() && typeArguments.get(typeArguments.size() - 1) instanceof DeclaredType lastArgument && isOfType(lastArgument, LAZY_SECTION))
+        lazyType = lastArgument;
+
+      if (lazyType != null && !lazyType.getTypeArguments().isEmpty()) {
+        TypeMirror heldType = lazyType.getTypeArguments().get(0);
+
+        if (heldType.getKind() != TypeKind.DECLARED || !types.isAssignable(types.erasure(heldType), types.erasure(sectionElement.asType())))
+          return null;
+
+        lazySectionType = classLiteral(heldType, packageName);
+
+        if (lazySectionType == null)
+          return null;
+      }
+    }
+
+    return (
+      "new " + FIELD_DESCRIPTION + "(" +
+      declaringLiteral + ", " +
+      "\"" + field.getSimpleName() + "\", " +
+      typeLiteral + ", " +
+      genericTypes + ", " +
+      lazySectionType + ", " +
+      isAnnotationPresent(field, INLINED_ANNOTATION) + ", " +
+      (isAnnotationPresent(field, ALWAYS_ANNOTATION) || isAnnotationPresent(declaringType, ALWAYS_ANNOTATION)) + ", " +
+      writeIndex +
+      ")"
+    );
+  }
+
+  /**
+   * Creates the class literal a type argument is described by at runtime, which is it's raw type
+   * @param typeArgument Type argument in question
+   * @param packageName Name of the package to refer from
+   * @return Class literal, null if the argument has no raw type, like type variables or wildcards
+   */
+  private String typeArgumentLiteral(TypeMirror typeArgument, String packageName) {
+    if (typeArgument.getKind() == TypeKind.DECLARED)
+      return classLiteral(typeArgument, packageName);
+
+    // Arrays of generic types have no raw type
+    if (typeArgument.getKind() == TypeKind.ARRAY && types.isSameType(typeArgument, types.erasure(typeArgument)))
+      return classLiteral(typeArgument, packageName);
+
+    return null;
+  }
+
+  /**
+   * Creates the class literal of a type's erasure
+   * @param type Type in question
+   * @param packageName Name of the package to refer from
+   * @return Class literal, null if the type cannot be referred to from within the package
+   */
+  private String classLiteral(TypeMirror type, String packageName) {
+    TypeMirror erasure = types.erasure(type);
+    TypeMirror componentType = erasure;
+
+    while (componentType.getKind() == TypeKind.ARRAY)
+      componentType = ((ArrayType) componentType).getComponentType();
+
+    // Unresolved types are reported by the compiler already, don't emit uncompilable code on top
+    if (componentType.getKind() == TypeKind.ERROR)
+      return null;
+
+    if (componentType.getKind() == TypeKind.DECLARED && !isAccessibleType((TypeElement) ((DeclaredType) componentType).asElement(), packageName))
+      return null;
+
+    return erasure + ".class";
+  }
+
+  /**
+   * Collects all fields the mapper applies to in the order they're declared in, walking up the class hierarchy
+   * @param type Section type
+   * @return List of mapped fields
+   */
+  private List<VariableElement> collectMappedFields(TypeElement type) {
+    List<VariableElement> fields = new ArrayList<>();
+
+    TypeElement current = type;
+    while (current != null && !current.getQualifiedName().contentEquals("java.lang.Object")) {
+      for (VariableElement field : ElementFilter.fieldsIn(current.getEnclosedElements())) {
+        if (field.getModifiers().contains(Modifier.STATIC))
+          continue;
+
+        if (isAnnotationPresent(field, IGNORE_ANNOTATION))
+          continue;
+
+        fields.add(field);
+      }
+
+      TypeMirror superclass = current.getSuperclass();
+      current = superclass.getKind() == TypeKind.DECLARED ? (TypeElement) ((DeclaredType) superclass).asElement() : null;
+    }
+
+    return fields;
+  }
+
+  /**
+   * Checks whether a section overrides any of the hooks which receive reflected fields
+   * @param type Section type
+   * @param sectionElement Element of the config section interface
+   */
+  private boolean overridesFieldHooks(TypeElement type, TypeElement sectionElement) {
+    for (ExecutableElement method : ElementFilter.methodsIn(elements.getAllMembers(type))) {
+      if (!FIELD_HOOKS.contains(method.getSimpleName().toString()) || method.getParameters().size() != 1)
+        continue;
+
+      if (!method.getEnclosingElement().equals(sectionElement))
+        return true;
+    }
+
+    return false;
+  }
+
+  private boolean isWritableField(VariableElement field, String packageName) {
+    Set<Modifier> modifiers = field.getModifiers();
+
+    if (modifiers.contains(Modifier.FINAL) || modifiers.contains(Modifier.PRIVATE))
+      return false;
+
+    TypeElement declaringType = (TypeElement) field.getEnclosingElement();
+
+    if (!modifiers.contains(Modifier.PUBLIC) && !getPackageName(declaringType).equals(packageName))
+      return false;
+
+    if (!isAccessibleType(declaringType, packageName))
+      return false;
+
+    // The cast to the field's type has to compile as well
+    TypeMirror fieldType = types.erasure(field.asType());
+
+    while (fieldType.getKind() == TypeKind.ARRAY)
+      fieldType = ((ArrayType) fieldType).getComponentType();
+
+    if (fieldType.getKind() == TypeKind.DECLARED)
+      return isAccessibleType((TypeElement) ((DeclaredType) fieldType).asElement(), packageName);
+
+    return true;
+  }
+
+  private boolean hasAccessibleDefaultConstructor(TypeElement type) {
+    for (ExecutableElement constructor : ElementFilter.constructorsIn(type.getEnclosedElements())) {
+      if (constructor.getParameters().isEmpty())
+        return !constructor.getModifiers().contains(Modifier.PRIVATE);
+    }
+
+    return false;
+  }
+
+  /**
+   * Checks whether a type can be referred to from within a given package
+   * @param type Type in question
+   * @param packageName Name of the package to refer from
+   */
+  private boolean isAccessibleType(TypeElement type, String packageName) {
+    Element current = type;
+
+    while (current instanceof TypeElement currentType) {
+      Set<Modifier> modifiers = currentType.getModifiers();
+
+      if (modifiers.contains(Modifier.PRIVATE))
+        return false;
+
+      if (!modifiers.contains(Modifier.PUBLIC) && !getPackageName(currentType).equals(packageName))
+        return false;
+
+      current = currentType.getEnclosingElement();
+    }
+
+    return true;
+  }
+
+  /**
+   * Creates the expression which converts the mapped value to the field's type
+   * @param fieldType Type of the target field
+   * @return Cast expression of the value variable
+   */
+  private String castExpression(TypeMirror fieldType) {
+    return switch (fieldType.getKind()) {
+      // Primitives are only unboxed and widened, just as reflective field writes do, but never narrowed
+      case BYTE -> MAPPER_INTERFACE + ".unboxByte(value)";
+      case SHORT -> MAPPER_INTERFACE + ".unboxShort(value)";
+      case CHAR -> MAPPER_INTERFACE + ".unboxChar(value)";
+      case INT -> MAPPER_INTERFACE + ".unboxInt(value)";
+      case LONG -> MAPPER_INTERFACE + ".unboxLong(value)";
+      case FLOAT -> MAPPER_INTERFACE + ".unboxFloat(value)";
+      case DOUBLE -> MAPPER_INTERFACE + ".unboxDouble(value)";
+      case BOOLEAN -> MAPPER_INTERFACE + ".unboxBoolean(value)";
+      default -> "(" + types.erasure(fieldType) + ") value";
+    };
+  }
+
+  /**
+   * Registers all generated mappers as services, while keeping the registrations of previous
+   * compilations, as incremental builds only generate mappers of recompiled sections
+   */
+  private void registerMappers() {
+    Filer filer = processingEnv.getFiler();
+    Set<String> registrations = new TreeSet<>(generatedMappers);
+
+    try {
+      FileObject existing = filer.getResource(StandardLocation.CLASS_OUTPUT, "", SERVICE_FILE);
+
+      try (BufferedReader reader = new BufferedReader(existing.openReader(true))) {
+        String line;
+
+        while ((line = reader.readLine()) != null) {
+          line = line.trim();
+
+          if (!line.isEmpty() && !line.startsWith("#"))
+            registrations.add(line);
+        }
+      }
+    } catch (IOException | IllegalArgumentException ignored) {
+      // There are no previous registrations
+    }
+
+    try (Writer writer = filer.createResource(StandardLocation.CLASS_OUTPUT, "", SERVICE_FILE).openWriter()) {
+      for (String registration : registrations)
+        writer.write(registration + "\n");
+    } catch (IOException e) {
+      processingEnv.getMessager().printMessage(Diagnostic.Kind.ERROR, "Could not register the generated section mappers: " + e.getMessage());
+    }
+  }
+
+  private boolean isOfType(DeclaredType type, String qualifiedName) {
+    return ((TypeElement) type.asElement()).getQualifiedName().contentEquals(qualifiedName);
+  }
+
+  private boolean isAnnotationPresent(Element element, String annotationName) {
+    for (AnnotationMirror annotation : element.getAnnotationMirrors()) {
+      if (((TypeElement) annotation.getAnnotationType().asElement()).getQualifiedName().contentEquals(annotationName))
+        return true;
+    }
+
+    return false;
+  }
+
+  private String getPackageName(Element element) {
+    return elements.getPackageOf(element).getQualifiedName().toString();
+  }
+}
@@ -0,0 +1,258 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2023 BlvckBytes
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package de.jecore.bbconfigmapper.processor;
+
+import de.jecore.bbconfigmapper.ConfigMapper;
+import de.jecore.bbconfigmapper.GeneratedField;
+import de.jecore.bbconfigmapper.IGeneratedSectionMapper;
+import de.jecore.bbconfigmapper.TestEvaluators;
+import de.jecore.bbconfigmapper.YamlConfig;
+import de.jecore.bbconfigmapper.sections.IConfigSection;
+import me.blvckbytes.gpeee.IExpressionEvaluator;
+import org.jetbrains.annotations.Nullable;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.yaml.snakeyaml.Yaml;
+
+import javax.tools.*;
+import java.io.File;
+import java.io.IOException;
+import java.io.StringReader;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.*;
+import java.util.logging.Logger;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class SectionMapperProcessorTest {
+
+  private static final String SOURCE = String.join("\n",
+    "package sample;",
+    "import de.jecore.bbconfigmapper.LazySection;",
+    "import de.jecore.bbconfigmapper.sections.*;",
+    "import java.lang.reflect.Field;",
+    "import java.util.*;",
+    "public class Sections {",
+    "  public static class Base implements IConfigSection { public String baseName; }",
+    "  public static class Plain extends Base {",
+    "    public int amount; long big; private String secret;",
+    "    public List<String> names; public Map<String, Integer> counts;",
+    "    public LazySection<Child> lazy; @CSInlined public Child inlined; public Object decided;",
+    "    public Class<?> runtimeDecide(String field) { return String.class; }",
+    "  }",
+    "  public static class Child implements IConfigSection { public String v; }",
+    "  public static class Hooked implements IConfigSection {",
+    "    public String a; public String b; public List<String> seen = null;",
+    "    @Override public void afterParsing(List<Field> fields) {",
+    "      seen = new ArrayList<>(); for (Field f : fields) seen.add(f.getName());",
+    "    }",
+    "  }",
+    "  public static class Wild implements IConfigSection { public List<?> any; }",
+    "  public static class Ctor implements IConfigSection {",
+    "    public final String x; @CSConstructor public Ctor(String x) { this.x = x; }",
+    "  }",
+    "  public static class Narrow implements IConfigSection { public int small; }",
+    "}"
+  );
+
+  private static final String YAML = String.join("\n",
+    "baseName: b", "amount: 5", "big: 7", "secret: s", "names: [x, y]", "counts: {a: 1}",
+    "lazy: {v: l}", "v: inl", "decided: dd", "a: A", "b: B", "small: 3"
+  );
+
+  private Path outputDirectory;
+  private URLClassLoader loader;
+
+  @BeforeEach
+  public void compileSamples() throws Exception {
+    outputDirectory = Files.createTempDirectory("section-mappers");
+
+    JavaCompiler compiler = ToolProvider.getSystemJavaCompiler();
+    DiagnosticCollector<JavaFileObject> diagnostics = new DiagnosticCollector<>();
+
+    JavaFileObject source = new SimpleJavaFileObject(
+      new File("sample/Sections.java").toURI(), JavaFileObject.Kind.SOURCE
+    ) {
+      @Override
+      public CharSequence getCharContent(boolean ignoreEncodingErrors) {
+        return SOURCE;
+      }
+    };
+
+    List<String> options = List.of(
+      "-classpath", buildClassPath(),
+      "-d", outputDirectory.toString(),
+      "-s", outputDirectory.toString()
+    );
+
+    JavaCompiler.CompilationTask task = compiler.getTask(null, null, diagnostics, options, null, List.of(source));
+    task.setProcessors(List.of(new SectionMapperProcessor()));
+
+    assertTrue(task.call(), "Compilation failed: " + diagnostics.getDiagnostics());
+
+    loader = new URLClassLoader(new URL[] { outputDirectory.toUri().toURL() }, getClass().getClassLoader());
+  }
+
+  @AfterEach
+  public void cleanUp() throws IOException {
+    if (loader != null)
+      loader.close();
+
+    try (Stream<Path> paths = Files.walk(outputDirectory)) {
+      for (Path path : paths.sorted(Comparator.reverseOrder()).toList())
+        Files.delete(path);
+    }
+  }
+
+  @Test
+  public void shouldRegisterGeneratedMappersAsServices() throws Exception {
+    Path serviceFile = outputDirectory.resolve("META-INF/services/" + IGeneratedSectionMapper.class.getName());
+    List<String> registered = Files.readAllLines(serviceFile);
+
+    assertTrue(registered.contains("sample.Sections$Plain" + IGeneratedSectionMapper.CLASS_NAME_SUFFIX));
+    assertTrue(registered.contains("sample.Sections$Hooked" + IGeneratedSectionMapper.CLASS_NAME_SUFFIX));
+    assertTrue(registered.contains("sample.Sections$Narrow" + IGeneratedSectionMapper.CLASS_NAME_SUFFIX));
+  }
+
+  @Test
+  public void shouldSkipSectionsItCannotDescribe() {
+    // Wildcard type arguments have no class literal, constructor sections aren't written field by field
+    assertNull(findMapper("Wild"));
+    assertNull(findMapper("Ctor"));
+  }
+
+  @Test
+  public void shouldDescribeFieldsInDeclarationOrder() throws Exception {
+    IGeneratedSectionMapper<?> mapper = findMapper("Plain");
+    assertNotNull(mapper);
+
+    List<String> names = new ArrayList<>();
+    for (GeneratedField field : mapper.getFields())
+      names.add(field.name());
+
+    assertEquals(List.of(
+      "amount", "big", "secret", "names", "counts", "lazy", "inlined", "decided", "baseName"
+    ), names);
+
+    GeneratedField counts = mapper.getFields().get(4);
+    assertEquals(Map.class, counts.type());
+    assertEquals(List.of(String.class, Integer.class), counts.genericTypes());
+
+    GeneratedField lazy = mapper.getFields().get(5);
+    assertEquals(loader.loadClass("sample.Sections$Child"), lazy.lazySectionType());
+
+    assertTrue(mapper.getFields().get(6).inlined());
+    assertFalse(mapper.receivesReflectedFields());
+  }
+
+  @Test
+  public void shouldOnlyReflectFieldsForOverriddenHooks() throws Exception {
+    IGeneratedSectionMapper<?> mapper = findMapper("Hooked");
+    assertNotNull(mapper);
+    assertTrue(mapper.receivesReflectedFields());
+  }
+
+  @Test
+  @SuppressWarnings("unchecked")
+  public void shouldUnboxWithoutNarrowing() throws Exception {
+    IGeneratedSectionMapper<IConfigSection> mapper = (IGeneratedSectionMapper<IConfigSection>) findMapper("Narrow");
+    assertNotNull(mapper);
+
+    IConfigSection instance = mapper.newInstance();
+    Class<?> type = instance.getClass();
+
+    mapper.write(instance, 0, (short) 5);
+    assertEquals(5, type.getField("small").get(instance));
+
+    mapper.write(instance, 0, 'a');
+    assertEquals(97, type.getField("small").get(instance));
+
+    assertThrows(IllegalArgumentException.class, () -> mapper.write(instance, 0, 5L));
+    assertThrows(IllegalArgumentException.class, () -> mapper.write(instance, 0, 5.0));
+    assertThrows(IllegalArgumentException.class, () -> mapper.write(instance, 0, null));
+  }
+
+  @Test
+  @SuppressWarnings("unchecked")
+  public void shouldMapThroughGeneratedMappers() throws Exception {
+    ConfigMapper mapper = createMapper();
+
+    Class<? extends IConfigSection> plainType = (Class<? extends IConfigSection>) loader.loadClass("sample.Sections$Plain");
+    Object plain = mapper.mapSection(null, plainType);
+
+    assertEquals(5, plainType.getField("amount").get(plain));
+    assertEquals("b", plainType.getField("baseName").get(plain));
+    assertEquals(List.of("x", "y"), plainType.getField("names").get(plain));
+    assertEquals(Map.of("a", 1), plainType.getField("counts").get(plain));
+    assertEquals("dd", plainType.getField("decided").get(plain));
+
+    Object inlined = plainType.getField("inlined").get(plain);
+    assertEquals("inl", inlined.getClass().getField("v").get(inlined));
+
+    Class<? extends IConfigSection> hookedType = (Class<? extends IConfigSection>) loader.loadClass("sample.Sections$Hooked");
+    Object hooked = mapper.mapSection(null, hookedType);
+
+    assertEquals("A", hookedType.getField("a").get(hooked));
+    assertEquals(List.of("a", "b", "seen"), hookedType.getField("seen").get(hooked));
+
+    Class<? extends IConfigSection> ctorType = (Class<? extends IConfigSection>) loader.loadClass("sample.Sections$Ctor");
+    assertNull(ctorType.getField("x").get(mapper.mapSection(null, ctorType)));
+  }
+
+  private ConfigMapper createMapper() throws Exception {
+    Logger logger = Logger.getLogger(SectionMapperProcessorTest.class.getName());
+
+    YamlConfig config = new YamlConfig(null, logger, null);
+    config.load(new StringReader(YAML));
+
+    return new ConfigMapper(config, logger, TestEvaluators.throwing(), null);
+  }
+
+  private @Nullable IGeneratedSectionMapper<?> findMapper(String section) {
+    try {
+      Class<?> mapperType = loader.loadClass("sample.Sections$" + section + IGeneratedSectionMapper.CLASS_NAME_SUFFIX);
+      return (IGeneratedSectionMapper<?>) mapperType.getDeclaredConstructor().newInstance();
+    } catch (ClassNotFoundException e) {
+      return null;
+    } catch (ReflectiveOperationException e) {
+      throw new IllegalStateException(e);
+    }
+  }
+
+  private String buildClassPath() throws Exception {
+    // Surefire may hand over a manifest-only jar, so locate the libraries by the classes they contain
+    Set<String> entries = new LinkedHashSet<>();
+
+    for (Class<?> type : List.of(IConfigSection.class, Nullable.class, IExpressionEvaluator.class, Yaml.class))
+      entries.add(Path.of(type.getProtectionDomain().getCodeSource().getLocation().toURI()).toString());
+
+    return String.join(File.pathSeparator, entries);
+  }
+}